@@ -0,0 +1,89 @@
+package com.miaomc.authLinker.benchmark;
+
+import com.miaomc.authLinker.audit.AuditEventType;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 审计日志吞吐量：一个生产者线程写入事件，并等待写入线程把这批事件写进内存映射分段，结果为端到端的每秒事件数
+ * 每批事件数小于环形缓冲区，不会丢弃事件。测量单核吞吐量时用 taskset 把JMH进程（包括分叉的JVM）限制在一个核上：
+ * taskset -c 0 mvn -pl core -Pjmh test-compile exec:exec -Djmh.args="AuditJournalBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class AuditJournalBenchmark {
+    private static final int BATCH = 1024;
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final UUID[] players = new UUID[BATCH];
+    private final String[] records = new String[BATCH];
+    private AuditJournal journal;
+    private LongAdder written;
+    private long expected;
+    private File directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        for (int i = 0; i < BATCH; i++) {
+            players[i] = UUID.randomUUID();
+            records[i] = UUID.randomUUID().toString();
+        }
+        directory = Files.createTempDirectory("authlinker-audit-bench").toFile();
+        journal = new AuditJournal(Logger.getLogger("AuditJournalBenchmark"), metrics, BATCH * 4);
+        // 与默认配置相同的分段大小、保留数量和刷盘间隔
+        journal.open(directory, 64, 16, 1000);
+        written = metrics.counter("audit_events_written");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void recordAndWrite() {
+        for (int i = 0; i < BATCH; i++) {
+            if (!journal.record(AuditEventType.GENERATED, players[i], records[i], "login")) {
+                throw new IllegalStateException("审计日志未打开或缓冲区已满");
+            }
+        }
+        expected += BATCH;
+        // 单核时让出CPU给写入线程
+        while (written.sum() < expected) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.miaomc.authLinker.benchmark;
+
+import com.miaomc.authLinker.utils.CooldownManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷却快照的保存和恢复：一百万条未过期的冷却记录（4种操作），恢复到空的冷却管理器中
+ * 启动时恢复快照在主线程中执行，load 应远低于1秒：
+ * mvn -pl core -Pjmh test-compile exec:exec -Djmh.args="CooldownSnapshotBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CooldownSnapshotBenchmark {
+    private static final int ENTRIES = 1_000_000;
+    private static final String[] ACTIONS = {"login", "register", "bind", "reset"};
+
+    private CooldownManager source;
+    private File snapshot;
+    private File saved;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = new CooldownManager(120);
+        for (int i = 0; i < ENTRIES; i++) {
+            source.recordAction(UUID.randomUUID(), ACTIONS[i % ACTIONS.length], 3600);
+        }
+        snapshot = File.createTempFile("authlinker-cooldown-bench", ".bin");
+        saved = File.createTempFile("authlinker-cooldown-bench-save", ".bin");
+        if (source.saveSnapshot(snapshot) != ENTRIES) {
+            throw new IllegalStateException("快照条目数量不符");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        snapshot.delete();
+        saved.delete();
+    }
+
+    @Benchmark
+    public int load() throws IOException {
+        return new CooldownManager(120).loadSnapshot(snapshot);
+    }
+
+    @Benchmark
+    public int save() throws IOException {
+        return source.saveSnapshot(saved);
+    }
+}
@@ -0,0 +1,78 @@
+package com.miaomc.authLinker.benchmark;
+
+import com.miaomc.authLinker.utils.LinkSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 链接签名：预计算密钥的HMAC-SHA256、分段update的SHA-256，与旧版拼接字符串后整体计算SHA-256的实现对比
+ * 分配量使用 -prof gc 查看：
+ * mvn -pl core -Pjmh test-compile exec:exec -Djmh.args="LinkSignerBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LinkSignerBenchmark {
+    private static final String SALT = "abc123";
+
+    private final LinkSigner hmacSigner = new LinkSigner(LinkSigner.MODE_HMAC_SHA256, SALT);
+    private final LinkSigner sha256Signer = new LinkSigner(LinkSigner.MODE_SHA256, SALT);
+    private String encodedData;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // 与 LinkAction#encodeData 生成的数据长度相当
+        String json = "{\"uuid\":\"5f0c6a8e-3b1d-4c2e-9a7f-1e2d3c4b5a69\",\"action\":\"login\"," +
+                "\"player_uuid\":\"069a79f4-44e9-4726-a5be-fca90e38aaf5\",\"expires_time\":1760000000000}";
+        encodedData = Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+        token = "aB3dE5gH7jK9";
+    }
+
+    @Benchmark
+    public String hmacSha256() {
+        return hmacSigner.sign(encodedData, token);
+    }
+
+    @Benchmark
+    public String sha256() {
+        return sha256Signer.sign(encodedData, token);
+    }
+
+    /**
+     * 旧版实现：拼接字符串后每次新建MessageDigest，并逐字节格式化十六进制
+     */
+    @Benchmark
+    public String legacyConcatSha256() throws NoSuchAlgorithmException {
+        String dataToHash = encodedData + token + SALT;
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hashBytes = digest.digest(dataToHash.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hashBytes) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.miaomc.authLinker.benchmark;
+
+import com.miaomc.authLinker.utils.ObfuscatedBase64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 链接数据编码：按周期轮换的混淆Base64与 java.util.Base64 对比
+ * 数据为一个RSA-2048密文块（256字节），与链接中的 data 参数长度相同；分配量使用 -prof gc 查看：
+ * mvn -pl core -Pjmh test-compile exec:exec -Djmh.args="ObfuscatedBase64Benchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObfuscatedBase64Benchmark {
+    private static final String TABLE = "jQNHxo9a1zVG8dFcyb27XmiwOl0WULnkPsBKqEAZYfer3t5RMDSCJhgvu4pTI6-.";
+
+    private final ObfuscatedBase64 obfuscated = new ObfuscatedBase64(TABLE, 86400);
+    private final Base64.Encoder encoder = Base64.getEncoder();
+    private final Base64.Decoder decoder = Base64.getDecoder();
+    private byte[] ciphertext;
+    private long epoch;
+    private String obfuscatedText;
+    private String base64Text;
+
+    @Setup
+    public void setUp() {
+        ciphertext = new byte[256];
+        new Random(42).nextBytes(ciphertext);
+        epoch = obfuscated.currentEpoch();
+        obfuscatedText = obfuscated.encode(ciphertext, epoch);
+        base64Text = encoder.encodeToString(ciphertext);
+    }
+
+    /**
+     * 与链接生成相同，每次按当前时间计算周期
+     */
+    @Benchmark
+    public String obfuscatedEncode() {
+        return obfuscated.encode(ciphertext);
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return encoder.encodeToString(ciphertext);
+    }
+
+    @Benchmark
+    public byte[] obfuscatedDecode() {
+        return obfuscated.decode(obfuscatedText, epoch);
+    }
+
+    @Benchmark
+    public byte[] base64Decode() {
+        return decoder.decode(base64Text);
+    }
+}
@@ -0,0 +1,76 @@
+package com.miaomc.authLinker.api;
+
+import com.miaomc.authLinker.service.AuthLinkGenerator.AuthLinkResult;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AuthLinker 对外服务接口
+ * 通过 Bukkit 的 ServicesManager 获取：
+ * <pre>
+ * AuthLinkerService service = Bukkit.getServicesManager().load(AuthLinkerService.class);
+ * </pre>
+ * 所有方法都不会阻塞调用线程，返回的 CompletableFuture 在异步线程中完成，
+ * 如需操作 Bukkit API 请自行切回主线程
+ */
+public interface AuthLinkerService {
+
+    /**
+     * 为玩家生成认证链接（与 /al gen 相同，受冷却时间限制）
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @return 生成结果
+     */
+    CompletableFuture<AuthLinkResult> generate(UUID playerUUID, String action);
+
+    /**
+     * 为多个玩家批量生成同一操作的认证链接
+     * 所有链接在一次加密流程中生成，并通过一条多行INSERT写入数据库
+     *
+     * @param playerUUIDs 玩家UUID集合（重复的UUID只生成一次）
+     * @param action      操作类型
+     * @return 玩家UUID到生成结果的映射，处于冷却中的玩家对应失败的结果
+     */
+    CompletableFuture<Map<UUID, AuthLinkResult>> generateBatch(Collection<UUID> playerUUIDs, String action);
+
+    /**
+     * 核销认证记录：记录存在、令牌匹配、未使用且未过期时将其标记为已使用
+     *
+     * @param recordUUID 记录UUID
+     * @param token      令牌
+     * @return 是否核销成功
+     */
+    CompletableFuture<Boolean> consume(String recordUUID, String token);
+
+    /**
+     * 校验并核销无状态链接（stateless.enabled 为 true 时发放的链接）
+     * 令牌和过期时间从加密数据中解出并校验签名，同一链接只能核销一次，核销后才写入数据库
+     *
+     * @param data 链接中的 data 参数
+     * @param hash 链接中的 hash 参数
+     * @return 核销结果，签名校验通过时包含链接所属的玩家、操作和记录UUID
+     */
+    CompletableFuture<ConsumedLink> consumeSigned(String data, String hash);
+
+    /**
+     * 查询认证记录的状态
+     *
+     * @param recordUUID 记录UUID
+     * @return 记录状态
+     */
+    CompletableFuture<LinkStatus> status(String recordUUID);
+
+    /**
+     * 按创建时间从新到旧分页查询玩家的历史链接
+     *
+     * @param playerUUID 玩家UUID
+     * @param cursor     上一页返回的 {@link HistoryPage#getNextCursor()}，为null时查询第一页
+     * @param limit      每页记录数
+     * @return 历史记录分页结果
+     */
+    CompletableFuture<HistoryPage> history(UUID playerUUID, String cursor, int limit);
+}
@@ -0,0 +1,17 @@
+package com.miaomc.authLinker.api;
+
+/**
+ * 无状态链接的核销结果
+ */
+public enum ConsumeStatus {
+    /** 核销成功 */
+    CONSUMED,
+    /** 数据无法解密、格式不正确或签名不符 */
+    INVALID,
+    /** 签名有效但已过期 */
+    EXPIRED,
+    /** 已在本服务器、其他服务器或重启前核销过 */
+    ALREADY_CONSUMED,
+    /** 数据库暂时不可用，未能记录核销，可以重试 */
+    UNAVAILABLE
+}
@@ -0,0 +1,41 @@
+package com.miaomc.authLinker.api;
+
+import java.util.UUID;
+
+/**
+ * 无状态链接的核销结果及链接数据中解出的记录
+ * 签名校验通过时（包括已过期和已被核销的链接）包含玩家、操作和记录UUID，
+ * 结果为 {@link ConsumeStatus#INVALID} 时这些字段为null
+ */
+public class ConsumedLink {
+    private final ConsumeStatus status;
+    private final UUID playerUUID;
+    private final String action;
+    private final String recordUUID;
+
+    public ConsumedLink(ConsumeStatus status, UUID playerUUID, String action, String recordUUID) {
+        this.status = status;
+        this.playerUUID = playerUUID;
+        this.action = action;
+        this.recordUUID = recordUUID;
+    }
+
+    /**
+     * 数据无效或签名不符时的结果
+     */
+    public static ConsumedLink invalid() {
+        return new ConsumedLink(ConsumeStatus.INVALID, null, null, null);
+    }
+
+    public ConsumeStatus getStatus() { return status; }
+    public UUID getPlayerUUID() { return playerUUID; }
+    public String getAction() { return action; }
+    public String getRecordUUID() { return recordUUID; }
+
+    /**
+     * 是否核销成功
+     */
+    public boolean isConsumed() {
+        return status == ConsumeStatus.CONSUMED;
+    }
+}
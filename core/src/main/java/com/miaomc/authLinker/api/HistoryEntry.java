@@ -0,0 +1,26 @@
+package com.miaomc.authLinker.api;
+
+/**
+ * 玩家的一条历史链接记录
+ */
+public class HistoryEntry {
+    private final String recordUUID;
+    private final String action;
+    private final LinkStatus status;
+    private final long createdAtMillis;
+    private final long expiresAtMillis;
+
+    public HistoryEntry(String recordUUID, String action, LinkStatus status, long createdAtMillis, long expiresAtMillis) {
+        this.recordUUID = recordUUID;
+        this.action = action;
+        this.status = status;
+        this.createdAtMillis = createdAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getRecordUUID() { return recordUUID; }
+    public String getAction() { return action; }
+    public LinkStatus getStatus() { return status; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+}
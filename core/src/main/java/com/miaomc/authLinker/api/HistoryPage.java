@@ -0,0 +1,30 @@
+package com.miaomc.authLinker.api;
+
+import java.util.List;
+
+/**
+ * 历史记录分页结果
+ */
+public class HistoryPage {
+    private final List<HistoryEntry> entries;
+    private final String nextCursor;
+
+    public HistoryPage(List<HistoryEntry> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 获取本页记录（按创建时间从新到旧）
+     */
+    public List<HistoryEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * 获取下一页的游标，没有更多记录时为null
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,17 @@
+package com.miaomc.authLinker.api;
+
+/**
+ * 认证记录的状态
+ */
+public enum LinkStatus {
+    /** 未使用且未过期 */
+    UNUSED,
+    /** 已被使用 */
+    USED,
+    /** 已被作废（例如玩家强制生成了新链接） */
+    REVOKED,
+    /** 未使用但已过期 */
+    EXPIRED,
+    /** 记录不存在（或已被清理） */
+    NOT_FOUND
+}
@@ -0,0 +1,128 @@
+package com.miaomc.authLinker.audit;
+
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * 审计事件及其定长编码
+ * 每条记录固定 {@value #RECORD_SIZE} 字节：
+ * <pre>
+ *  0  时间戳（毫秒）        8字节
+ *  8  玩家UUID              16字节（未知时为0）
+ * 24  记录UUID              16字节（冷却拒绝等没有记录时为0）
+ * 40  事件类型              1字节
+ * 41  操作名长度            1字节
+ * 42  操作名（ASCII，截断） 16字节
+ * 58  保留                  2字节
+ * 60  CRC32C（0-59字节）    4字节
+ * </pre>
+ * 校验和不匹配的记录视为未写完（崩溃时被截断），读取到此为止
+ */
+public class AuditEvent {
+    public static final int RECORD_SIZE = 64;
+    static final int ACTION_BYTES = 16;
+    private static final int CHECKSUM_OFFSET = 60;
+
+    private final long timeMillis;
+    private final AuditEventType type;
+    private final UUID playerUUID;
+    private final UUID recordUUID;
+    private final String action;
+
+    public AuditEvent(long timeMillis, AuditEventType type, UUID playerUUID, UUID recordUUID, String action) {
+        this.timeMillis = timeMillis;
+        this.type = type;
+        this.playerUUID = playerUUID;
+        this.recordUUID = recordUUID;
+        this.action = action;
+    }
+
+    public long getTimeMillis() { return timeMillis; }
+    public AuditEventType getType() { return type; }
+    /** 玩家UUID，未知时为null */
+    public UUID getPlayerUUID() { return playerUUID; }
+    /** 记录UUID，没有记录时为null */
+    public UUID getRecordUUID() { return recordUUID; }
+    public String getAction() { return action; }
+
+    /**
+     * 编码一条记录到 scratch（长度为 {@value #RECORD_SIZE} 的堆缓冲区）
+     *
+     * @param recordUUID 记录UUID字符串，可为null；无法解析时按0写入
+     */
+    static void encode(ByteBuffer scratch, CRC32C crc, long timeMillis, AuditEventType type, UUID playerUUID,
+                       String recordUUID, String action) {
+        scratch.putLong(0, timeMillis);
+        scratch.putLong(8, playerUUID != null ? playerUUID.getMostSignificantBits() : 0L);
+        scratch.putLong(16, playerUUID != null ? playerUUID.getLeastSignificantBits() : 0L);
+        UUID record = parseUUID(recordUUID);
+        scratch.putLong(24, record != null ? record.getMostSignificantBits() : 0L);
+        scratch.putLong(32, record != null ? record.getLeastSignificantBits() : 0L);
+        scratch.put(40, (byte) type.getCode());
+
+        int length = action != null ? Math.min(action.length(), ACTION_BYTES) : 0;
+        scratch.put(41, (byte) length);
+        for (int i = 0; i < ACTION_BYTES; i++) {
+            char c = i < length ? action.charAt(i) : 0;
+            scratch.put(42 + i, (byte) (c < 0x80 ? c : '?'));
+        }
+        scratch.putShort(58, (short) 0);
+
+        crc.reset();
+        crc.update(scratch.array(), 0, CHECKSUM_OFFSET);
+        scratch.putInt(CHECKSUM_OFFSET, (int) crc.getValue());
+    }
+
+    /**
+     * 解码一条记录
+     *
+     * @param record 长度为 {@value #RECORD_SIZE} 的记录字节
+     * @return 校验和不匹配或类型未知时返回null
+     */
+    static AuditEvent decode(byte[] record, CRC32C crc) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        crc.reset();
+        crc.update(record, 0, CHECKSUM_OFFSET);
+        if (buffer.getInt(CHECKSUM_OFFSET) != (int) crc.getValue()) {
+            return null;
+        }
+        AuditEventType type = AuditEventType.fromCode(record[40]);
+        if (type == null) {
+            return null;
+        }
+        int length = Math.min(record[41], ACTION_BYTES);
+        StringBuilder action = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            action.append((char) record[42 + i]);
+        }
+        return new AuditEvent(buffer.getLong(0), type, toUUID(buffer.getLong(8), buffer.getLong(16)),
+                toUUID(buffer.getLong(24), buffer.getLong(32)), action.toString());
+    }
+
+    private static UUID parseUUID(String uuid) {
+        if (uuid == null || uuid.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static UUID toUUID(long most, long least) {
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+
+    /**
+     * 输出为一行以制表符分隔的文本：时间、类型、玩家、操作、记录
+     */
+    @Override
+    public String toString() {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timeMillis)) + '\t' + type.getName() + '\t' +
+                (playerUUID != null ? playerUUID : "-") + '\t' + action + '\t' + (recordUUID != null ? recordUUID : "-");
+    }
+}
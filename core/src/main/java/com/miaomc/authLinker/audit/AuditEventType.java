@@ -0,0 +1,67 @@
+package com.miaomc.authLinker.audit;
+
+/**
+ * 审计事件类型（编码值写入日志文件，已有的值不能修改）
+ */
+public enum AuditEventType {
+    // 生成新链接
+    GENERATED(1, "generated"),
+    // 幂等模式下复用已有链接
+    REUSED(2, "reused"),
+    // 冷却中被拒绝
+    COOLDOWN_REJECTED(3, "cooldown"),
+    // 插件内核销（AuthLinkerService#consume / consumeSigned）
+    CONSUMED(4, "consumed"),
+    // 变更流发现网页端已使用的链接
+    CONSUME_OBSERVED(5, "consume_observed");
+
+    private static final AuditEventType[] BY_CODE = new AuditEventType[8];
+
+    static {
+        for (AuditEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final String name;
+
+    AuditEventType(int code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * 用于输出和筛选的类型名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 按编码值查找类型
+     *
+     * @return 未知编码返回null
+     */
+    public static AuditEventType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * 按类型名查找类型
+     *
+     * @return 未知类型名返回null
+     */
+    public static AuditEventType fromName(String name) {
+        for (AuditEventType type : values()) {
+            if (type.name.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
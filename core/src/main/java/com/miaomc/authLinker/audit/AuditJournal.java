@@ -0,0 +1,312 @@
+package com.miaomc.authLinker.audit;
+
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * 链接生命周期审计日志
+ * 生成、复用、冷却拒绝和核销事件写入本地的内存映射分段文件，不增加数据库写入。
+ * 事件先放入预分配的环形缓冲区：生产者只做一次CAS和几次数组写入，缓冲区满时丢弃事件并计数，从不阻塞；
+ * 单个写入线程按顺序把事件编码为定长记录写入当前分段，分段写满后切换到下一个并删除超出保留数量的旧分段。
+ * 每条记录带有校验和，进程或系统崩溃时最多丢失最后几条未写完的记录，读取时遇到校验失败的记录即停止。
+ */
+public class AuditJournal {
+    static final long MAGIC = 0x414C415544495431L; // "ALAUDIT1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-\\d{10}\\.seg");
+
+    private final Logger logger;
+    private final int mask;
+    private final long capacity;
+    // 环形缓冲区的各个字段（按槽位存放，避免为每个事件分配对象）
+    private final long[] times;
+    private final byte[] types;
+    private final UUID[] players;
+    private final String[] records;
+    private final String[] actions;
+    // 槽位已发布的序号+1，写入线程据此判断槽位内容是否完整
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder writtenEvents;
+    private final LongAdder droppedEvents;
+
+    private volatile boolean open;
+    private volatile boolean running;
+    private Thread writer;
+    private File directory;
+    private int segmentBytes;
+    private int maxSegments;
+    private long flushIntervalNanos;
+
+    // 以下字段只由写入线程访问
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private int position;
+    private final ByteBuffer scratch = ByteBuffer.allocate(AuditEvent.RECORD_SIZE);
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * @param logger   插件日志
+     * @param metrics  指标注册表
+     * @param ringSize 环形缓冲区大小（向上取整为2的幂）
+     */
+    public AuditJournal(Logger logger, MetricsRegistry metrics, int ringSize) {
+        this.logger = logger;
+        int size = Integer.highestOneBit(Math.max(1024, ringSize - 1)) << 1;
+        this.mask = size - 1;
+        this.capacity = size;
+        this.times = new long[size];
+        this.types = new byte[size];
+        this.players = new UUID[size];
+        this.records = new String[size];
+        this.actions = new String[size];
+        this.published = new AtomicLongArray(size);
+        this.writtenEvents = metrics.counter("audit_events_written");
+        this.droppedEvents = metrics.counter("audit_events_dropped");
+    }
+
+    /**
+     * 打开日志目录并启动写入线程
+     * 上次未正常关闭的分段会截断到最后一条完整记录，新事件总是写入新的分段
+     *
+     * @param directory       日志目录
+     * @param segmentMb       单个分段大小（MB）
+     * @param maxSegments     保留的分段数量
+     * @param flushIntervalMs 刷盘间隔（毫秒），进程崩溃不依赖刷盘，刷盘用于防止系统崩溃或断电时丢失数据
+     */
+    public void open(File directory, int segmentMb, int maxSegments, long flushIntervalMs) {
+        this.directory = directory;
+        this.segmentBytes = (int) Math.min(1024L * 1024 * 1024, Math.max(1, segmentMb) * 1024L * 1024);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("无法创建目录 " + directory);
+            }
+            List<File> segments = listSegments(directory);
+            long nextIndex = 1;
+            if (!segments.isEmpty()) {
+                File last = segments.get(segments.size() - 1);
+                truncateToLastRecord(last);
+                nextIndex = segmentIndexOf(last) + 1;
+            }
+            openSegment(nextIndex);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "无法打开审计日志，审计事件将不会被记录", e);
+            return;
+        }
+
+        running = true;
+        open = true;
+        writer = new Thread(this::runWriter, "AuthLinker-AuditWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 记录一个事件（任意线程调用，不阻塞；缓冲区满或日志未打开时丢弃）
+     *
+     * @param type       事件类型
+     * @param playerUUID 玩家UUID，未知时为null
+     * @param recordUUID 记录UUID，没有时为null
+     * @param action     操作类型
+     * @return 事件是否进入缓冲区
+     */
+    public boolean record(AuditEventType type, UUID playerUUID, String recordUUID, String action) {
+        if (!open) {
+            return false;
+        }
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed.get() >= capacity) {
+                droppedEvents.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        int slot = (int) (seq & mask);
+        times[slot] = System.currentTimeMillis();
+        types[slot] = (byte) type.getCode();
+        players[slot] = playerUUID;
+        records[slot] = recordUUID;
+        actions[slot] = action;
+        published.lazySet(slot, seq + 1);
+        return true;
+    }
+
+    /**
+     * 停止写入线程，写完缓冲区中的事件并刷盘
+     */
+    public void close() {
+        open = false;
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * 日志目录（未打开时为null）
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    private void runWriter() {
+        long lastFlush = System.nanoTime();
+        boolean dirty = false;
+        try {
+            while (true) {
+                int written = drain(4096);
+                dirty |= written > 0;
+                if (dirty && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                    segment.force();
+                    dirty = false;
+                    lastFlush = System.nanoTime();
+                }
+                if (written == 0) {
+                    if (!running && consumed.get() == claimed.get()) {
+                        break;
+                    }
+                    LockSupport.parkNanos(1_000_000L);
+                }
+            }
+            segment.force();
+        } catch (IOException | RuntimeException e) {
+            open = false;
+            logger.log(Level.SEVERE, "写入审计日志失败，已停止记录审计事件", e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 按顺序写入已发布的事件，遇到尚未发布完成的槽位时停止
+     *
+     * @return 写入的事件数量
+     */
+    private int drain(int maxEvents) throws IOException {
+        long next = consumed.get();
+        int count = 0;
+        while (count < maxEvents) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next + 1) {
+                break;
+            }
+            if (position + AuditEvent.RECORD_SIZE > segmentBytes) {
+                rotate();
+            }
+            AuditEvent.encode(scratch, crc, times[slot], AuditEventType.fromCode(types[slot]), players[slot],
+                    records[slot], actions[slot]);
+            segment.put(position, scratch.array());
+            position += AuditEvent.RECORD_SIZE;
+            next++;
+            count++;
+            // 读取完槽位内容后才释放给生产者
+            consumed.lazySet(next);
+        }
+        if (count > 0) {
+            writtenEvents.add(count);
+        }
+        return count;
+    }
+
+    private void rotate() throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(segmentIndex + 1);
+    }
+
+    private void openSegment(long index) throws IOException {
+        File file = new File(directory, segmentName(index));
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // 映射时文件扩展为分段大小（稀疏文件，未写入的部分不占用磁盘）
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segment.putLong(0, MAGIC);
+        segment.putInt(8, VERSION);
+        segment.putInt(12, AuditEvent.RECORD_SIZE);
+        segment.putLong(16, System.currentTimeMillis());
+        segment.putLong(24, index);
+        segmentIndex = index;
+        position = HEADER_SIZE;
+
+        List<File> segments = listSegments(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            if (!segments.get(i).delete()) {
+                logger.warning("无法删除旧的审计日志分段: " + segments.get(i).getName());
+            }
+        }
+    }
+
+    /**
+     * 将上次未正常关闭的分段截断到最后一条完整记录，避免其后残留的旧数据被误读
+     */
+    private void truncateToLastRecord(File file) throws IOException {
+        try (FileChannel existing = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = AuditJournalReader.findEnd(existing);
+            if (end < existing.size()) {
+                existing.truncate(end);
+            }
+        }
+    }
+
+    static String segmentName(long index) {
+        return String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    static long segmentIndexOf(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 列出目录中的分段文件（按序号从旧到新）
+     */
+    static List<File> listSegments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> SEGMENT_NAME.matcher(name).matches());
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(segmentIndexOf(a), segmentIndexOf(b)));
+        return new ArrayList<>(Arrays.asList(files));
+    }
+}
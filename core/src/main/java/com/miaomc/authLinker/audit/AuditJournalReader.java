@@ -0,0 +1,175 @@
+package com.miaomc.authLinker.audit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 审计日志读取工具
+ * 按分段顺序扫描记录，支持按玩家、时间范围和事件类型筛选；分段头中的创建时间用于跳过不在时间范围内的分段。
+ * 可在插件内通过 /authlinker audit 调用，也可以在服务器外直接运行：
+ * <pre>
+ * java -cp AuthLinker.jar com.miaomc.authLinker.audit.AuditJournalReader plugins/AuthLinker/audit \
+ *     [player=&lt;UUID&gt;] [from=&lt;时间&gt;] [to=&lt;时间&gt;] [type=&lt;类型&gt;]
+ * </pre>
+ * 时间可以是毫秒时间戳或 2024-01-01T12:00:00 格式的本地时间
+ */
+public final class AuditJournalReader {
+    // 事件在生产者处取时间，写入时可能已经切换到下一个分段，跳过分段时留出余量
+    private static final long SEGMENT_SLACK_MILLIS = 60_000L;
+
+    private AuditJournalReader() {
+    }
+
+    /**
+     * 扫描日志目录
+     *
+     * @param directory  日志目录
+     * @param playerUUID 只返回该玩家的事件，为null时不限
+     * @param fromMillis 起始时间（包含）
+     * @param toMillis   结束时间（包含）
+     * @param type       只返回该类型的事件，为null时不限
+     * @param sink       按写入顺序接收匹配的事件
+     * @return 扫描的记录总数
+     */
+    public static long scan(File directory, UUID playerUUID, long fromMillis, long toMillis, AuditEventType type,
+                            Consumer<AuditEvent> sink) throws IOException {
+        List<File> segments = AuditJournal.listSegments(directory);
+        byte[] record = new byte[AuditEvent.RECORD_SIZE];
+        CRC32C crc = new CRC32C();
+        long scanned = 0;
+
+        for (int i = 0; i < segments.size(); i++) {
+            try (FileChannel channel = FileChannel.open(segments.get(i).toPath(), StandardOpenOption.READ)) {
+                if (channel.size() < AuditJournal.HEADER_SIZE) {
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getLong(0) != AuditJournal.MAGIC) {
+                    continue;
+                }
+                // 分段覆盖从本分段创建到下一分段创建之间的事件
+                long createdAt = buffer.getLong(16);
+                if (createdAt - SEGMENT_SLACK_MILLIS > toMillis) {
+                    break;
+                }
+                if (i + 1 < segments.size() && nextSegmentCreatedAt(segments.get(i + 1)) + SEGMENT_SLACK_MILLIS < fromMillis) {
+                    continue;
+                }
+
+                for (long offset = AuditJournal.HEADER_SIZE; offset + AuditEvent.RECORD_SIZE <= buffer.limit(); offset += AuditEvent.RECORD_SIZE) {
+                    buffer.get((int) offset, record);
+                    AuditEvent event = AuditEvent.decode(record, crc);
+                    if (event == null) {
+                        // 分段的有效记录到此为止
+                        break;
+                    }
+                    scanned++;
+                    if ((playerUUID == null || playerUUID.equals(event.getPlayerUUID()))
+                            && (type == null || type == event.getType())
+                            && event.getTimeMillis() >= fromMillis && event.getTimeMillis() <= toMillis) {
+                        sink.accept(event);
+                    }
+                }
+            }
+        }
+        return scanned;
+    }
+
+    /**
+     * 找到分段中最后一条完整记录之后的位置
+     */
+    static long findEnd(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < AuditJournal.HEADER_SIZE) {
+            return size;
+        }
+        ByteBuffer record = ByteBuffer.allocate(AuditEvent.RECORD_SIZE);
+        CRC32C crc = new CRC32C();
+        long offset = AuditJournal.HEADER_SIZE;
+        while (offset + AuditEvent.RECORD_SIZE <= size) {
+            record.clear();
+            channel.read(record, offset);
+            if (AuditEvent.decode(record.array(), crc) == null) {
+                break;
+            }
+            offset += AuditEvent.RECORD_SIZE;
+        }
+        return offset;
+    }
+
+    private static long nextSegmentCreatedAt(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(24);
+            channel.read(header, 0);
+            return header.getLong(0) == AuditJournal.MAGIC ? header.getLong(16) : Long.MAX_VALUE;
+        }
+    }
+
+    private static long parseTime(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("用法: AuditJournalReader <审计日志目录> [player=<UUID>] [from=<时间>] [to=<时间>] [type=<类型>]");
+            System.exit(1);
+        }
+        UUID playerUUID = null;
+        long fromMillis = Long.MIN_VALUE;
+        long toMillis = Long.MAX_VALUE;
+        AuditEventType type = null;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                int separator = arg.indexOf('=');
+                String key = separator > 0 ? arg.substring(0, separator) : arg;
+                String value = separator > 0 ? arg.substring(separator + 1) : "";
+                switch (key) {
+                    case "player":
+                        playerUUID = UUID.fromString(value);
+                        break;
+                    case "from":
+                        fromMillis = parseTime(value);
+                        break;
+                    case "to":
+                        toMillis = parseTime(value);
+                        break;
+                    case "type":
+                        type = AuditEventType.fromName(value);
+                        if (type == null) {
+                            throw new IllegalArgumentException("未知的事件类型: " + value);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知的参数: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        long[] matched = new long[1];
+        long scanned = scan(new File(args[0]), playerUUID, fromMillis, toMillis, type, event -> {
+            System.out.println(event);
+            matched[0]++;
+        });
+        System.err.println("扫描 " + scanned + " 条记录，匹配 " + matched[0] + " 条");
+    }
+}
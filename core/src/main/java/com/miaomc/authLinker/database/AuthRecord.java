@@ -0,0 +1,28 @@
+package com.miaomc.authLinker.database;
+
+import java.util.UUID;
+
+/**
+ * 待写入数据库的认证记录
+ */
+public class AuthRecord {
+    private final String recordUUID;
+    private final UUID playerUUID;
+    private final String action;
+    private final String token;
+    private final long expiresAtMillis;
+
+    public AuthRecord(String recordUUID, UUID playerUUID, String action, String token, long expiresAtMillis) {
+        this.recordUUID = recordUUID;
+        this.playerUUID = playerUUID;
+        this.action = action;
+        this.token = token;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getRecordUUID() { return recordUUID; }
+    public UUID getPlayerUUID() { return playerUUID; }
+    public String getAction() { return action; }
+    public String getToken() { return token; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+}
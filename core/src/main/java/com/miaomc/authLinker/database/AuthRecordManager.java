@@ -0,0 +1,1436 @@
+package com.miaomc.authLinker.database;
+
+import com.miaomc.authLinker.api.HistoryEntry;
+import com.miaomc.authLinker.api.LinkStatus;
+import com.miaomc.authLinker.metrics.DatabaseCallEvent;
+import com.miaomc.authLinker.metrics.LatencyHistogram;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.metrics.RequestTrace;
+import com.miaomc.authLinker.platform.AuthLinkerPlatform;
+import com.miaomc.authLinker.platform.PlatformConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+public class AuthRecordManager {
+    // 批量写入时每条INSERT语句最多包含的行数（避免超过max_allowed_packet）
+    private static final int BATCH_INSERT_ROWS = 500;
+    // 预热时查询的记录UUID（不会被发放）
+    private static final String WARMUP_RECORD_UUID = "00000000-0000-0000-0000-000000000000";
+    // 当前数据库线程正在执行的操作的JFR事件，只在事件启用时设置
+    private static final ThreadLocal<DatabaseCallEvent> CURRENT_CALL = new ThreadLocal<>();
+
+    private final AuthLinkerPlatform platform;
+    private final DatabaseManager databaseManager;
+    private final DatabaseInitializer databaseInitializer;
+    private final int expiredTime;
+
+    // 各条语句的耗时统计（包含获取连接的时间）
+    private final LatencyHistogram connectionAcquireLatency;
+    private final LatencyHistogram insertLatency;
+    private final LatencyHistogram replaceLatency;
+    private final LatencyHistogram batchInsertLatency;
+    private final LatencyHistogram consumeLatency;
+    private final LatencyHistogram consumeStatelessLatency;
+    private final LatencyHistogram statusLatency;
+    private final LatencyHistogram changeFeedLatency;
+    private final LatencyHistogram historyLatency;
+    private final LatencyHistogram exportLatency;
+    private final LatencyHistogram markUsedLatency;
+    private final LatencyHistogram cleanupLatency;
+    private final LatencyHistogram deleteLatency;
+    private final LatencyHistogram validateLatency;
+    private final LatencyHistogram leaseLatency;
+    private final LongAdder queryErrors;
+    private final LongAdder roundTrips;
+    private final LongAdder replicaReads;
+    private final LongAdder replicaFallbacks;
+    private final LongAdder filterRejects;
+    private final LongAdder filterFalsePositives;
+    private final LongAdder executorRejections;
+    // 已发放记录过滤器，未启用时为null
+    private final IssuedRecordFilter issuedFilter;
+    // 本服务器最近写入的记录和玩家，在复制延迟上限内读取时使用主库
+    private final RecentWriteTracker recentWrites;
+
+    public AuthRecordManager(AuthLinkerPlatform platform, DatabaseManager databaseManager, DatabaseInitializer databaseInitializer, MetricsRegistry metrics) {
+        this.platform = platform;
+        this.databaseManager = databaseManager;
+        this.databaseInitializer = databaseInitializer;
+        this.connectionAcquireLatency = metrics.histogram("db_connection_acquire");
+        this.insertLatency = metrics.histogram("db_query_insert_record");
+        this.replaceLatency = metrics.histogram("db_query_replace_record");
+        this.batchInsertLatency = metrics.histogram("db_query_insert_batch");
+        this.consumeLatency = metrics.histogram("db_query_consume_record");
+        this.consumeStatelessLatency = metrics.histogram("db_query_consume_stateless");
+        this.statusLatency = metrics.histogram("db_query_record_status");
+        this.changeFeedLatency = metrics.histogram("db_query_change_feed");
+        this.historyLatency = metrics.histogram("db_query_history");
+        this.exportLatency = metrics.histogram("db_query_export_page");
+        this.markUsedLatency = metrics.histogram("db_query_mark_used");
+        this.cleanupLatency = metrics.histogram("db_query_cleanup_expired");
+        this.deleteLatency = metrics.histogram("db_query_delete_records");
+        this.validateLatency = metrics.histogram("db_query_is_record_valid");
+        this.leaseLatency = metrics.histogram("db_query_lease_heartbeat");
+        this.queryErrors = metrics.counter("db_query_errors");
+        this.roundTrips = metrics.counter("db_round_trips");
+        this.replicaReads = metrics.counter("db_replica_reads");
+        this.replicaFallbacks = metrics.counter("db_replica_fallbacks");
+        this.filterRejects = metrics.counter("validation_filter_rejects");
+        this.filterFalsePositives = metrics.counter("validation_filter_false_positives");
+        this.executorRejections = metrics.counter("db_executor_rejections");
+        this.recentWrites = new RecentWriteTracker(databaseManager.getReplicaMaxLagSeconds());
+        PlatformConfig config = platform.getConfig();
+        this.issuedFilter = config.getBoolean("validation_filter.enabled", false)
+                ? new IssuedRecordFilter(config.getInt("validation_filter.bucket_seconds", 60),
+                        config.getInt("validation_filter.expected_per_bucket", 20000),
+                        config.getDouble("validation_filter.false_positive_rate", 0.01),
+                        config.getInt("validation_filter.grace_seconds", 60))
+                : null;
+        this.expiredTime = config.getInt("settings.expired_time", 300);
+        // 移除cooldownTime字段，因为现在使用CooldownManager
+    }
+
+    /**
+     * 异步写入认证记录
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @param token      令牌
+     * @return CompletableFuture 包含操作是否成功
+     */
+    public CompletableFuture<Boolean> writeAuthRecordAsync(UUID playerUUID, String action, String token) {
+        // 生成一个新的UUID
+        String recordUUID = UUID.randomUUID().toString();
+        // 调用接受预设UUID的方法
+        return writeAuthRecordAsync(playerUUID, action, token, recordUUID);
+    }
+
+    /**
+     * 异步写入认证记录（使用预设UUID）
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @param token      令牌
+     * @param recordUUID 预设的记录UUID
+     * @return CompletableFuture 表示操作是否成功
+     */
+    public CompletableFuture<Boolean> writeAuthRecordAsync(UUID playerUUID, String action, String token, String recordUUID) {
+        long expiresAtMillis = System.currentTimeMillis() + (expiredTime * 1000L);
+        return writeAuthRecordAsync(playerUUID, action, token, recordUUID, expiresAtMillis, null);
+    }
+
+    /**
+     * 异步写入认证记录（使用预设UUID和过期时间），并将获取连接和执行语句的耗时记录到追踪中
+     *
+     * @param playerUUID      玩家UUID
+     * @param action          操作类型
+     * @param token           令牌
+     * @param recordUUID      预设的记录UUID（即追踪的关联ID）
+     * @param expiresAtMillis 过期时间戳（毫秒），与链接数据中的expires_time一致
+     * @param trace           请求追踪，可为null
+     * @return CompletableFuture 表示操作是否成功
+     */
+    public CompletableFuture<Boolean> writeAuthRecordAsync(UUID playerUUID, String action, String token, String recordUUID,
+                                                           long expiresAtMillis, RequestTrace trace) {
+        return supplyAsync("insert_record", playerUUID, action, () -> {
+            long startNanos = System.nanoTime();
+
+            try (Connection connection = acquireConnection()) {
+                long acquiredNanos = System.nanoTime();
+                if (trace != null) {
+                    trace.recordDbAcquire(acquiredNanos - startNanos);
+                }
+
+                int rowsAffected = insertRecord(connection, playerUUID, action, token, recordUUID, expiresAtMillis);
+                if (trace != null) {
+                    trace.recordDbExecute(System.nanoTime() - acquiredNanos);
+                }
+                recordWrite(recordUUID, playerUUID);
+                return rowsAffected > 0;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "写入认证记录失败", e);
+                return false;
+            } finally {
+                insertLatency.recordSince(startNanos);
+            }
+        }, false);
+    }
+
+    /**
+     * 在同一事务中作废玩家该操作所有未使用的记录并写入新记录
+     * 用于“强制生成新链接”，保证任意时刻玩家该操作最多只有一条有效记录
+     *
+     * @param playerUUID      玩家UUID
+     * @param action          操作类型
+     * @param token           令牌
+     * @param recordUUID      新记录UUID
+     * @param expiresAtMillis 过期时间戳（毫秒）
+     * @param trace           请求追踪，可为null
+     * @return CompletableFuture 表示操作是否成功
+     */
+    public CompletableFuture<Boolean> replaceAuthRecordAsync(UUID playerUUID, String action, String token, String recordUUID,
+                                                             long expiresAtMillis, RequestTrace trace) {
+        return supplyAsync("replace_record", playerUUID, action, () -> {
+            long startNanos = System.nanoTime();
+
+            try (Connection connection = acquireConnection()) {
+                long acquiredNanos = System.nanoTime();
+                if (trace != null) {
+                    trace.recordDbAcquire(acquiredNanos - startNanos);
+                }
+
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    // 玩家的旧记录可能分布在任意分表中
+                    for (String tableName : databaseInitializer.getTableNames()) {
+                        try (PreparedStatement revokeStatement = connection.prepareStatement(revokeSql(tableName))) {
+                            revokeStatement.setString(1, playerUUID.toString());
+                            revokeStatement.setString(2, action);
+                            roundTrips.increment();
+                            revokeStatement.executeUpdate();
+                        }
+                    }
+
+                    int rowsAffected = insertRecord(connection, playerUUID, action, token, recordUUID, expiresAtMillis);
+                    // 提交事务也是一次往返
+                    roundTrips.increment();
+                    connection.commit();
+                    if (trace != null) {
+                        trace.recordDbExecute(System.nanoTime() - acquiredNanos);
+                    }
+                    recordWrite(recordUUID, playerUUID);
+                    return rowsAffected > 0;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "替换认证记录失败", e);
+                return false;
+            } finally {
+                replaceLatency.recordSince(startNanos);
+            }
+        }, false);
+    }
+
+    /**
+     * 异步批量写入认证记录
+     * 使用多行INSERT写入，超过 {@value #BATCH_INSERT_ROWS} 行时拆分为多条语句并在同一事务中提交；
+     * 分表时按分表分组，每张分表各一条多行INSERT
+     *
+     * @param records 待写入的记录
+     * @return CompletableFuture 表示是否全部写入成功（失败时整体回滚）
+     */
+    public CompletableFuture<Boolean> writeAuthRecordsBatchAsync(List<AuthRecord> records) {
+        if (records.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return supplyAsync("insert_batch", null, records.get(0).getAction(), () -> {
+            long startNanos = System.nanoTime();
+
+            try (Connection connection = acquireConnection()) {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    Map<String, List<AuthRecord>> recordsByTable = new LinkedHashMap<>();
+                    for (AuthRecord record : records) {
+                        recordsByTable.computeIfAbsent(databaseInitializer.getTableName(record.getRecordUUID()),
+                                table -> new ArrayList<>()).add(record);
+                    }
+
+                    int rowsAffected = 0;
+                    for (Map.Entry<String, List<AuthRecord>> entry : recordsByTable.entrySet()) {
+                        List<AuthRecord> tableRecords = entry.getValue();
+                        for (int from = 0; from < tableRecords.size(); from += BATCH_INSERT_ROWS) {
+                            List<AuthRecord> chunk = tableRecords.subList(from, Math.min(from + BATCH_INSERT_ROWS, tableRecords.size()));
+                            rowsAffected += insertRecords(connection, entry.getKey(), chunk);
+                        }
+                    }
+                    roundTrips.increment();
+                    connection.commit();
+                    for (AuthRecord record : records) {
+                        recordWrite(record.getRecordUUID(), record.getPlayerUUID());
+                    }
+                    return rowsAffected == records.size();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "批量写入认证记录失败", e);
+                return false;
+            } finally {
+                batchInsertLatency.recordSince(startNanos);
+            }
+        }, false);
+    }
+
+    /**
+     * 在指定连接上用一条多行INSERT向指定表写入多条认证记录
+     */
+    private int insertRecords(Connection connection, String tableName, List<AuthRecord> records) throws SQLException {
+        StringBuilder sql = new StringBuilder(96 + records.size() * 18)
+                .append("INSERT INTO `").append(tableName)
+                .append("` (uuid, player_uuid, action, token, expires_at) VALUES ");
+        for (int i = 0; i < records.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+        }
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (AuthRecord record : records) {
+                addToFilter(record.getRecordUUID(), record.getExpiresAtMillis());
+                preparedStatement.setString(index++, record.getRecordUUID());
+                preparedStatement.setString(index++, record.getPlayerUUID().toString());
+                preparedStatement.setString(index++, record.getAction());
+                preparedStatement.setString(index++, record.getToken());
+                preparedStatement.setTimestamp(index++, new Timestamp(record.getExpiresAtMillis()));
+            }
+
+            roundTrips.increment();
+            return preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * 在指定连接上插入一条认证记录
+     */
+    private int insertRecord(Connection connection, UUID playerUUID, String action, String token, String recordUUID,
+                             long expiresAtMillis) throws SQLException {
+        String sql = insertSql(databaseInitializer.getTableName(recordUUID));
+
+        // 先加入过滤器再写入，保证记录一旦可见就不会被过滤器拒绝
+        addToFilter(recordUUID, expiresAtMillis);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, recordUUID);
+            preparedStatement.setString(2, playerUUID.toString());
+            preparedStatement.setString(3, action);
+            preparedStatement.setString(4, token);
+            preparedStatement.setTimestamp(5, new Timestamp(expiresAtMillis));
+
+            roundTrips.increment();
+            return preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * 异步标记记录为已使用
+     *
+     * @param uuid 记录UUID
+     * @return CompletableFuture 包含操作是否成功
+     */
+    public CompletableFuture<Boolean> markAsUsedAsync(String uuid) {
+        return supplyAsync("mark_used", null, null, () -> {
+            long startNanos = System.nanoTime();
+            String sql = markUsedSql(databaseInitializer.getTableName(uuid));
+
+            try (Connection connection = acquireConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setString(1, uuid);
+                roundTrips.increment();
+                int rowsAffected = preparedStatement.executeUpdate();
+                recordWrite(uuid, null);
+                return rowsAffected > 0;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "标记记录为已使用失败", e);
+                return false;
+            } finally {
+                markUsedLatency.recordSince(startNanos);
+            }
+        }, false);
+    }
+
+    /**
+     * 异步核销记录：仅当令牌匹配、未使用且未过期时标记为已使用
+     * 校验和标记在同一条UPDATE中完成，同一记录并发核销时只有一次会成功
+     *
+     * @param uuid  记录UUID
+     * @param token 令牌
+     * @return CompletableFuture 包含是否核销成功
+     */
+    public CompletableFuture<Boolean> consumeRecordAsync(String uuid, String token) {
+        if (rejectedByFilter(uuid)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return supplyAsync("consume_record", null, null, () -> {
+            long startNanos = System.nanoTime();
+            String sql = consumeSql(databaseInitializer.getTableName(uuid));
+
+            try (Connection connection = acquireConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setString(1, uuid);
+                preparedStatement.setString(2, token);
+                roundTrips.increment();
+                boolean consumed = preparedStatement.executeUpdate() > 0;
+                recordWrite(uuid, null);
+                return consumed;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "核销认证记录失败", e);
+                return false;
+            } finally {
+                consumeLatency.recordSince(startNanos);
+            }
+        }, false);
+    }
+
+    /**
+     * 异步持久化一条无状态链接的核销：直接写入一条已使用的记录
+     * 无状态链接发放时不写入数据库，记录UUID作为主键保证同一链接只能核销一次
+     *
+     * @param record 从链接数据中解出的记录
+     * @return CompletableFuture 写入成功为true，记录已存在（已被核销）为false，数据库错误为null
+     */
+    public CompletableFuture<Boolean> insertConsumedRecordAsync(AuthRecord record) {
+        return supplyAsync("consume_stateless", record.getPlayerUUID(), record.getAction(), () -> {
+            long startNanos = System.nanoTime();
+            String sql = insertConsumedSql(databaseInitializer.getTableName(record.getRecordUUID()));
+
+            try (Connection connection = acquireConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setString(1, record.getRecordUUID());
+                preparedStatement.setString(2, record.getPlayerUUID().toString());
+                preparedStatement.setString(3, record.getAction());
+                preparedStatement.setString(4, record.getToken());
+                preparedStatement.setTimestamp(5, new Timestamp(record.getExpiresAtMillis()));
+                roundTrips.increment();
+                preparedStatement.executeUpdate();
+                recordWrite(record.getRecordUUID(), record.getPlayerUUID());
+                return Boolean.TRUE;
+
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // 主键冲突：该链接已被核销
+                return Boolean.FALSE;
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "写入无状态链接核销记录失败", e);
+                return null;
+            } finally {
+                consumeStatelessLatency.recordSince(startNanos);
+            }
+        }, null);
+    }
+
+    /**
+     * 异步查询记录状态
+     * 启用从库时先查从库：已使用、已作废、已过期都是终态，从库结果可以直接返回；
+     * 未使用或不存在可能是复制延迟造成的，需要回到主库确认
+     *
+     * @param uuid 记录UUID
+     * @return CompletableFuture 包含记录状态，查询失败时为 {@link LinkStatus#NOT_FOUND}
+     */
+    public CompletableFuture<LinkStatus> getRecordStatusAsync(String uuid) {
+        return supplyAsync("record_status", null, null, () -> {
+            long startNanos = System.nanoTime();
+
+            try {
+                if (canReadReplica(uuid)) {
+                    LinkStatus status = queryStatus(uuid, true);
+                    if (status != LinkStatus.UNUSED && status != LinkStatus.NOT_FOUND) {
+                        return status;
+                    }
+                    replicaFallbacks.increment();
+                }
+                return queryStatus(uuid, false);
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "查询记录状态失败", e);
+                return LinkStatus.NOT_FOUND;
+            } finally {
+                statusLatency.recordSince(startNanos);
+            }
+        }, LinkStatus.NOT_FOUND);
+    }
+
+    private LinkStatus queryStatus(String uuid, boolean replica) throws SQLException {
+        String sql = statusSql(databaseInitializer.getTableName(uuid));
+
+        try (Connection connection = acquireConnection(replica);
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setString(1, uuid);
+            roundTrips.increment();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return LinkStatus.NOT_FOUND;
+                }
+                return toLinkStatus(resultSet.getString(1), resultSet.getBoolean(2), resultSet.getBoolean(3));
+            }
+        }
+    }
+
+    /**
+     * 异步按创建时间从新到旧读取玩家的历史记录
+     * 使用 (create_at, uuid) 键集分页，查询只访问 idx_player_history 覆盖索引，
+     * 每页的开销与表大小和页码无关。启用从库时，除非本服务器刚为该玩家写入过记录，否则从从库读取。
+     * 未分表时结果集逐行交给sink，不在内存中缓存整页；
+     * 分表时各分表的顺序互不相关，需并行读取每张分表的一页到内存，合并排序后再把最新的 limit 条交给sink
+     *
+     * @param playerUUID 玩家UUID
+     * @param before     上一页返回的游标，为null时从最新的记录开始
+     * @param limit      本页最多返回的记录数
+     * @param sink       记录处理函数（在查询线程中调用）
+     * @return CompletableFuture 包含下一页的游标，没有更多记录或查询失败时为null
+     */
+    public CompletableFuture<HistoryCursor> streamHistoryAsync(UUID playerUUID, HistoryCursor before, int limit,
+                                                               Consumer<HistoryEntry> sink) {
+        return supplyAsync("history", playerUUID, null, () -> {
+            long startNanos = System.nanoTime();
+            boolean replica = canReadReplica(playerUUID.toString());
+            HistoryPage page = new HistoryPage(limit, sink);
+
+            try {
+                // 多取一条用于判断是否还有下一页
+                if (!databaseInitializer.getShardRouter().isSharded()) {
+                    queryHistory(databaseInitializer.getTableNames().get(0), playerUUID, before, limit + 1, replica, page);
+                    return page.next;
+                }
+
+                List<HistoryEntry> entries = fanOut(tableName -> {
+                    List<HistoryEntry> shardEntries = new ArrayList<>(limit + 1);
+                    queryHistory(tableName, playerUUID, before, limit + 1, replica, shardEntries::add);
+                    return shardEntries;
+                });
+                entries.sort(Comparator.comparingLong(HistoryEntry::getCreatedAtMillis)
+                        .thenComparing(HistoryEntry::getRecordUUID).reversed());
+                entries.forEach(page);
+                return page.next;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "查询历史记录失败", e);
+                return null;
+            } finally {
+                historyLatency.recordSince(startNanos);
+            }
+        }, null);
+    }
+
+    private void queryHistory(String tableName, UUID playerUUID, HistoryCursor before, int limit,
+                              boolean replica, Consumer<HistoryEntry> rowSink) throws SQLException {
+        String sql = historySql(tableName, before != null);
+
+        try (Connection connection = acquireConnection(replica);
+             PreparedStatement preparedStatement = connection.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            int index = 1;
+            preparedStatement.setString(index++, playerUUID.toString());
+            if (before != null) {
+                Timestamp beforeTime = new Timestamp(before.getCreatedAtMillis());
+                preparedStatement.setTimestamp(index++, beforeTime);
+                preparedStatement.setTimestamp(index++, beforeTime);
+                preparedStatement.setString(index++, before.getRecordUUID());
+            }
+            preparedStatement.setInt(index, limit);
+
+            roundTrips.increment();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    rowSink.accept(new HistoryEntry(resultSet.getString(1), resultSet.getString(2),
+                            toLinkStatus(resultSet.getString(3), resultSet.getBoolean(4), resultSet.getBoolean(5)),
+                            resultSet.getTimestamp(6).getTime(), resultSet.getTimestamp(7).getTime()));
+                }
+            }
+        }
+    }
+
+    /**
+     * 历史记录分页：前 limit 条交给sink，读到多出的一条时记录下一页的游标
+     */
+    private static final class HistoryPage implements Consumer<HistoryEntry> {
+        private final int limit;
+        private final Consumer<HistoryEntry> sink;
+        private int count;
+        private HistoryCursor last;
+        private HistoryCursor next;
+
+        HistoryPage(int limit, Consumer<HistoryEntry> sink) {
+            this.limit = limit;
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(HistoryEntry entry) {
+            if (count == limit) {
+                next = last;
+                return;
+            }
+            sink.accept(entry);
+            last = new HistoryCursor(entry.getCreatedAtMillis(), entry.getRecordUUID());
+            count++;
+        }
+    }
+
+    /**
+     * 异步按主键顺序流式读取一页记录，用于导出
+     * 结果集只向前滚动并逐行交给sink，不在内存中缓存整页；每页结束后即归还连接，
+     * 下一页以本页最后一条记录的UUID为游标继续。启用从库时读取从库，不占用主库
+     *
+     * @param tableName 数据表（分表时逐张读取）
+     * @param afterUUID 从该记录UUID之后开始读取，为空字符串时从头开始
+     * @param since     只读取该时间之后创建的记录，可为null
+     * @param limit     本页最多读取的记录数
+     * @param sink      接收记录的回调（在数据库线程中调用，抛出的异常会使本页失败）
+     * @return CompletableFuture 包含本页读取的记录数，查询失败时为-1
+     */
+    public CompletableFuture<Integer> streamExportPageAsync(String tableName, String afterUUID, Timestamp since, int limit,
+                                                            Consumer<ExportedRecord> sink) {
+        return supplyAsync("export_page", null, null, () -> {
+            long startNanos = System.nanoTime();
+            String sql = exportSql(tableName, since != null);
+
+            try (Connection connection = acquireConnection(true);
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                int index = 1;
+                preparedStatement.setString(index++, afterUUID);
+                if (since != null) {
+                    preparedStatement.setTimestamp(index++, since);
+                }
+                preparedStatement.setInt(index, limit);
+                // MySQL驱动逐行流式读取
+                preparedStatement.setFetchSize(Integer.MIN_VALUE);
+
+                roundTrips.increment();
+                int count = 0;
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Timestamp updateAt = resultSet.getTimestamp(7);
+                        sink.accept(new ExportedRecord(resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                                resultSet.getString(4), resultSet.getBoolean(5), resultSet.getTimestamp(6).getTime(),
+                                updateAt != null ? updateAt.getTime() : 0L, resultSet.getTimestamp(8).getTime()));
+                        count++;
+                    }
+                }
+                return count;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "导出记录失败", e);
+                return -1;
+            } finally {
+                exportLatency.recordSince(startNanos);
+            }
+        }, -1);
+    }
+
+    private static LinkStatus toLinkStatus(String status, boolean isUsed, boolean notExpired) {
+        if ("revoked".equals(status)) {
+            return LinkStatus.REVOKED;
+        }
+        if (isUsed) {
+            return LinkStatus.USED;
+        }
+        return notExpired ? LinkStatus.UNUSED : LinkStatus.EXPIRED;
+    }
+
+    /**
+     * 异步获取数据库当前时间（用于初始化变更流游标，始终使用主库）
+     *
+     * @return CompletableFuture 包含数据库时间，查询失败时为null
+     */
+    public CompletableFuture<Timestamp> getDatabaseTimeAsync() {
+        return supplyAsync("database_time", null, null, () -> {
+            try (Connection connection = acquireConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement("SELECT CURRENT_TIMESTAMP")) {
+
+                roundTrips.increment();
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getTimestamp(1) : null;
+                }
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "获取数据库时间失败", e);
+                return null;
+            }
+        }, null);
+    }
+
+    /**
+     * 异步读取游标之后被使用的记录（变更流）
+     * 按 (update_at, uuid) 键集分页，走 idx_status_update 索引的范围扫描；
+     * 排除当前这一秒内更新的记录，避免同一秒内稍后提交的记录被游标跳过。
+     * 游标按主库时钟推进，因此始终查询主库，否则从库落后的记录会被跳过。
+     * 分表时并行查询每张分表，合并后取最早的 limit 条
+     *
+     * @param afterTime   游标时间
+     * @param afterUUID   游标记录UUID（同一时间内按UUID排序）
+     * @param playerUUIDs 只返回这些玩家的记录（通常为在线玩家）
+     * @param limit       最多返回的记录数
+     * @return CompletableFuture 包含按 (update_at, uuid) 排序的记录，查询失败时为null（游标不应前进）
+     */
+    public CompletableFuture<List<ConsumedRecord>> fetchConsumedRecordsAsync(Timestamp afterTime, String afterUUID,
+                                                                             Collection<UUID> playerUUIDs, int limit) {
+        return supplyAsync("change_feed", null, null, () -> {
+            long startNanos = System.nanoTime();
+
+            try {
+                List<ConsumedRecord> records = fanOut(tableName -> queryConsumedRecords(tableName, afterTime, afterUUID, playerUUIDs, limit));
+                if (databaseInitializer.getShardRouter().isSharded()) {
+                    records.sort(Comparator.comparing(ConsumedRecord::getUpdateAt).thenComparing(ConsumedRecord::getRecordUUID));
+                    if (records.size() > limit) {
+                        records = new ArrayList<>(records.subList(0, limit));
+                    }
+                }
+                return records;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "读取已使用记录失败", e);
+                return null;
+            } finally {
+                changeFeedLatency.recordSince(startNanos);
+            }
+        }, null);
+    }
+
+    private List<ConsumedRecord> queryConsumedRecords(String tableName, Timestamp afterTime, String afterUUID,
+                                                      Collection<UUID> playerUUIDs, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder(256 + playerUUIDs.size() * 3)
+                .append("SELECT uuid, player_uuid, action, update_at FROM `").append(tableName)
+                .append("` WHERE status = 'used' AND update_at >= ? AND (update_at > ? OR uuid > ?)")
+                .append(" AND update_at < CURRENT_TIMESTAMP AND player_uuid IN (");
+        for (int i = 0; i < playerUUIDs.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY update_at, uuid LIMIT ?");
+
+        try (Connection connection = acquireConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            preparedStatement.setTimestamp(index++, afterTime);
+            preparedStatement.setTimestamp(index++, afterTime);
+            preparedStatement.setString(index++, afterUUID);
+            for (UUID playerUUID : playerUUIDs) {
+                preparedStatement.setString(index++, playerUUID.toString());
+            }
+            preparedStatement.setInt(index, limit);
+
+            roundTrips.increment();
+            List<ConsumedRecord> records = new ArrayList<>();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    records.add(new ConsumedRecord(resultSet.getString(1), UUID.fromString(resultSet.getString(2)),
+                            resultSet.getString(3), resultSet.getTimestamp(4)));
+                }
+            }
+            return records;
+        }
+    }
+
+    /**
+     * 异步清理过期记录（分表时并行清理每张分表）
+     */
+    public CompletableFuture<Integer> cleanupExpiredRecordsAsync() {
+        return supplyAsync("cleanup_expired", null, null, () -> {
+            long startNanos = System.nanoTime();
+
+            try {
+                int deletedRows = 0;
+                for (int deleted : fanOut(this::deleteExpired)) {
+                    deletedRows += deleted;
+                }
+                if (deletedRows > 0) {
+                    platform.getLogger().info("清理了 " + deletedRows + " 条过期记录");
+                }
+                return deletedRows;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "清理过期记录失败", e);
+                return 0;
+            } finally {
+                cleanupLatency.recordSince(startNanos);
+            }
+        }, 0);
+    }
+
+    /**
+     * 异步按记录UUID删除记录（分表时按分表分组，每张分表一条语句）
+     * 用于撤销超过请求超时才完成的写入：玩家已收到失败提示，留下的记录不应成为有效链接
+     *
+     * @param recordUUIDs 记录UUID
+     * @return CompletableFuture 包含删除的行数，失败时为0
+     */
+    public CompletableFuture<Integer> deleteRecordsAsync(Collection<String> recordUUIDs) {
+        if (recordUUIDs.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return supplyAsync("delete_records", null, null, () -> {
+            long startNanos = System.nanoTime();
+
+            Map<String, List<String>> uuidsByTable = new LinkedHashMap<>();
+            for (String uuid : recordUUIDs) {
+                uuidsByTable.computeIfAbsent(databaseInitializer.getTableName(uuid), table -> new ArrayList<>()).add(uuid);
+            }
+            try (Connection connection = acquireConnection()) {
+                int deletedRows = 0;
+                for (Map.Entry<String, List<String>> entry : uuidsByTable.entrySet()) {
+                    List<String> uuids = entry.getValue();
+                    try (PreparedStatement preparedStatement = connection.prepareStatement(deleteByUuidSql(entry.getKey(), uuids.size()))) {
+                        for (int i = 0; i < uuids.size(); i++) {
+                            preparedStatement.setString(i + 1, uuids.get(i));
+                        }
+                        roundTrips.increment();
+                        deletedRows += preparedStatement.executeUpdate();
+                    }
+                }
+                return deletedRows;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "删除记录失败", e);
+                return 0;
+            } finally {
+                deleteLatency.recordSince(startNanos);
+            }
+        }, 0);
+    }
+
+    /**
+     * 异步删除玩家UUID以指定前缀开头的全部记录（分表时并行删除每张分表）
+     * 用于清理压测写入的模拟玩家记录，前缀匹配使用 idx_player_history 索引
+     *
+     * @param playerUUIDPrefix 玩家UUID前缀（不含通配符）
+     * @return CompletableFuture 包含删除的行数，失败时为0
+     */
+    public CompletableFuture<Integer> deleteRecordsByPlayerPrefixAsync(String playerUUIDPrefix) {
+        return supplyAsync("delete_player_prefix", null, null, () -> {
+            long startNanos = System.nanoTime();
+
+            try {
+                int deletedRows = 0;
+                for (int deleted : fanOut(tableName -> deleteByPlayerPrefix(tableName, playerUUIDPrefix))) {
+                    deletedRows += deleted;
+                }
+                return deletedRows;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "按玩家前缀删除记录失败", e);
+                return 0;
+            } finally {
+                deleteLatency.recordSince(startNanos);
+            }
+        }, 0);
+    }
+
+    private List<Integer> deleteByPlayerPrefix(String tableName, String playerUUIDPrefix) throws SQLException {
+        String sql = deletePlayerPrefixSql(tableName);
+
+        try (Connection connection = acquireConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setString(1, playerUUIDPrefix + "%");
+            roundTrips.increment();
+            List<Integer> result = new ArrayList<>(1);
+            result.add(preparedStatement.executeUpdate());
+            return result;
+        }
+    }
+
+    private List<Integer> deleteExpired(String tableName) throws SQLException {
+        String sql = deleteExpiredSql(tableName);
+
+        try (Connection connection = acquireConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            roundTrips.increment();
+            List<Integer> result = new ArrayList<>(1);
+            result.add(preparedStatement.executeUpdate());
+            return result;
+        }
+    }
+
+    /**
+     * 异步续约或抢占租约：租约由本节点持有或已过期时写入本节点并延长到 leaseSeconds 之后，
+     * 否则保持不变。判断和写入在同一条语句中完成，并发抢占时只有一个节点成功；过期时间按数据库时钟计算
+     *
+     * @param name         租约名称
+     * @param holder       本节点ID
+     * @param leaseSeconds 租约时长（秒）
+     * @return CompletableFuture 包含语句执行后的租约状态（持有者可能是其他节点），查询失败时为null
+     */
+    public CompletableFuture<LeaseState> heartbeatLeaseAsync(String name, String holder, int leaseSeconds) {
+        return supplyAsync("lease_heartbeat", null, null, () -> {
+            long startNanos = System.nanoTime();
+            String tableName = databaseInitializer.getLeaseTableName();
+
+            try (Connection connection = acquireConnection()) {
+                try (PreparedStatement upsertStatement = connection.prepareStatement(leaseUpsertSql(tableName))) {
+                    upsertStatement.setString(1, name);
+                    upsertStatement.setString(2, holder);
+                    upsertStatement.setInt(3, leaseSeconds);
+                    roundTrips.increment();
+                    upsertStatement.executeUpdate();
+                }
+                try (PreparedStatement selectStatement = connection.prepareStatement(leaseSelectSql(tableName))) {
+                    selectStatement.setString(1, name);
+                    roundTrips.increment();
+                    try (ResultSet resultSet = selectStatement.executeQuery()) {
+                        return resultSet.next()
+                                ? new LeaseState(resultSet.getString(1), resultSet.getLong(2), resultSet.getLong(3))
+                                : null;
+                    }
+                }
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.WARNING, "租约心跳失败", e);
+                return null;
+            } finally {
+                leaseLatency.recordSince(startNanos);
+            }
+        }, null);
+    }
+
+    /**
+     * 异步释放本节点持有的租约（停用时调用），其他节点在下一次心跳即可接管
+     *
+     * @return CompletableFuture 包含是否释放了租约
+     */
+    public CompletableFuture<Boolean> releaseLeaseAsync(String name, String holder) {
+        return supplyAsync("lease_release", null, null, () -> {
+            String sql = "UPDATE `" + databaseInitializer.getLeaseTableName() +
+                    "` SET expires_at = NOW(3) WHERE name = ? AND holder = ?";
+
+            try (Connection connection = acquireConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setString(1, name);
+                preparedStatement.setString(2, holder);
+                roundTrips.increment();
+                return preparedStatement.executeUpdate() > 0;
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.WARNING, "释放租约失败", e);
+                return false;
+            }
+        }, false);
+    }
+
+    /**
+     * 分表查询函数
+     */
+    @FunctionalInterface
+    private interface ShardQuery<T> {
+        List<T> query(String tableName) throws SQLException;
+    }
+
+    /**
+     * 在每张分表上执行查询并合并结果：只有一张表时直接在当前线程执行，分表时并行执行
+     * 任意一张分表失败时抛出该异常
+     */
+    private <T> List<T> fanOut(ShardQuery<T> query) throws SQLException {
+        List<String> tableNames = databaseInitializer.getTableNames();
+        if (tableNames.size() == 1) {
+            return query.query(tableNames.get(0));
+        }
+
+        ThreadPoolExecutor executor = databaseManager.getExecutor();
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(tableNames.size());
+        List<Runnable> tasks = new ArrayList<>(tableNames.size());
+        for (String tableName : tableNames) {
+            CompletableFuture<List<T>> future = new CompletableFuture<>();
+            Runnable task = () -> {
+                try {
+                    future.complete(query.query(tableName));
+                } catch (SQLException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            };
+            futures.add(future);
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+        // 调用方本身运行在数据库线程池中：仍在排队的分表查询由当前线程执行，
+        // 避免所有线程都在等待排在自己后面的子任务而互相阻塞
+        for (Runnable task : tasks) {
+            if (executor.remove(task)) {
+                task.run();
+            }
+        }
+
+        List<T> merged = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            try {
+                merged.addAll(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 异步验证记录是否有效
+     * 启用从库时先查从库：记录存在但已失效（令牌不符、已使用、已过期）不会再变为有效，可以直接返回；
+     * 从库认为有效或记录不存在时，可能是复制延迟造成的，需要回到主库确认，避免已使用的链接被重复使用。
+     * 启用过滤器时，一定没有发放过的记录直接返回false，不查询数据库
+     *
+     * @param uuid  记录UUID
+     * @param token 令牌
+     * @return CompletableFuture 包含记录是否有效
+     */
+    public CompletableFuture<Boolean> isRecordValidAsync(String uuid, String token) {
+        if (rejectedByFilter(uuid)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return supplyAsync("is_record_valid", null, null, () -> {
+            long startNanos = System.nanoTime();
+
+            try {
+                if (canReadReplica(uuid)) {
+                    Boolean valid = queryValidity(uuid, token, true);
+                    if (Boolean.FALSE.equals(valid)) {
+                        return false;
+                    }
+                    replicaFallbacks.increment();
+                }
+                Boolean valid = queryValidity(uuid, token, false);
+                if (valid == null && issuedFilter != null && issuedFilter.isReady()) {
+                    filterFalsePositives.increment();
+                }
+                return Boolean.TRUE.equals(valid);
+
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "验证记录失败", e);
+            } finally {
+                validateLatency.recordSince(startNanos);
+            }
+
+            return false;
+        }, false);
+    }
+
+    /**
+     * 查询记录是否有效
+     *
+     * @return 记录有效返回true，存在但无效返回false，不存在返回null
+     */
+    private Boolean queryValidity(String uuid, String token, boolean replica) throws SQLException {
+        String sql = validitySql(databaseInitializer.getTableName(uuid));
+
+        try (Connection connection = acquireConnection(replica);
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setString(1, token);
+            preparedStatement.setString(2, uuid);
+
+            roundTrips.increment();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getBoolean(1) : null;
+            }
+        }
+    }
+
+    /**
+     * 从数据表重建已发放记录过滤器（启动时调用）
+     * 重建期间过滤器全部放行，期间新写入的记录同样会加入过滤器
+     */
+    public CompletableFuture<Void> rebuildIssuedFilterAsync() {
+        if (issuedFilter == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return runAsync("rebuild_filter", null, null, () -> {
+            long startNanos = System.nanoTime();
+            try {
+                int loaded = 0;
+                for (int count : fanOut(this::loadIssuedRecords)) {
+                    loaded += count;
+                }
+                issuedFilter.markReady();
+                platform.getLogger().info("已发放记录过滤器重建完成，加载 " + loaded + " 条记录，耗时 " +
+                        (System.nanoTime() - startNanos) / 1_000_000 + "ms，占用 " + issuedFilter.getMemoryBytes() / 1024 + "KB");
+            } catch (SQLException e) {
+                recordQueryError();
+                platform.getLogger().log(Level.SEVERE, "重建已发放记录过滤器失败，过滤器将保持放行", e);
+            }
+        });
+    }
+
+    private List<Integer> loadIssuedRecords(String tableName) throws SQLException {
+        // 多取宽限期内刚过期的记录，与过滤器的保留时间一致
+        String sql = loadIssuedSql(tableName);
+
+        try (Connection connection = acquireConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            preparedStatement.setTimestamp(1, new Timestamp(System.currentTimeMillis() -
+                    platform.getConfig().getInt("validation_filter.grace_seconds", 60) * 1000L));
+            // MySQL驱动逐行流式读取，避免一次性加载整张表
+            preparedStatement.setFetchSize(Integer.MIN_VALUE);
+
+            roundTrips.increment();
+            int count = 0;
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    issuedFilter.add(resultSet.getString(1), resultSet.getTimestamp(2).getTime());
+                    count++;
+                }
+            }
+            List<Integer> result = new ArrayList<>(1);
+            result.add(count);
+            return result;
+        }
+    }
+
+    /**
+     * 清理过滤器中已过期的桶
+     */
+    public void cleanupIssuedFilter() {
+        if (issuedFilter != null) {
+            issuedFilter.cleanupExpired();
+        }
+    }
+
+    /**
+     * 获取已发放记录过滤器，未启用时返回null
+     */
+    public IssuedRecordFilter getIssuedFilter() {
+        return issuedFilter;
+    }
+
+    private void addToFilter(String recordUUID, long expiresAtMillis) {
+        if (issuedFilter != null) {
+            issuedFilter.add(recordUUID, expiresAtMillis);
+        }
+    }
+
+    /**
+     * 过滤器判断记录一定没有发放过时返回true
+     */
+    private boolean rejectedByFilter(String recordUUID) {
+        if (issuedFilter == null || recordUUID == null || issuedFilter.mightContain(recordUUID)) {
+            return false;
+        }
+        filterRejects.increment();
+        return true;
+    }
+
+    /**
+     * 清理超出复制延迟上限的最近写入记录
+     */
+    public void cleanupRecentWrites() {
+        recentWrites.cleanup();
+    }
+
+    /**
+     * 记录本服务器的写入（仅在启用从库时需要）
+     */
+    private void recordWrite(String recordUUID, UUID playerUUID) {
+        if (!databaseManager.hasReplica()) {
+            return;
+        }
+        recentWrites.record(recordUUID);
+        if (playerUUID != null) {
+            recentWrites.record(playerUUID.toString());
+        }
+    }
+
+    /**
+     * 判断读取指定记录或玩家的数据时是否可以使用从库
+     *
+     * @param key 记录UUID或玩家UUID
+     */
+    private boolean canReadReplica(String key) {
+        if (!databaseManager.hasReplica() || recentWrites.isRecent(key)) {
+            return false;
+        }
+        replicaReads.increment();
+        return true;
+    }
+
+    /**
+     * 异步预热连接池：同时借出指定数量的连接，使连接池在接受请求前建立好这些连接，
+     * 并在每个连接上预编译本类使用的全部固定语句（驱动按连接缓存解析结果），
+     * 再执行一次状态查询走通完整的请求路径。启用从库时从库连接池同样预热（只预编译读语句）。
+     * 预热不计入各语句的耗时统计
+     *
+     * @param connections 每个连接池预热的连接数（不超过连接池大小）
+     * @return CompletableFuture 包含预热的连接总数
+     */
+    public CompletableFuture<Integer> warmUpConnectionsAsync(int connections) {
+        return supplyAsync("warmup", null, null, () -> {
+            int warmed = warmUpPool(Math.min(connections, databaseManager.getPoolSize(false)), false);
+            if (databaseManager.hasReplica()) {
+                warmed += warmUpPool(Math.min(connections, databaseManager.getPoolSize(true)), true);
+            }
+            return warmed;
+        }, 0);
+    }
+
+    private int warmUpPool(int connections, boolean replica) {
+        List<Connection> held = new ArrayList<>(connections);
+        try {
+            // 连接全部借出后才归还，迫使连接池新建连接，而不是反复复用同一个空闲连接
+            for (int i = 0; i < connections; i++) {
+                Connection connection = replica ? databaseManager.getReadConnection() : databaseManager.getConnection();
+                held.add(connection);
+                prepareAll(connection, replica);
+            }
+        } catch (SQLException e) {
+            recordQueryError();
+            platform.getLogger().log(Level.WARNING, "预热" + (replica ? "从库" : "主库") + "连接池失败，已预热 " + held.size() + " 个连接", e);
+        } finally {
+            for (Connection connection : held) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+        return held.size();
+    }
+
+    private void prepareAll(Connection connection, boolean readOnly) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        for (String tableName : databaseInitializer.getTableNames()) {
+            statements.add(statusSql(tableName));
+            statements.add(validitySql(tableName));
+            statements.add(historySql(tableName, false));
+            statements.add(historySql(tableName, true));
+            statements.add(exportSql(tableName, false));
+            statements.add(exportSql(tableName, true));
+            if (!readOnly) {
+                statements.add(insertSql(tableName));
+                statements.add(revokeSql(tableName));
+                statements.add(markUsedSql(tableName));
+                statements.add(consumeSql(tableName));
+                statements.add(insertConsumedSql(tableName));
+                statements.add(deleteExpiredSql(tableName));
+                statements.add(loadIssuedSql(tableName));
+            }
+        }
+        for (String sql : statements) {
+            try (PreparedStatement ignored = connection.prepareStatement(sql)) {
+                // 只预编译，不执行
+            }
+        }
+
+        // 查询一条不存在的记录，初始化结果集读取等首次执行才会加载的部分
+        String tableName = databaseInitializer.getTableNames().get(0);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(statusSql(tableName))) {
+            preparedStatement.setString(1, WARMUP_RECORD_UUID);
+            roundTrips.increment();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+            }
+        }
+    }
+
+    private static String insertSql(String tableName) {
+        return "INSERT INTO `" + tableName + "` (uuid, player_uuid, action, token, expires_at) VALUES (?, ?, ?, ?, ?)";
+    }
+
+    private static String revokeSql(String tableName) {
+        return "UPDATE `" + tableName +
+                "` SET is_used = TRUE, status = 'revoked' WHERE player_uuid = ? AND action = ? AND is_used = FALSE";
+    }
+
+    private static String markUsedSql(String tableName) {
+        return "UPDATE `" + tableName + "` SET is_used = TRUE, status = 'used', update_at = CURRENT_TIMESTAMP WHERE uuid = ?";
+    }
+
+    private static String consumeSql(String tableName) {
+        return "UPDATE `" + tableName + "` SET is_used = TRUE, status = 'used', update_at = CURRENT_TIMESTAMP" +
+                " WHERE uuid = ? AND token = ? AND is_used = FALSE AND expires_at > CURRENT_TIMESTAMP";
+    }
+
+    private static String insertConsumedSql(String tableName) {
+        return "INSERT INTO `" + tableName +
+                "` (uuid, player_uuid, action, token, status, is_used, expires_at) VALUES (?, ?, ?, ?, 'used', TRUE, ?)";
+    }
+
+    private static String statusSql(String tableName) {
+        return "SELECT status, is_used, expires_at > CURRENT_TIMESTAMP FROM `" + tableName + "` WHERE uuid = ?";
+    }
+
+    private static String validitySql(String tableName) {
+        return "SELECT token = ? AND is_used = FALSE AND expires_at > CURRENT_TIMESTAMP FROM `" + tableName + "` WHERE uuid = ?";
+    }
+
+    private static String historySql(String tableName, boolean withCursor) {
+        return "SELECT uuid, action, status, is_used, expires_at > CURRENT_TIMESTAMP, create_at, expires_at FROM `" +
+                tableName + "` WHERE player_uuid = ?" +
+                (withCursor ? " AND create_at <= ? AND (create_at < ? OR uuid < ?)" : "") +
+                " ORDER BY create_at DESC, uuid DESC LIMIT ?";
+    }
+
+    private static String exportSql(String tableName, boolean withSince) {
+        return "SELECT uuid, player_uuid, action, status, is_used, create_at, update_at, expires_at FROM `" +
+                tableName + "` WHERE uuid > ?" + (withSince ? " AND create_at >= ?" : "") + " ORDER BY uuid LIMIT ?";
+    }
+
+    private static String deleteExpiredSql(String tableName) {
+        return "DELETE FROM `" + tableName + "` WHERE expires_at < CURRENT_TIMESTAMP";
+    }
+
+    private static String deletePlayerPrefixSql(String tableName) {
+        return "DELETE FROM `" + tableName + "` WHERE player_uuid LIKE ?";
+    }
+
+    private static String deleteByUuidSql(String tableName, int count) {
+        StringBuilder sql = new StringBuilder("DELETE FROM `").append(tableName).append("` WHERE uuid IN (");
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    private static String leaseUpsertSql(String tableName) {
+        // ON DUPLICATE KEY UPDATE 按顺序赋值，后面的表达式读取的是已更新的 holder：
+        // acquired_at 必须在 holder 之前判断是否换了持有者
+        return "INSERT INTO `" + tableName + "` (name, holder, acquired_at, expires_at) " +
+                "VALUES (?, ?, NOW(3), NOW(3) + INTERVAL ? SECOND) ON DUPLICATE KEY UPDATE " +
+                "acquired_at = IF(holder <> VALUES(holder) AND expires_at <= NOW(3), NOW(3), acquired_at), " +
+                "holder = IF(holder = VALUES(holder) OR expires_at <= NOW(3), VALUES(holder), holder), " +
+                "expires_at = IF(holder = VALUES(holder), VALUES(expires_at), expires_at)";
+    }
+
+    private static String leaseSelectSql(String tableName) {
+        return "SELECT holder, GREATEST(0, TIMESTAMPDIFF(MICROSECOND, NOW(3), expires_at) DIV 1000), " +
+                "TIMESTAMPDIFF(MICROSECOND, acquired_at, NOW(3)) DIV 1000 FROM `" + tableName + "` WHERE name = ?";
+    }
+
+    private static String loadIssuedSql(String tableName) {
+        return "SELECT uuid, expires_at FROM `" + tableName + "` WHERE expires_at > ?";
+    }
+
+    /**
+     * 在数据库线程池中执行操作
+     * 线程池队列已满时不再排队，直接以 rejectedValue 完成（与该操作的数据库错误返回值一致），
+     * 数据库变慢时请求快速失败，而不是无限堆积
+     *
+     * @param task          数据库操作
+     * @param rejectedValue 线程池拒绝时的结果
+     */
+    private <T> CompletableFuture<T> supplyAsync(String operation, UUID playerUUID, String action, Supplier<T> task,
+                                                  T rejectedValue) {
+        DatabaseCallEvent event = new DatabaseCallEvent();
+        try {
+            if (!event.isEnabled()) {
+                return CompletableFuture.supplyAsync(task, databaseManager.getExecutor());
+            }
+            event.setCall(operation, playerUUID, action);
+            long submitNanos = System.nanoTime();
+            return CompletableFuture.supplyAsync(() -> callWithEvent(event, submitNanos, task), databaseManager.getExecutor());
+        } catch (RejectedExecutionException e) {
+            executorRejections.increment();
+            if (event.isEnabled()) {
+                event.setOutcome(DatabaseCallEvent.OUTCOME_REJECTED);
+                event.commit();
+            }
+            return CompletableFuture.completedFuture(rejectedValue);
+        }
+    }
+
+    private CompletableFuture<Void> runAsync(String operation, UUID playerUUID, String action, Runnable task) {
+        return supplyAsync(operation, playerUUID, action, () -> {
+            task.run();
+            return null;
+        }, null);
+    }
+
+    /**
+     * 在数据库线程中执行操作并记录JFR事件，执行期间获取连接的等待和查询错误都记录到该事件
+     */
+    private <T> T callWithEvent(DatabaseCallEvent event, long submitNanos, Supplier<T> task) {
+        event.begin();
+        event.setQueueTime(System.nanoTime() - submitNanos);
+        CURRENT_CALL.set(event);
+        try {
+            return task.get();
+        } catch (RuntimeException e) {
+            event.setOutcome(DatabaseCallEvent.OUTCOME_ERROR);
+            throw e;
+        } finally {
+            CURRENT_CALL.remove();
+            event.commit();
+        }
+    }
+
+    /**
+     * 记录一次查询错误
+     */
+    private void recordQueryError() {
+        queryErrors.increment();
+        DatabaseCallEvent event = CURRENT_CALL.get();
+        if (event != null) {
+            event.setOutcome(DatabaseCallEvent.OUTCOME_ERROR);
+        }
+    }
+
+    /**
+     * 从主库连接池获取连接，并记录等待耗时
+     */
+    private Connection acquireConnection() throws SQLException {
+        return acquireConnection(false);
+    }
+
+    /**
+     * 获取连接，并记录等待耗时
+     *
+     * @param replica 是否使用只读从库（未启用从库时使用主库）
+     */
+    private Connection acquireConnection(boolean replica) throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return replica ? databaseManager.getReadConnection() : databaseManager.getConnection();
+        } finally {
+            long waitNanos = System.nanoTime() - startNanos;
+            connectionAcquireLatency.record(waitNanos);
+            DatabaseCallEvent event = CURRENT_CALL.get();
+            if (event != null) {
+                event.addConnectionWait(waitNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.miaomc.authLinker.database;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * 变更流中读取到的已使用记录
+ */
+public class ConsumedRecord {
+    private final String recordUUID;
+    private final UUID playerUUID;
+    private final String action;
+    private final Timestamp updateAt;
+
+    public ConsumedRecord(String recordUUID, UUID playerUUID, String action, Timestamp updateAt) {
+        this.recordUUID = recordUUID;
+        this.playerUUID = playerUUID;
+        this.action = action;
+        this.updateAt = updateAt;
+    }
+
+    public String getRecordUUID() { return recordUUID; }
+    public UUID getPlayerUUID() { return playerUUID; }
+    public String getAction() { return action; }
+    public Timestamp getUpdateAt() { return updateAt; }
+}
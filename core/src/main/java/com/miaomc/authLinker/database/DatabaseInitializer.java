@@ -0,0 +1,231 @@
+package com.miaomc.authLinker.database;
+
+import com.miaomc.authLinker.platform.AuthLinkerPlatform;
+import com.miaomc.authLinker.platform.PlatformConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+public class DatabaseInitializer {
+    private final AuthLinkerPlatform platform;
+    private final DatabaseManager databaseManager;
+    private final String tableName;
+    private final ShardRouter shardRouter;
+    private final boolean changeFeedEnabled;
+
+    public DatabaseInitializer(AuthLinkerPlatform platform, DatabaseManager databaseManager) {
+        this.platform = platform;
+        this.databaseManager = databaseManager;
+        PlatformConfig config = platform.getConfig();
+        this.tableName = config.getString("database.table_name", "auth_records");
+        int shards = config.getInt("database.shards", 1);
+        int clampedShards = Math.max(1, Math.min(256, shards));
+        if (clampedShards != shards) {
+            platform.getLogger().warning("database.shards 必须在1到256之间，当前值 " + shards + " 已按 " + clampedShards + " 处理");
+        }
+        this.shardRouter = new ShardRouter(tableName, clampedShards);
+        // idx_status_update 只服务于变更流的轮询查询，未启用时不创建，避免每次写入多维护一个索引
+        this.changeFeedEnabled = config.getBoolean("change_feed.enabled", false);
+    }
+
+    public void initializeDatabase() {
+        // 分表时创建每一张分表
+        for (String shardTable : shardRouter.getTableNames()) {
+            createTableIfNotExists(shardTable);
+        }
+        // 集群维护任务的租约表
+        if (platform.getConfig().getBoolean("maintenance.enabled", false)) {
+            createLeaseTableIfNotExists();
+        }
+    }
+
+    /**
+     * 在独立线程中为旧版本创建的数据表补建索引，不阻塞插件启动
+     * 索引以MySQL在线DDL（ALGORITHM=INPLACE, LOCK=NONE）创建，期间数据表可以正常读写，查询在索引建好之前走原有的执行计划；
+     * 数据库不支持在线建索引时直接报错而不会锁表，此时需由管理员在低峰期手动执行。
+     * 大表建索引可能持续数分钟，该连接不使用 socket_ms 读取超时；建索引期间停用插件会断开连接，MySQL回滚本次建索引，下次启动时重新执行
+     *
+     * @return 全部索引处理完成时完成，失败只记录日志
+     */
+    public CompletableFuture<Void> migrateIndexesAsync() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                migrateIndexes();
+            } finally {
+                future.complete(null);
+            }
+        }, "AuthLinker-IndexMigration");
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    private void migrateIndexes() {
+        for (String shardTable : shardRouter.getTableNames()) {
+            if (changeFeedEnabled) {
+                ensureIndex(shardTable, "idx_status_update", "status, update_at, uuid");
+            }
+            // 覆盖 /al history 查询的全部列，分页时不需要回表
+            if (ensureIndex(shardTable, "idx_player_history", "player_uuid, create_at, uuid, action, status, is_used, expires_at")) {
+                // 旧版本的 idx_player_uuid 是 idx_player_history 的前缀，新索引建好后不再需要
+                dropIndexIfExists(shardTable, "idx_player_uuid");
+            }
+        }
+    }
+
+    private void createLeaseTableIfNotExists() {
+        String createTableSQL = "CREATE TABLE IF NOT EXISTS `" + getLeaseTableName() + "` (" +
+                "name VARCHAR(64) PRIMARY KEY," +
+                "holder VARCHAR(128) NOT NULL," +
+                "acquired_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)," +
+                "expires_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
+
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(createTableSQL)) {
+
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            platform.getLogger().log(Level.SEVERE, "租约表初始化失败，维护任务将不会执行", e);
+        }
+    }
+
+    private void createTableIfNotExists(String tableName) {
+        // 使用MySQL特定的语法优化表结构
+        String createTableSQL = "CREATE TABLE IF NOT EXISTS `" + tableName + "` (" +
+                "uuid VARCHAR(36) PRIMARY KEY," +
+                "player_uuid VARCHAR(36) NOT NULL," +
+                "action VARCHAR(255) NOT NULL," +
+                "token VARCHAR(50) NOT NULL," +
+                "status VARCHAR(50) NOT NULL DEFAULT 'unused'," +
+                "is_used BOOLEAN DEFAULT FALSE," +
+                "create_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "update_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
+                "expires_at TIMESTAMP NOT NULL," +
+                "INDEX idx_player_history (player_uuid, create_at, uuid, action, status, is_used, expires_at)," +
+                "INDEX idx_token (token)," +
+                "INDEX idx_expires_at (expires_at)" +
+                (changeFeedEnabled ? ",INDEX idx_status_update (status, update_at, uuid)" : "") +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
+
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(createTableSQL)) {
+
+            preparedStatement.executeUpdate();
+            platform.getLogger().info("MySQL数据表初始化成功：" + tableName);
+        } catch (SQLException e) {
+            platform.getLogger().log(Level.SEVERE, "MySQL数据表初始化失败", e);
+            throw new RuntimeException("无法初始化数据库表", e);
+        }
+    }
+
+    /**
+     * 确保索引存在，不存在时以在线DDL创建
+     *
+     * @param tableName 表名
+     * @param indexName 索引名
+     * @param columns   索引列（逗号分隔）
+     * @return 索引已存在或创建成功时为true
+     */
+    private boolean ensureIndex(String tableName, String indexName, String columns) {
+        try (Connection connection = databaseManager.getConnection()) {
+            if (indexExists(connection, tableName, indexName)) {
+                return true;
+            }
+
+            // 建索引的耗时与表大小成正比，不受连接的读取超时限制（连接归还连接池时恢复原设置）
+            try {
+                connection.setNetworkTimeout(Runnable::run, 0);
+            } catch (SQLFeatureNotSupportedException ignored) {
+                // 驱动不支持时保持连接的默认超时
+            }
+
+            platform.getLogger().info("正在为数据表 " + tableName + " 创建索引：" + indexName);
+            long startMillis = System.currentTimeMillis();
+            try (PreparedStatement createStatement = connection.prepareStatement(
+                    "CREATE INDEX `" + indexName + "` ON `" + tableName + "` (" + columns + ") ALGORITHM=INPLACE LOCK=NONE")) {
+                createStatement.executeUpdate();
+                platform.getLogger().info("已为数据表 " + tableName + " 创建索引：" + indexName +
+                        "，耗时 " + (System.currentTimeMillis() - startMillis) + "ms");
+                return true;
+            }
+        } catch (SQLException e) {
+            platform.getLogger().log(Level.WARNING, "创建索引 " + indexName + " 失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 删除不再使用的索引（在线DDL，不存在时跳过）
+     */
+    private void dropIndexIfExists(String tableName, String indexName) {
+        try (Connection connection = databaseManager.getConnection()) {
+            if (!indexExists(connection, tableName, indexName)) {
+                return;
+            }
+            try (PreparedStatement dropStatement = connection.prepareStatement(
+                    "DROP INDEX `" + indexName + "` ON `" + tableName + "` ALGORITHM=INPLACE LOCK=NONE")) {
+                dropStatement.executeUpdate();
+                platform.getLogger().info("已删除数据表 " + tableName + " 中不再使用的索引：" + indexName);
+            }
+        } catch (SQLException e) {
+            platform.getLogger().log(Level.WARNING, "删除索引 " + indexName + " 失败", e);
+        }
+    }
+
+    /**
+     * 通过JDBC元数据检查索引是否存在
+     */
+    private boolean indexExists(Connection connection, String tableName, String indexName) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, tableName, false, true)) {
+            while (resultSet.next()) {
+                if (indexName.equalsIgnoreCase(resultSet.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取表名（分表时为基础表名）
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 获取集群维护任务的租约表名（不分表）
+     */
+    public String getLeaseTableName() {
+        return tableName + "_lease";
+    }
+
+    /**
+     * 获取记录UUID所在的表名
+     */
+    public String getTableName(String recordUUID) {
+        return shardRouter.tableFor(recordUUID);
+    }
+
+    /**
+     * 获取全部分表的表名（未分表时只有一张表）
+     */
+    public List<String> getTableNames() {
+        return shardRouter.getTableNames();
+    }
+
+    /**
+     * 获取分表路由
+     */
+    public ShardRouter getShardRouter() {
+        return shardRouter;
+    }
+}
@@ -0,0 +1,219 @@
+package com.miaomc.authLinker.database;
+
+import com.miaomc.authLinker.platform.AuthLinkerPlatform;
+import com.miaomc.authLinker.platform.PlatformConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DatabaseManager {
+    private final AuthLinkerPlatform platform;
+    // 执行数据库操作的线程池，不占用公共线程池；队列已满时拒绝新任务而不是无限排队
+    private ThreadPoolExecutor executor;
+    private HikariDataSource dataSource;
+    // 只读从库连接池（未启用时为null，读操作使用主库）
+    private HikariDataSource replicaDataSource;
+    private int replicaMaxLagSeconds;
+
+    public DatabaseManager(AuthLinkerPlatform platform) {
+        this.platform = platform;
+        initializeDataSource();
+        initializeReplicaDataSource();
+        initializeExecutor();
+    }
+
+    /**
+     * 使用已创建的连接池，不启用从库（测试时连接嵌入式数据库）
+     */
+    DatabaseManager(AuthLinkerPlatform platform, HikariDataSource dataSource) {
+        this.platform = platform;
+        this.dataSource = dataSource;
+        initializeExecutor();
+    }
+
+    private void initializeExecutor() {
+        // 每个连接一个线程：更多线程只会在连接池上等待
+        int threads = getPoolSize(false) + (hasReplica() ? getPoolSize(true) : 0);
+        int queueSize = Math.max(1, platform.getConfig().getInt("database.executor_queue_size", 1000));
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "AuthLinker-DB-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private void initializeDataSource() {
+        HikariConfig hikariConfig = createConfig("database.mysql", "AuthLinkerPool",
+                platform.getConfig().getInt("database.mysql.pool_size", 10), 2);
+
+        try {
+            dataSource = new HikariDataSource(hikariConfig);
+            platform.getLogger().info("MySQL数据库连接池初始化成功");
+        } catch (Exception e) {
+            platform.getLogger().severe("MySQL数据库连接池初始化失败: " + e.getMessage());
+            throw new RuntimeException("无法初始化数据库连接", e);
+        }
+    }
+
+    private void initializeReplicaDataSource() {
+        PlatformConfig config = platform.getConfig();
+        if (!config.getBoolean("database.replica.enabled", false)) {
+            return;
+        }
+        replicaMaxLagSeconds = config.getInt("database.replica.max_lag_seconds", 5);
+
+        HikariConfig hikariConfig = createConfig("database.replica", "AuthLinkerReplicaPool",
+                config.getInt("database.replica.pool_size", 10), 1);
+        hikariConfig.setReadOnly(true);
+
+        try {
+            replicaDataSource = new HikariDataSource(hikariConfig);
+            platform.getLogger().info("MySQL只读从库连接池初始化成功");
+        } catch (Exception e) {
+            // 从库不可用时不影响插件运行，读操作全部回到主库
+            replicaDataSource = null;
+            platform.getLogger().warning("MySQL只读从库连接池初始化失败，读操作将使用主库: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按配置节构建连接池配置
+     *
+     * @param path        配置节路径（database.mysql 或 database.replica）
+     * @param poolName    连接池名称
+     * @param maxPoolSize 最大连接数
+     * @param minIdle     最小空闲连接数
+     */
+    private HikariConfig createConfig(String path, String poolName, int maxPoolSize, int minIdle) {
+        PlatformConfig config = platform.getConfig();
+
+        HikariConfig hikariConfig = new HikariConfig();
+
+        // 构建MySQL连接URL
+        String host = config.getString(path + ".host", "localhost");
+        int port = config.getInt(path + ".port", 3306);
+        String database = config.getString(path + ".database", "authlinker");
+        boolean ssl = config.getBoolean(path + ".ssl", false);
+
+        // 建立连接和等待查询结果的超时，避免数据库无响应时线程无限期阻塞
+        int socketTimeout = config.getInt("database.timeouts.socket_ms", 30000);
+        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database +
+                "?useSSL=" + ssl + "&useUnicode=true&characterEncoding=UTF-8&serverTimezone=UTC" +
+                "&connectTimeout=" + socketTimeout + "&socketTimeout=" + socketTimeout;
+
+        hikariConfig.setJdbcUrl(jdbcUrl);
+        hikariConfig.setUsername(config.getString(path + ".username", "root"));
+        hikariConfig.setPassword(config.getString(path + ".password", ""));
+        hikariConfig.setDriverClassName("com.mysql.cj.jdbc.Driver");
+
+        // 连接池设置
+        hikariConfig.setMaximumPoolSize(maxPoolSize);
+        hikariConfig.setMinimumIdle(minIdle);
+        hikariConfig.setConnectionTimeout(Math.max(250, config.getLong("database.timeouts.connection_ms", 5000)));
+        hikariConfig.setIdleTimeout(600000);
+        hikariConfig.setMaxLifetime(1800000);
+        hikariConfig.setPoolName(poolName);
+
+        // 性能优化设置
+        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        return hikariConfig;
+    }
+
+    /**
+     * 获取数据库连接
+     */
+    public Connection getConnection() throws SQLException {
+        if (dataSource == null || dataSource.isClosed()) {
+            throw new SQLException("数据库连接池未初始化或已关闭");
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * 获取只读连接：启用从库时使用从库，否则使用主库
+     * 从库数据可能落后主库，调用方需自行判断结果是否可以直接使用
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (replicaDataSource == null || replicaDataSource.isClosed()) {
+            return getConnection();
+        }
+        return replicaDataSource.getConnection();
+    }
+
+    /**
+     * 获取执行数据库操作的线程池
+     */
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 是否启用了只读从库
+     */
+    public boolean hasReplica() {
+        return replicaDataSource != null && !replicaDataSource.isClosed();
+    }
+
+    /**
+     * 获取连接池的最大连接数
+     *
+     * @param replica 是否为从库连接池（未启用从库时返回主库连接池大小）
+     */
+    public int getPoolSize(boolean replica) {
+        return replica && hasReplica() ? replicaDataSource.getMaximumPoolSize() : dataSource.getMaximumPoolSize();
+    }
+
+    /**
+     * 获取配置的从库最大复制延迟（秒）
+     */
+    public int getReplicaMaxLagSeconds() {
+        return replicaMaxLagSeconds;
+    }
+
+    /**
+     * 关闭数据源
+     */
+    public void closeDataSource() {
+        // 先等待已提交的数据库操作完成，再关闭连接池
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+        }
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+            platform.getLogger().info("数据库连接池已关闭");
+        }
+    }
+
+    /**
+     * 检查数据库连接是否正常
+     */
+    public boolean isConnectionValid() {
+        try (Connection connection = getConnection()) {
+            return connection != null && !connection.isClosed();
+        } catch (SQLException e) {
+            platform.getLogger().warning("数据库连接检查失败: " + e.getMessage());
+            return false;
+        }
+    }
+}
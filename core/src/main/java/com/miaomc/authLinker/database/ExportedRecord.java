@@ -0,0 +1,36 @@
+package com.miaomc.authLinker.database;
+
+/**
+ * 导出的认证记录（不包含令牌）
+ */
+public class ExportedRecord {
+    private final String recordUUID;
+    private final String playerUUID;
+    private final String action;
+    private final String status;
+    private final boolean used;
+    private final long createdAtMillis;
+    private final long updatedAtMillis;
+    private final long expiresAtMillis;
+
+    public ExportedRecord(String recordUUID, String playerUUID, String action, String status, boolean used,
+                          long createdAtMillis, long updatedAtMillis, long expiresAtMillis) {
+        this.recordUUID = recordUUID;
+        this.playerUUID = playerUUID;
+        this.action = action;
+        this.status = status;
+        this.used = used;
+        this.createdAtMillis = createdAtMillis;
+        this.updatedAtMillis = updatedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getRecordUUID() { return recordUUID; }
+    public String getPlayerUUID() { return playerUUID; }
+    public String getAction() { return action; }
+    public String getStatus() { return status; }
+    public boolean isUsed() { return used; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public long getUpdatedAtMillis() { return updatedAtMillis; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+}
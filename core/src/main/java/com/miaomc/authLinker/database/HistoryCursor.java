@@ -0,0 +1,43 @@
+package com.miaomc.authLinker.database;
+
+/**
+ * 历史记录的键集分页游标：上一页最后一条记录的 (create_at, uuid)
+ * 字符串形式为 "毫秒时间戳:记录UUID"
+ */
+public final class HistoryCursor {
+    private final long createdAtMillis;
+    private final String recordUUID;
+
+    public HistoryCursor(long createdAtMillis, String recordUUID) {
+        this.createdAtMillis = createdAtMillis;
+        this.recordUUID = recordUUID;
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @return 游标，格式无效时返回null
+     */
+    public static HistoryCursor parse(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        int separator = cursor.indexOf(':');
+        if (separator <= 0 || separator == cursor.length() - 1) {
+            return null;
+        }
+        try {
+            return new HistoryCursor(Long.parseLong(cursor.substring(0, separator)), cursor.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public String getRecordUUID() { return recordUUID; }
+
+    @Override
+    public String toString() {
+        return createdAtMillis + ":" + recordUUID;
+    }
+}
@@ -0,0 +1,204 @@
+package com.miaomc.authLinker.database;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已发放记录过滤器
+ * 按过期时间分桶的布隆过滤器：每条记录写入其过期时间所在的桶，桶内记录全部过期后整桶丢弃，
+ * 因此内存只与有效期内发放的链接数量有关。
+ * 查询结果为“一定没有发放过”或“可能发放过”，前者可以不查数据库直接拒绝；
+ * 记录在写入数据库之前加入过滤器，已发放的记录永远不会被误判为不存在。
+ */
+public class IssuedRecordFilter {
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long bucketMillis;
+    private final long graceMillis;
+    private final int bitsPerBucket;
+    private final int hashCount;
+    // 从数据库重建完成前过滤器不完整，此时全部放行
+    private volatile boolean ready;
+
+    /**
+     * @param bucketSeconds     每个桶覆盖的过期时间范围（秒）
+     * @param expectedPerBucket 每个桶预计的记录数
+     * @param falsePositiveRate 每个桶达到预计记录数时的目标误判率
+     * @param graceSeconds      记录过期后继续保留的时间（秒），用于容忍本机与数据库的时钟误差
+     */
+    public IssuedRecordFilter(int bucketSeconds, int expectedPerBucket, double falsePositiveRate, int graceSeconds) {
+        this.bucketMillis = Math.max(1, bucketSeconds) * 1000L;
+        this.graceMillis = Math.max(0, graceSeconds) * 1000L;
+        int expected = Math.max(1, expectedPerBucket);
+        double rate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        // m = -n·ln(p) / (ln2)^2，k = m/n·ln2
+        long bits = (long) Math.ceil(-expected * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        // 向上取整到64的倍数，便于按long存储
+        this.bitsPerBucket = (int) Math.min(Integer.MAX_VALUE - 63, (bits + 63) & ~63L);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitsPerBucket / expected * Math.log(2)));
+    }
+
+    /**
+     * 加入一条记录（写入数据库之前调用）
+     *
+     * @param recordUUID      记录UUID
+     * @param expiresAtMillis 过期时间戳（毫秒）
+     */
+    public void add(String recordUUID, long expiresAtMillis) {
+        long index = Math.floorDiv(expiresAtMillis, bucketMillis);
+        buckets.computeIfAbsent(index, key -> new Bucket(bitsPerBucket)).add(hash1(recordUUID), hash2(recordUUID), hashCount);
+    }
+
+    /**
+     * 记录是否可能已发放
+     *
+     * @return 返回false时记录一定没有发放过（或已过期并超过保留时间）
+     */
+    public boolean mightContain(String recordUUID) {
+        if (!ready) {
+            return true;
+        }
+        long h1 = hash1(recordUUID);
+        long h2 = hash2(recordUUID);
+        long minIndex = liveIndexFloor();
+        for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+            if (entry.getKey() >= minIndex && entry.getValue().mightContain(h1, h2, hashCount)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 标记从数据库重建完成，此后开始拒绝不存在的记录
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 丢弃全部记录都已过期的桶
+     */
+    public void cleanupExpired() {
+        long minIndex = liveIndexFloor();
+        buckets.keySet().removeIf(index -> index < minIndex);
+    }
+
+    /**
+     * 当前保留的桶数量
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * 位数组占用的内存（字节）
+     */
+    public long getMemoryBytes() {
+        return (long) buckets.size() * (bitsPerBucket / 8);
+    }
+
+    /**
+     * 按各桶当前填充率估算的误判率
+     * 查询会检查所有桶，任意一个桶误判即整体误判
+     */
+    public double getEstimatedFalsePositiveRate() {
+        double allNegative = 1.0;
+        for (Bucket bucket : buckets.values()) {
+            double fill = (double) bucket.bitsSet.sum() / bitsPerBucket;
+            allNegative *= 1.0 - Math.pow(fill, hashCount);
+        }
+        return 1.0 - allNegative;
+    }
+
+    private long liveIndexFloor() {
+        // 桶的结束时间加上保留时间早于当前时间时，桶内记录全部过期
+        return Math.floorDiv(System.currentTimeMillis() - graceMillis, bucketMillis);
+    }
+
+    private static long hash1(String recordUUID) {
+        UUID uuid = parse(recordUUID);
+        return uuid != null ? mix(uuid.getMostSignificantBits()) : mix(recordUUID.hashCode());
+    }
+
+    private static long hash2(String recordUUID) {
+        UUID uuid = parse(recordUUID);
+        // 第二个哈希必须为奇数，保证双重哈希遍历到不同的位
+        return (uuid != null ? mix(uuid.getLeastSignificantBits()) : mix(~(long) recordUUID.hashCode() * 31 + recordUUID.length())) | 1L;
+    }
+
+    private static UUID parse(String recordUUID) {
+        if (recordUUID.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(recordUUID);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * MurmurHash3 的64位混淆函数
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 单个桶的位数组（无锁并发写入）
+     */
+    private static class Bucket {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final LongAdder bitsSet = new LongAdder();
+
+        Bucket(int bitCount) {
+            this.words = new AtomicLongArray(bitCount / 64);
+            this.bitCount = bitCount;
+        }
+
+        void add(long h1, long h2, int hashCount) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(combined, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+                if ((current & mask) == 0) {
+                    bitsSet.increment();
+                }
+                combined += h2;
+            }
+        }
+
+        boolean mightContain(long h1, long h2, int hashCount) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(combined, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+                combined += h2;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.miaomc.authLinker.database;
+
+/**
+ * 一次心跳后读取到的租约状态
+ * 剩余时间和持有时长按数据库时钟计算，不受各服务器本地时钟误差影响
+ */
+public class LeaseState {
+    private final String holder;
+    private final long remainingMillis;
+    private final long heldMillis;
+
+    public LeaseState(String holder, long remainingMillis, long heldMillis) {
+        this.holder = holder;
+        this.remainingMillis = remainingMillis;
+        this.heldMillis = heldMillis;
+    }
+
+    /**
+     * 租约持有者的节点ID
+     */
+    public String getHolder() { return holder; }
+
+    /**
+     * 租约剩余时间（毫秒）
+     */
+    public long getRemainingMillis() { return remainingMillis; }
+
+    /**
+     * 当前持有者连续持有租约的时长（毫秒）
+     */
+    public long getHeldMillis() { return heldMillis; }
+}
@@ -0,0 +1,46 @@
+package com.miaomc.authLinker.database;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最近写入记录
+ * 记录本服务器在复制延迟上限内写过的记录UUID和玩家UUID，
+ * 读取这些数据时应使用主库，保证能读到自己刚写入的内容
+ */
+public class RecentWriteTracker {
+    private final Map<String, Long> writes = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    /**
+     * @param windowSeconds 写入后需要读主库的时长（秒），通常为从库最大复制延迟
+     */
+    public RecentWriteTracker(int windowSeconds) {
+        this.windowMillis = windowSeconds * 1000L;
+    }
+
+    /**
+     * 记录一次写入
+     *
+     * @param key 记录UUID或玩家UUID
+     */
+    public void record(String key) {
+        writes.put(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 是否在复制延迟上限内写入过
+     */
+    public boolean isRecent(String key) {
+        Long writtenAt = writes.get(key);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < windowMillis;
+    }
+
+    /**
+     * 清理已超出复制延迟上限的写入记录
+     */
+    public void cleanup() {
+        long threshold = System.currentTimeMillis() - windowMillis;
+        writes.values().removeIf(writtenAt -> writtenAt < threshold);
+    }
+}
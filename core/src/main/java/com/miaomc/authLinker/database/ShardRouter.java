@@ -0,0 +1,81 @@
+package com.miaomc.authLinker.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分表路由
+ * 记录UUID是随机生成的，其第一个字节（前两位十六进制字符）即可作为哈希值：
+ * 分片号 = 第一个字节 % 分片数，因此验证端只凭记录UUID就能算出所在的表，无需额外查询。
+ * 分片数为1时只使用原表名，与未分表时完全一致。
+ */
+public class ShardRouter {
+    private final String baseTableName;
+    private final List<String> tableNames;
+
+    /**
+     * @param baseTableName 基础表名
+     * @param shardCount    分片数（1-256）
+     */
+    public ShardRouter(String baseTableName, int shardCount) {
+        if (shardCount < 1 || shardCount > 256) {
+            throw new IllegalArgumentException("分片数必须在1到256之间: " + shardCount);
+        }
+        this.baseTableName = baseTableName;
+        List<String> names = new ArrayList<>(shardCount);
+        if (shardCount == 1) {
+            names.add(baseTableName);
+        } else {
+            for (int i = 0; i < shardCount; i++) {
+                names.add(baseTableName + "_" + i);
+            }
+        }
+        this.tableNames = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * 计算记录UUID所在的分片号
+     * 记录UUID来自外部输入，为空时路由到0号分表，不足两位时按字符串哈希路由，查询结果与不分表时一样是记录不存在
+     */
+    public static int shardIndex(String recordUUID, int shardCount) {
+        if (shardCount == 1 || recordUUID == null) {
+            return 0;
+        }
+        if (recordUUID.length() < 2) {
+            return Math.floorMod(recordUUID.hashCode(), shardCount);
+        }
+        int firstByte = Character.digit(recordUUID.charAt(0), 16) << 4 | Character.digit(recordUUID.charAt(1), 16);
+        // 非十六进制开头的UUID（不应出现）退回到字符串哈希
+        if (firstByte < 0) {
+            return Math.floorMod(recordUUID.hashCode(), shardCount);
+        }
+        return firstByte % shardCount;
+    }
+
+    /**
+     * 获取记录UUID所在的表名
+     */
+    public String tableFor(String recordUUID) {
+        return tableNames.get(shardIndex(recordUUID, tableNames.size()));
+    }
+
+    /**
+     * 获取全部分表的表名（按分片号排序）
+     */
+    public List<String> getTableNames() {
+        return tableNames;
+    }
+
+    public int getShardCount() {
+        return tableNames.size();
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public boolean isSharded() {
+        return tableNames.size() > 1;
+    }
+}
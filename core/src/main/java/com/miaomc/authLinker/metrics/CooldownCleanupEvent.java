@@ -0,0 +1,44 @@
+package com.miaomc.authLinker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.IntSupplier;
+
+/**
+ * JFR事件：一次冷却记录清理
+ * 清理遍历整个冷却缓存，玩家较多时可与同时段的GC停顿或锁竞争对照
+ */
+@Name("com.miaomc.authlinker.CooldownCleanup")
+@Label("Cooldown Cleanup")
+@Category({"AuthLinker", "Cooldown"})
+@Description("CooldownManager 清理过期冷却记录")
+@Enabled(false)
+@StackTrace(false)
+public class CooldownCleanupEvent extends Event {
+    @Label("Entries Before")
+    private int entriesBefore;
+
+    @Label("Entries Removed")
+    private int entriesRemoved;
+
+    /**
+     * 结束事件并在需要记录时填写字段后提交
+     *
+     * @param entriesBefore 清理前的记录数
+     * @param entriesAfter  清理后的记录数（只在需要记录时读取）
+     */
+    public void finish(int entriesBefore, IntSupplier entriesAfter) {
+        end();
+        if (shouldCommit()) {
+            this.entriesBefore = entriesBefore;
+            this.entriesRemoved = Math.max(0, entriesBefore - entriesAfter.getAsInt());
+            commit();
+        }
+    }
+}
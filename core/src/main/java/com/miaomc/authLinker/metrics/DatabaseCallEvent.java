@@ -0,0 +1,76 @@
+package com.miaomc.authLinker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.UUID;
+
+/**
+ * JFR事件：一次数据库操作
+ * 事件时间从数据库线程开始执行到操作结束，在线程池中排队和从连接池获取连接的时间另外记录在字段中。
+ * 线程池拒绝的操作也会记录，此时事件时长为0
+ */
+@Name("com.miaomc.authlinker.DatabaseCall")
+@Label("Database Call")
+@Category({"AuthLinker", "Database"})
+@Description("AuthRecordManager 的一次数据库操作，包含排队时间和获取连接的等待时间")
+@Enabled(false)
+@StackTrace(false)
+public class DatabaseCallEvent extends Event {
+    public static final String OUTCOME_OK = "ok";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String OUTCOME_REJECTED = "rejected";
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Player")
+    private String player;
+
+    @Label("Action")
+    private String action;
+
+    @Label("Outcome")
+    private String outcome = OUTCOME_OK;
+
+    @Label("Queue Time")
+    @Description("在数据库线程池中排队的时间")
+    @Timespan(Timespan.NANOSECONDS)
+    private long queueTime;
+
+    @Label("Connection Wait")
+    @Description("从连接池获取连接的累计等待时间（分表并行查询时只计入本线程）")
+    @Timespan(Timespan.NANOSECONDS)
+    private long connectionWait;
+
+    /**
+     * 填写操作信息（只在事件启用时调用）
+     *
+     * @param operation  操作名，与对应延迟直方图的名称一致
+     * @param playerUUID 玩家UUID，可为null
+     * @param action     操作类型，可为null
+     */
+    public void setCall(String operation, UUID playerUUID, String action) {
+        this.operation = operation;
+        this.player = playerUUID != null ? playerUUID.toString() : null;
+        this.action = action;
+    }
+
+    public void setQueueTime(long nanos) {
+        this.queueTime = nanos;
+    }
+
+    public void addConnectionWait(long nanos) {
+        this.connectionWait += nanos;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
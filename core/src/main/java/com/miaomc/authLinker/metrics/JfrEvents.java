@@ -0,0 +1,41 @@
+package com.miaomc.authLinker.metrics;
+
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 插件的JFR事件类型
+ * 启动时注册，使事件类型在录制开始后即可见（否则要等第一次触发才注册），停用时注销，
+ * 避免插件重载后旧的类加载器仍被JFR引用
+ */
+public final class JfrEvents {
+    private static final List<Class<? extends Event>> EVENT_TYPES = Arrays.asList(
+            LinkStageEvent.class, DatabaseCallEvent.class, RsaOperationEvent.class, CooldownCleanupEvent.class);
+
+    private JfrEvents() {
+    }
+
+    public static void register(Logger logger) {
+        try {
+            for (Class<? extends Event> eventType : EVENT_TYPES) {
+                FlightRecorder.register(eventType);
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "无法注册JFR事件，飞行记录中将不包含插件事件", e);
+        }
+    }
+
+    public static void unregister() {
+        try {
+            for (Class<? extends Event> eventType : EVENT_TYPES) {
+                FlightRecorder.unregister(eventType);
+            }
+        } catch (RuntimeException ignored) {
+        }
+    }
+}
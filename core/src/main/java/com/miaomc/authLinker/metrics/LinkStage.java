@@ -0,0 +1,25 @@
+package com.miaomc.authLinker.metrics;
+
+/**
+ * 链接生成流程的各个阶段
+ */
+public enum LinkStage {
+    COOLDOWN("cooldown"),
+    TOKEN("token"),
+    HASH("hash"),
+    RSA("rsa"),
+    DB_WRITE("db_write");
+
+    private final String metricName;
+
+    LinkStage(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * 获取用于指标和日志输出的阶段名
+     */
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,63 @@
+package com.miaomc.authLinker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * JFR事件：链接生成流程中的一个阶段
+ * 默认关闭，未启用时事件对象在阶段结束后直接丢弃，不写入任何字段；
+ * 启用方式见插件目录下的 authlinker.jfc
+ */
+@Name("com.miaomc.authlinker.LinkStage")
+@Label("Link Stage")
+@Category({"AuthLinker", "Link"})
+@Description("链接生成流程中的一个阶段（冷却检查、令牌、哈希、RSA加密、数据库写入）")
+@Enabled(false)
+@StackTrace(false)
+public class LinkStageEvent extends Event {
+    @Label("Stage")
+    private String stage;
+
+    @Label("Player")
+    private String player;
+
+    @Label("Action")
+    private String action;
+
+    @Label("Record UUID")
+    private String recordUUID;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * 创建并开始一个阶段事件
+     */
+    public static LinkStageEvent start() {
+        LinkStageEvent event = new LinkStageEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束事件并在需要记录时填写字段后提交
+     */
+    public void finish(LinkStage stage, UUID playerUUID, String action, String recordUUID, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage.getMetricName();
+            this.player = playerUUID.toString();
+            this.action = action;
+            this.recordUUID = recordUUID;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.miaomc.authLinker.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 指标注册表
+ * 组件在初始化时获取并持有计数器/直方图的引用，热路径上不再做任何查找
+ */
+public class MetricsRegistry {
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, CacheStats> caches = new ConcurrentHashMap<>();
+    private final LatencyHistogram[] stageHistograms;
+
+    public MetricsRegistry() {
+        LinkStage[] stages = LinkStage.values();
+        this.stageHistograms = new LatencyHistogram[stages.length];
+        for (LinkStage stage : stages) {
+            stageHistograms[stage.ordinal()] = histogram("link_stage_" + stage.getMetricName());
+        }
+    }
+
+    /**
+     * 获取或创建计数器
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * 获取或创建延迟直方图
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * 获取或创建缓存命中统计
+     */
+    public CacheStats cache(String name) {
+        return caches.computeIfAbsent(name, CacheStats::new);
+    }
+
+    /**
+     * 记录链接生成某个阶段的耗时
+     *
+     * @param stage 阶段
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordStage(LinkStage stage, long nanos) {
+        stageHistograms[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * 按名称排序的计数器快照
+     */
+    public Map<String, Long> getCounterValues() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, adder) -> values.put(name, adder.sum()));
+        return values;
+    }
+
+    /**
+     * 按名称排序的直方图快照
+     */
+    public Map<String, LatencyHistogram.Snapshot> getHistogramSnapshots() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * 按名称排序的缓存统计
+     */
+    public Map<String, CacheStats> getCacheStats() {
+        return new TreeMap<>(caches);
+    }
+}
@@ -0,0 +1,121 @@
+package com.miaomc.authLinker.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prometheus文本格式导出器
+ * 在本地端口提供 /metrics 端点，只在抓取时生成快照，不影响记录路径
+ */
+public class PrometheusExporter {
+    private static final String PREFIX = "authlinker_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final MetricsRegistry registry;
+    private final Logger logger;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusExporter(MetricsRegistry registry, Logger logger) {
+        this.registry = registry;
+        this.logger = logger;
+    }
+
+    /**
+     * 启动HTTP端点
+     *
+     * @param host 监听地址（建议只监听127.0.0.1）
+     * @param port 监听端口
+     */
+    public void start(String host, int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+            server.createContext("/metrics", this::handle);
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "AuthLinker-Prometheus");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.setExecutor(executor);
+            server.start();
+            logger.info("Prometheus指标端点已启动: http://" + host + ":" + port + "/metrics");
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "启动Prometheus指标端点失败", e);
+        }
+    }
+
+    /**
+     * 停止HTTP端点
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * 生成Prometheus文本格式的指标
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder(4096);
+
+        for (Map.Entry<String, Long> entry : registry.getCounterValues().entrySet()) {
+            String name = PREFIX + entry.getKey() + "_total";
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            sb.append(name).append(' ').append(entry.getValue()).append('\n');
+        }
+
+        for (LatencyHistogram.Snapshot snapshot : registry.getHistogramSnapshots().values()) {
+            String name = PREFIX + snapshot.getName() + "_seconds";
+            sb.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : QUANTILES) {
+                sb.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(toSeconds(snapshot.getQuantile(quantile))).append('\n');
+            }
+            sb.append(name).append("_sum ").append(toSeconds(snapshot.getSum())).append('\n');
+            sb.append(name).append("_count ").append(snapshot.getCount()).append('\n');
+        }
+
+        Map<String, CacheStats> caches = registry.getCacheStats();
+        if (!caches.isEmpty()) {
+            sb.append("# TYPE ").append(PREFIX).append("cache_requests_total counter\n");
+        }
+        for (CacheStats cache : caches.values()) {
+            String name = PREFIX + "cache_requests_total";
+            sb.append(name).append("{cache=\"").append(cache.getName()).append("\",result=\"hit\"} ")
+                    .append(cache.getHits()).append('\n');
+            sb.append(name).append("{cache=\"").append(cache.getName()).append("\",result=\"miss\"} ")
+                    .append(cache.getMisses()).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,157 @@
+package com.miaomc.authLinker.metrics;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单次链接生成请求的追踪记录
+ * 由 {@link RequestTracer} 预先分配在环形缓冲区中重复使用，记录时只写入基本类型字段
+ * 关联ID即本次请求将要写入数据库的记录UUID
+ */
+public class RequestTrace {
+    private static final int STAGE_COUNT = LinkStage.values().length;
+
+    private final boolean recording;
+    private final AtomicBoolean inUse = new AtomicBoolean();
+    // 各阶段相对请求开始的起始偏移和耗时（纳秒），-1表示未经过该阶段
+    private final long[] stageOffsets = new long[STAGE_COUNT];
+    private final long[] stageDurations = new long[STAGE_COUNT];
+
+    private String correlationId;
+    private UUID playerUUID;
+    private String action;
+    private long startNanos;
+    private long startMillis;
+    private long dbAcquireNanos;
+    private long dbExecuteNanos;
+
+    RequestTrace(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * 创建一个不记录任何数据、只携带关联ID的追踪（追踪关闭或缓冲区耗尽时使用）
+     */
+    static RequestTrace detached(UUID playerUUID, String action) {
+        RequestTrace trace = new RequestTrace(false);
+        trace.reset(playerUUID, action);
+        return trace;
+    }
+
+    boolean tryAcquire() {
+        return inUse.compareAndSet(false, true);
+    }
+
+    void release() {
+        inUse.set(false);
+    }
+
+    void reset(UUID playerUUID, String action) {
+        this.correlationId = UUID.randomUUID().toString();
+        this.playerUUID = playerUUID;
+        this.action = action;
+        this.startNanos = System.nanoTime();
+        this.startMillis = System.currentTimeMillis();
+        this.dbAcquireNanos = -1;
+        this.dbExecuteNanos = -1;
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            stageOffsets[i] = -1;
+            stageDurations[i] = -1;
+        }
+    }
+
+    /**
+     * 记录一个阶段的起止时间
+     *
+     * @param stage      阶段
+     * @param startNanos 阶段开始时的System.nanoTime()
+     * @param endNanos   阶段结束时的System.nanoTime()
+     */
+    public void recordStage(LinkStage stage, long startNanos, long endNanos) {
+        if (!recording) {
+            return;
+        }
+        stageOffsets[stage.ordinal()] = startNanos - this.startNanos;
+        stageDurations[stage.ordinal()] = endNanos - startNanos;
+    }
+
+    /**
+     * 记录从连接池获取连接的等待时间
+     */
+    public void recordDbAcquire(long nanos) {
+        if (recording) {
+            dbAcquireNanos = nanos;
+        }
+    }
+
+    /**
+     * 记录语句在数据库上的执行时间
+     */
+    public void recordDbExecute(long nanos) {
+        if (recording) {
+            dbExecuteNanos = nanos;
+        }
+    }
+
+    /**
+     * 使用预先分配的记录UUID作为关联ID（发放预生成的链接时调用）
+     */
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * 获取关联ID（即记录UUID）
+     */
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    long getStartNanos() { return startNanos; }
+
+    /**
+     * 生成结构化的耗时分解（单行JSON），仅在慢请求时调用
+     */
+    String toJson(long totalNanos, boolean success) {
+        StringBuilder sb = new StringBuilder(384);
+        sb.append("{\"id\":\"").append(correlationId).append('"');
+        sb.append(",\"player\":\"").append(playerUUID).append('"');
+        sb.append(",\"action\":\"").append(action).append('"');
+        sb.append(",\"start\":").append(startMillis);
+        sb.append(",\"success\":").append(success);
+        sb.append(",\"total_ms\":").append(toMillis(totalNanos));
+        sb.append(",\"stages\":[");
+        boolean first = true;
+        for (LinkStage stage : LinkStage.values()) {
+            int i = stage.ordinal();
+            if (stageDurations[i] < 0) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"stage\":\"").append(stage.getMetricName()).append('"')
+                    .append(",\"offset_ms\":").append(toMillis(stageOffsets[i]))
+                    .append(",\"duration_ms\":").append(toMillis(stageDurations[i])).append('}');
+        }
+        sb.append(']');
+        if (dbAcquireNanos >= 0) {
+            sb.append(",\"db_acquire_ms\":").append(toMillis(dbAcquireNanos));
+        }
+        if (dbExecuteNanos >= 0) {
+            sb.append(",\"db_execute_ms\":").append(toMillis(dbExecuteNanos));
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,134 @@
+package com.miaomc.authLinker.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * 慢请求追踪器
+ * 追踪记录预分配在环形缓冲区中，正常请求除了占用一个槽位外不产生额外分配；
+ * 只有总耗时超过阈值的请求才会生成耗时分解并写入滚动日志文件
+ */
+public class RequestTracer {
+    private final Logger pluginLogger;
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final RequestTrace[] ring;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder slowRequests;
+    private Logger slowLogger;
+    private FileHandler fileHandler;
+
+    /**
+     * @param pluginLogger      插件日志（用于输出追踪器自身的错误）
+     * @param metrics           指标注册表（用于统计慢请求数量）
+     * @param enabled           是否启用追踪
+     * @param slowThresholdMs   慢请求阈值（毫秒）
+     * @param ringSize          环形缓冲区大小（会向上取整为2的幂）
+     */
+    public RequestTracer(Logger pluginLogger, MetricsRegistry metrics, boolean enabled, long slowThresholdMs, int ringSize) {
+        this.pluginLogger = pluginLogger;
+        this.slowRequests = metrics.counter("slow_requests");
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+
+        int size = Integer.highestOneBit(Math.max(16, ringSize - 1)) << 1;
+        this.ring = new RequestTrace[enabled ? size : 0];
+        this.mask = size - 1;
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new RequestTrace(true);
+        }
+    }
+
+    /**
+     * 打开滚动日志文件
+     *
+     * @param logDir      日志目录
+     * @param limitBytes  单个文件大小上限
+     * @param fileCount   保留的文件数量
+     */
+    public void openLog(File logDir, int limitBytes, int fileCount) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!logDir.exists()) {
+                logDir.mkdirs();
+            }
+            fileHandler = new FileHandler(new File(logDir, "slow-requests.%g.log").getPath(), limitBytes, fileCount, true);
+            fileHandler.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord record) {
+                    return record.getMessage() + System.lineSeparator();
+                }
+            });
+            slowLogger = Logger.getAnonymousLogger();
+            slowLogger.setUseParentHandlers(false);
+            slowLogger.addHandler(fileHandler);
+        } catch (IOException e) {
+            pluginLogger.log(Level.WARNING, "无法打开慢请求日志文件", e);
+        }
+    }
+
+    /**
+     * 关闭日志文件
+     */
+    public void close() {
+        if (fileHandler != null) {
+            fileHandler.close();
+            fileHandler = null;
+        }
+    }
+
+    /**
+     * 开始追踪一次请求，并为其分配关联ID（记录UUID）
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @return 追踪记录，追踪关闭或缓冲区已满时返回只携带关联ID的追踪
+     */
+    public RequestTrace begin(UUID playerUUID, String action) {
+        if (enabled) {
+            // 最多尝试一圈，跳过仍在使用中的槽位
+            for (int attempt = 0; attempt < ring.length; attempt++) {
+                RequestTrace trace = ring[(int) (sequence.getAndIncrement() & mask)];
+                if (trace.tryAcquire()) {
+                    trace.reset(playerUUID, action);
+                    return trace;
+                }
+            }
+        }
+        return RequestTrace.detached(playerUUID, action);
+    }
+
+    /**
+     * 结束追踪，超过阈值时输出耗时分解并释放槽位
+     *
+     * @param trace   追踪记录
+     * @param success 请求是否成功
+     */
+    public void finish(RequestTrace trace, boolean success) {
+        if (!trace.isRecording()) {
+            return;
+        }
+        long totalNanos = System.nanoTime() - trace.getStartNanos();
+        try {
+            if (totalNanos >= slowThresholdNanos) {
+                slowRequests.increment();
+                if (slowLogger != null) {
+                    slowLogger.info(trace.toJson(totalNanos, success));
+                }
+            }
+        } finally {
+            trace.release();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.miaomc.authLinker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：一次RSA操作（加密、解密、生成或加载密钥）
+ * 加密器不知道请求属于哪个玩家，需要时可按线程和时间与同一线程上的 {@link LinkStageEvent} 对应
+ */
+@Name("com.miaomc.authlinker.RsaOperation")
+@Label("RSA Operation")
+@Category({"AuthLinker", "Crypto"})
+@Description("RSAEncryptor 的一次加密、解密、生成或加载密钥")
+@Enabled(false)
+@StackTrace(false)
+public class RsaOperationEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Input Size")
+    @DataAmount
+    private int inputSize;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * 结束事件并在需要记录时填写字段后提交
+     */
+    public void finish(String operation, int inputSize, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.inputSize = inputSize;
+            this.outcome = success ? "ok" : "error";
+            commit();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.miaomc.authLinker.platform;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+/**
+ * 运行核心模块的平台
+ * 链接生成、记录管理和冷却时间只通过该接口读取配置、写日志和定位数据目录，不依赖 Bukkit/Paper API；
+ * 服务端插件和代理端插件各自实现该接口即可复用同一套核心逻辑
+ */
+public interface AuthLinkerPlatform {
+
+    /**
+     * 获取日志记录器
+     */
+    Logger getLogger();
+
+    /**
+     * 获取当前的插件配置（重载配置后返回新的配置）
+     */
+    PlatformConfig getConfig();
+
+    /**
+     * 获取插件数据目录（密钥、快照和审计日志所在目录）
+     */
+    File getDataFolder();
+}
@@ -0,0 +1,36 @@
+package com.miaomc.authLinker.platform;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 平台无关的配置读取接口
+ * 路径以点分隔（如 database.mysql.pool_size），与 config.yml 的层级一致；配置项不存在或类型不符时返回默认值
+ */
+public interface PlatformConfig {
+
+    String getString(String path, String def);
+
+    int getInt(String path, int def);
+
+    long getLong(String path, long def);
+
+    double getDouble(String path, double def);
+
+    boolean getBoolean(String path, boolean def);
+
+    /**
+     * @return 字符串列表，配置项不存在时为空列表
+     */
+    List<String> getStringList(String path);
+
+    /**
+     * @return 子配置节，不存在或不是配置节时返回null
+     */
+    PlatformConfig getSection(String path);
+
+    /**
+     * @return 当前配置节的直接子键（保持配置中的顺序）
+     */
+    Set<String> getKeys();
+}
@@ -0,0 +1,119 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.platform.PlatformConfig;
+import com.miaomc.authLinker.utils.RSAEncryptor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * 链接操作注册表
+ * 从配置的 actions 节加载所有操作，每个操作可单独设置端点、过期时间、冷却时间和权限，
+ * 未设置的项使用 settings 中的默认值。重载时先构建完整的新表再一次性替换，
+ * 正在生成的链接始终使用同一份配置。
+ * 无状态模式下链接数据包含令牌，加载时检查每个操作的数据能否放进一个RSA加密块，放不下的操作不会加载。
+ */
+public class ActionRegistry {
+    public static final String DEFAULT_PERMISSION = "miaomc.authlinker.use";
+    // 操作名会直接写入链接数据JSON，只允许不需要转义的字符
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9_-]{1,64}");
+
+    private final Logger logger;
+    private volatile Map<String, LinkAction> actions = Collections.emptyMap();
+
+    public ActionRegistry(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * 从配置重新加载所有操作
+     * 没有 actions 节时使用内置的 login 和 suffix
+     */
+    public void reload(PlatformConfig config) {
+        String defaultEndpoint = config.getString("settings.endpoint", "https://example.com/verify?data={data}&hash={hash}");
+        int defaultExpiredTime = config.getInt("settings.expired_time", 300);
+        int defaultCooldown = config.getInt("settings.cooldown", 120);
+        boolean stateless = config.getBoolean("stateless.enabled", false);
+        int tokenLength = config.getInt("settings.token_length", 12);
+
+        Map<String, LinkAction> loaded = new LinkedHashMap<>();
+        PlatformConfig section = config.getSection("actions");
+        if (section == null) {
+            for (String name : new String[]{"login", "suffix"}) {
+                loaded.put(name, new LinkAction(name, defaultEndpoint, defaultExpiredTime, defaultCooldown, DEFAULT_PERMISSION));
+            }
+        } else {
+            for (String key : section.getKeys()) {
+                String name = key.toLowerCase();
+                if (!NAME_PATTERN.matcher(name).matches()) {
+                    logger.warning("操作名 " + key + " 无效（只允许小写字母、数字、下划线和连字符），已跳过");
+                    continue;
+                }
+                PlatformConfig actionSection = section.getSection(key);
+                String endpoint = defaultEndpoint;
+                int expiredTime = defaultExpiredTime;
+                int cooldown = defaultCooldown;
+                String permission = DEFAULT_PERMISSION;
+                if (actionSection != null) {
+                    String configuredEndpoint = actionSection.getString("endpoint", "");
+                    if (!configuredEndpoint.isEmpty()) {
+                        endpoint = configuredEndpoint;
+                    }
+                    expiredTime = actionSection.getInt("expired_time", defaultExpiredTime);
+                    cooldown = actionSection.getInt("cooldown", defaultCooldown);
+                    permission = actionSection.getString("permission", DEFAULT_PERMISSION);
+                }
+                if (expiredTime <= 0) {
+                    logger.warning("操作 " + name + " 的过期时间无效，已使用默认值 " + defaultExpiredTime + " 秒");
+                    expiredTime = defaultExpiredTime;
+                }
+                LinkAction action = new LinkAction(name, endpoint, expiredTime, Math.max(0, cooldown), permission);
+                if (stateless && action.maxStatelessDataLength(tokenLength) > RSAEncryptor.MAX_PLAIN_BYTES) {
+                    logger.severe("操作 " + name + " 的链接数据超过RSA单次加密上限 " + RSAEncryptor.MAX_PLAIN_BYTES +
+                            " 字节（无状态模式下操作名长度加 token_length 不能超过 " + maxNamePlusToken(tokenLength, action) + "），已跳过");
+                    continue;
+                }
+                loaded.put(name, action);
+            }
+        }
+
+        if (loaded.isEmpty()) {
+            logger.warning("没有配置任何有效的链接操作");
+        }
+        actions = Collections.unmodifiableMap(loaded);
+    }
+
+    /**
+     * 无状态模式下操作名长度与令牌长度之和的上限
+     */
+    private static int maxNamePlusToken(int tokenLength, LinkAction action) {
+        return RSAEncryptor.MAX_PLAIN_BYTES - (action.maxStatelessDataLength(tokenLength) - action.getName().length() - tokenLength);
+    }
+
+    /**
+     * 按名称获取操作
+     *
+     * @return 操作配置，不存在时返回null
+     */
+    public LinkAction get(String name) {
+        return actions.get(name);
+    }
+
+    /**
+     * 所有操作（保持配置中的顺序）
+     */
+    public Collection<LinkAction> getActions() {
+        return actions.values();
+    }
+
+    /**
+     * 所有操作名，用逗号分隔（用于提示消息）
+     */
+    public String describe() {
+        return String.join(", ", actions.keySet());
+    }
+}
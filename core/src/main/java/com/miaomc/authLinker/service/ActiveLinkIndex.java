@@ -0,0 +1,110 @@
+package com.miaomc.authLinker.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 玩家有效链接索引
+ * 按 玩家+操作 缓存最近一次生成且尚未过期的链接，用于幂等生成：
+ * 玩家重复执行 /al gen 时直接返回已有链接，而不是再写入一条新记录
+ */
+public class ActiveLinkIndex {
+    private final Map<String, ActiveLink> links = new ConcurrentHashMap<>();
+    // 剩余有效期低于该值的链接不再复用，避免玩家拿到即将过期的链接
+    private final long minRemainingMillis;
+
+    public ActiveLinkIndex(int minRemainingSeconds) {
+        this.minRemainingMillis = minRemainingSeconds * 1000L;
+    }
+
+    private static String key(UUID playerUUID, String action) {
+        return playerUUID.toString() + ":" + action;
+    }
+
+    /**
+     * 获取玩家该操作仍可复用的链接
+     *
+     * @return 有效链接，不存在或即将过期时返回null
+     */
+    public ActiveLink get(UUID playerUUID, String action) {
+        String key = key(playerUUID, action);
+        ActiveLink link = links.get(key);
+        if (link == null) {
+            return null;
+        }
+        if (link.getExpiresAtMillis() - System.currentTimeMillis() < minRemainingMillis) {
+            links.remove(key, link);
+            return null;
+        }
+        return link;
+    }
+
+    /**
+     * 记录新生成的链接（会覆盖该玩家该操作之前的链接）
+     */
+    public void put(UUID playerUUID, String action, ActiveLink link) {
+        links.put(key(playerUUID, action), link);
+    }
+
+    /**
+     * 移除指定记录（例如记录已被使用或作废）
+     *
+     * @return 是否移除了索引中的链接
+     */
+    public boolean removeRecord(UUID playerUUID, String action, String recordUUID) {
+        String key = key(playerUUID, action);
+        ActiveLink link = links.get(key);
+        return link != null && link.getRecordUUID().equals(recordUUID) && links.remove(key, link);
+    }
+
+    /**
+     * 按记录UUID移除链接（不知道玩家和操作时使用，需要遍历索引）
+     */
+    public void removeRecord(String recordUUID) {
+        links.values().removeIf(link -> link.getRecordUUID().equals(recordUUID));
+    }
+
+    /**
+     * 清理已过期的链接
+     */
+    public void cleanupExpired() {
+        long now = System.currentTimeMillis();
+        links.values().removeIf(link -> link.getExpiresAtMillis() <= now);
+    }
+
+    /**
+     * 获取索引中的链接数量（用于监控）
+     */
+    public int size() {
+        return links.size();
+    }
+
+    /**
+     * 已生成的有效链接
+     */
+    public static class ActiveLink {
+        private final String recordUUID;
+        private final String token;
+        private final String data;
+        private final String hash;
+        private final String link;
+        private final long expiresAtMillis;
+
+        public ActiveLink(String recordUUID, String token, String data, String hash, String link, long expiresAtMillis) {
+            this.recordUUID = recordUUID;
+            this.token = token;
+            this.data = data;
+            this.hash = hash;
+            this.link = link;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getRecordUUID() { return recordUUID; }
+        public String getToken() { return token; }
+        public String getData() { return data; }
+        public String getHash() { return hash; }
+        public String getLink() { return link; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+    }
+}
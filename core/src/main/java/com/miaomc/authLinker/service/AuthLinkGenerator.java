@@ -0,0 +1,779 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.audit.AuditEventType;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.database.AuthRecord;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.metrics.CacheStats;
+import com.miaomc.authLinker.metrics.LatencyHistogram;
+import com.miaomc.authLinker.metrics.LinkStage;
+import com.miaomc.authLinker.metrics.LinkStageEvent;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.metrics.RequestTrace;
+import com.miaomc.authLinker.metrics.RequestTracer;
+import com.miaomc.authLinker.platform.AuthLinkerPlatform;
+import com.miaomc.authLinker.platform.PlatformConfig;
+import com.miaomc.authLinker.utils.RSAEncryptor;
+import com.miaomc.authLinker.utils.CooldownManager;
+import com.miaomc.authLinker.utils.LinkSigner;
+import com.miaomc.authLinker.utils.ObfuscatedBase64;
+import com.miaomc.authLinker.utils.SecureTokenGenerator;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+public class AuthLinkGenerator {
+    private static final String DEFAULT_OBFUSCATION_TABLE = "jQNHxo9a1zVG8dFcyb27XmiwOl0WULnkPsBKqEAZYfer3t5RMDSCJhgvu4pTI6-.";
+
+    private final AuthLinkerPlatform platform;
+    private final AuthRecordManager authRecordManager;
+    private final RSAEncryptor rsaEncryptor;
+    private final CooldownManager cooldownManager;
+    private final SecureTokenGenerator tokenGenerator;
+    private final LinkSigner linkSigner;
+    private final MetricsRegistry metrics;
+    private final RequestTracer tracer;
+    private final CacheStats cooldownCacheStats;
+    private final LatencyHistogram totalLatency;
+    private final LatencyHistogram batchLatency;
+    private final LatencyHistogram batchDbWriteLatency;
+    private final boolean idempotentLinks;
+    // 无状态模式：令牌和过期时间封装在链接数据中，发放时不写入数据库
+    private final boolean statelessLinks;
+    private final ActiveLinkIndex activeLinkIndex;
+    private final CacheStats activeLinkStats;
+    private final int tokenLength;
+    private final ActionRegistry actionRegistry;
+    private final AuditJournal auditJournal;
+    // 链接数据的混淆编码，使用标准Base64时为null
+    private final ObfuscatedBase64 dataEncoder;
+    // 启动后的首次请求只记录一次耗时，用于对比预热效果
+    private final AtomicBoolean firstRequestLogged = new AtomicBoolean();
+    // 玩家进服时预生成的链接材料
+    private final boolean pregenerationEnabled;
+    private final PregeneratedLinkCache pregeneratedLinks;
+    private final CacheStats pregeneratedStats;
+    private final LatencyHistogram pregenerationSavedLatency;
+    // 单次生成请求等待数据库写入的最长时间
+    private final long requestTimeoutMillis;
+    private final LongAdder requestTimeouts;
+    // 超时放弃后仍写入成功、随后被删除的记录数
+    private final LongAdder lateWritesDiscarded;
+
+    /**
+     * 构造函数
+     *
+     * @param platform          运行平台（配置、日志）
+     * @param authRecordManager 认证记录管理器
+     * @param rsaEncryptor      RSA加密器
+     * @param cooldownManager   冷却时间管理器
+     * @param metrics           指标注册表
+     * @param tracer            慢请求追踪器
+     * @param actionRegistry    链接操作注册表
+     * @param auditJournal      审计日志
+     */
+    public AuthLinkGenerator(AuthLinkerPlatform platform, AuthRecordManager authRecordManager, RSAEncryptor rsaEncryptor, CooldownManager cooldownManager, MetricsRegistry metrics, RequestTracer tracer, ActionRegistry actionRegistry, AuditJournal auditJournal) {
+        this.platform = platform;
+        this.authRecordManager = authRecordManager;
+        this.rsaEncryptor = rsaEncryptor;
+        this.cooldownManager = cooldownManager;
+        this.tokenGenerator = new SecureTokenGenerator();
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.actionRegistry = actionRegistry;
+        this.auditJournal = auditJournal;
+        this.cooldownCacheStats = metrics.cache("cooldown");
+        this.totalLatency = metrics.histogram("link_total");
+        this.batchLatency = metrics.histogram("link_batch_total");
+        this.batchDbWriteLatency = metrics.histogram("link_batch_db_write");
+        PlatformConfig config = platform.getConfig();
+        this.linkSigner = createLinkSigner(config);
+        this.tokenLength = config.getInt("settings.token_length", 12);
+        this.idempotentLinks = config.getBoolean("settings.idempotent_links", false);
+        this.statelessLinks = config.getBoolean("stateless.enabled", false);
+        this.activeLinkIndex = new ActiveLinkIndex(config.getInt("settings.idempotent_min_remaining", 30));
+        this.activeLinkStats = metrics.cache("active_link");
+        this.dataEncoder = createDataEncoder(config);
+        this.pregenerationEnabled = config.getBoolean("pregeneration.enabled", false);
+        this.pregeneratedLinks = new PregeneratedLinkCache(config.getInt("pregeneration.max_age_seconds", 60));
+        if (pregenerationEnabled) {
+            warnCappedPregenerationAge(config);
+        }
+        this.pregeneratedStats = metrics.cache("pregenerated");
+        this.pregenerationSavedLatency = metrics.histogram("pregen_saved");
+        this.requestTimeoutMillis = Math.max(100, config.getLong("database.timeouts.request_ms", 10000));
+        this.requestTimeouts = metrics.counter("db_request_timeouts");
+        this.lateWritesDiscarded = metrics.counter("db_late_writes_discarded");
+    }
+
+    /**
+     * 按 settings.hash_mode 和 settings.salt 创建链接签名器
+     * 无状态模式下签名是链接唯一的防伪手段，固定使用 hmac-sha256（旧版拼接哈希可被长度扩展攻击伪造）
+     * 配置无效时返回null，此时不发放链接（回退到其他签名方式会使验证端拒绝全部链接，且削弱签名）
+     */
+    private LinkSigner createLinkSigner(PlatformConfig config) {
+        String mode = config.getString("settings.hash_mode", LinkSigner.MODE_SHA256);
+        if (config.getBoolean("stateless.enabled", false) && !LinkSigner.MODE_HMAC_SHA256.equalsIgnoreCase(mode)) {
+            platform.getLogger().warning("无状态模式要求 settings.hash_mode 为 " + LinkSigner.MODE_HMAC_SHA256 +
+                    "，当前配置 " + mode + " 已忽略，验证端需使用相同的签名方式");
+            mode = LinkSigner.MODE_HMAC_SHA256;
+        }
+        try {
+            return new LinkSigner(mode, config.getString("settings.salt", "abc123"));
+        } catch (IllegalArgumentException e) {
+            platform.getLogger().severe("配置错误: " + e.getMessage() + "，修正配置并重启服务器前不会发放链接");
+            return null;
+        }
+    }
+
+    /**
+     * 预生成操作的有效期较短时，max_age_seconds 会按有效期截断，在加载时提示实际使用的保留时间
+     */
+    private void warnCappedPregenerationAge(PlatformConfig config) {
+        long configuredMillis = config.getInt("pregeneration.max_age_seconds", 60) * 1000L;
+        for (String action : config.getStringList("pregeneration.actions")) {
+            LinkAction linkAction = actionRegistry.get(action.toLowerCase());
+            if (linkAction != null && pregeneratedLinks.maxAgeMillis(linkAction) < configuredMillis) {
+                platform.getLogger().warning("操作 " + linkAction.getName() + " 的链接有效期为 " + linkAction.getExpiredTime() +
+                        " 秒，预生成材料最多保留 " + pregeneratedLinks.maxAgeMillis(linkAction) / 1000 +
+                        " 秒（有效期的" + PregeneratedLinkCache.MAX_AGE_PERCENT + "%），pregeneration.max_age_seconds 已按此截断");
+            }
+        }
+    }
+
+    /**
+     * 按 settings.data_encoding 创建链接数据的编码器
+     * 混淆表无效时回退到标准Base64
+     */
+    private ObfuscatedBase64 createDataEncoder(PlatformConfig config) {
+        if (!"obfuscated".equalsIgnoreCase(config.getString("settings.data_encoding", "base64"))) {
+            return null;
+        }
+        try {
+            return new ObfuscatedBase64(config.getString("settings.base64_obfuscation_table", DEFAULT_OBFUSCATION_TABLE),
+                    config.getLong("settings.rotation_timestamp", 86400));
+        } catch (IllegalArgumentException e) {
+            platform.getLogger().warning("混淆表配置无效，链接数据将使用标准Base64编码: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 为玩家生成一个验证链接
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @return 包含生成链接、数据和哈希的CompletableFuture
+     */
+    public CompletableFuture<AuthLinkResult> generateAuthLink(UUID playerUUID, String action) {
+        return generateAuthLink(playerUUID, action, beginTrace(playerUUID, action));
+    }
+
+    /**
+     * 开始追踪一次链接生成请求
+     * 追踪的关联ID即为之后写入数据库的记录UUID
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @return 追踪记录
+     */
+    public RequestTrace beginTrace(UUID playerUUID, String action) {
+        return tracer.begin(playerUUID, action);
+    }
+
+    /**
+     * 按玩家UUID生成验证链接（不要求玩家在线）
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @param trace      由 {@link #beginTrace(UUID, String)} 创建的追踪，调用后由本方法负责结束
+     * @return 包含生成链接、数据和哈希的CompletableFuture
+     */
+    public CompletableFuture<AuthLinkResult> generateAuthLink(UUID playerUUID, String action, RequestTrace trace) {
+        return generateAuthLink(playerUUID, action, false, trace);
+    }
+
+    /**
+     * 按玩家UUID生成验证链接
+     * 启用幂等模式时，如果玩家该操作已有未过期的链接则直接返回该链接，不再写入数据库；
+     * forceNew为true时总是生成新链接，并在同一事务中作废玩家该操作之前未使用的记录
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @param forceNew   是否强制生成新链接
+     * @param trace      由 {@link #beginTrace(UUID, String)} 创建的追踪，调用后由本方法负责结束
+     * @return 包含生成链接、数据和哈希的CompletableFuture
+     */
+    public CompletableFuture<AuthLinkResult> generateAuthLink(UUID playerUUID, String action, boolean forceNew, RequestTrace trace) {
+        // 检查RSA密钥是否已加载
+        if (!rsaEncryptor.isKeysLoaded()) {
+            tracer.finish(trace, false);
+            return CompletableFuture.completedFuture(keysNotLoadedResult());
+        }
+        if (linkSigner == null) {
+            tracer.finish(trace, false);
+            return CompletableFuture.completedFuture(signerNotConfiguredResult());
+        }
+
+        // 本次请求始终使用同一份操作配置，不受期间重载影响
+        LinkAction linkAction = actionRegistry.get(action);
+        if (linkAction == null) {
+            tracer.finish(trace, false);
+            return CompletableFuture.completedFuture(invalidActionResult());
+        }
+
+        // 幂等模式：直接复用已有的有效链接（不受冷却限制，也不产生数据库写入）
+        if (idempotentLinks && !forceNew) {
+            ActiveLinkIndex.ActiveLink existing = activeLinkIndex.get(playerUUID, action);
+            if (existing != null) {
+                activeLinkStats.hit();
+                auditJournal.record(AuditEventType.REUSED, playerUUID, existing.getRecordUUID(), action);
+                tracer.finish(trace, true);
+                return CompletableFuture.completedFuture(AuthLinkResult.reused(existing));
+            }
+            activeLinkStats.miss();
+        }
+
+        // 使用内存缓存检查冷却时间（同步操作，更快速）
+        long requestStart = System.nanoTime();
+        LinkStageEvent cooldownEvent = LinkStageEvent.start();
+        boolean inCooldown = cooldownManager.isInCooldown(playerUUID, action);
+        recordStage(trace, LinkStage.COOLDOWN, requestStart, System.nanoTime());
+        cooldownEvent.finish(LinkStage.COOLDOWN, playerUUID, action, trace.getCorrelationId(), inCooldown ? "cooldown" : "ok");
+
+        if (inCooldown) {
+            cooldownCacheStats.hit();
+            auditJournal.record(AuditEventType.COOLDOWN_REJECTED, playerUUID, null, action);
+            tracer.finish(trace, false);
+            return CompletableFuture.completedFuture(cooldownResult(playerUUID, action));
+        }
+
+        // 不在冷却中，生成新链接
+        cooldownCacheStats.miss();
+
+        // 优先使用进服时预生成的材料
+        PregeneratedLinkCache.PreparedLink prepared = takePregenerated(playerUUID, linkAction, trace);
+        if (prepared != null && statelessLinks) {
+            // 无状态模式不写入数据库，预生成的链接可以直接发放
+            AuthLinkResult result = prepared.getResult();
+            onLinkWritten(playerUUID, linkAction, result, prepared.getExpiresAtMillis());
+            totalLatency.recordSince(requestStart);
+            tracer.finish(trace, true);
+            return CompletableFuture.completedFuture(result);
+        }
+
+        // 记录UUID即追踪的关联ID；过期时间只计算一次，保证哈希数据、加密数据和数据库记录一致
+        String recordUUID = prepared != null ? prepared.getResult().getRecordUUID() : trace.getCorrelationId();
+        long expiresAt = prepared != null ? prepared.getExpiresAtMillis()
+                : System.currentTimeMillis() + (linkAction.getExpiredTime() * 1000L);
+
+        // 超时放弃的写入仍在数据库线程中运行，并会把获取连接和执行的耗时写入追踪
+        AtomicReference<CompletableFuture<Boolean>> abandonedWrite = new AtomicReference<>();
+
+        // 生成令牌和加密数据在公共线程池中完成，数据库写入在数据库线程池中完成，
+        // 两者之间不阻塞等待，数据库变慢时不会占住公共线程池
+        return CompletableFuture.supplyAsync(() -> prepared != null
+                ? prepared.getResult()
+                : prepareLink(linkAction, playerUUID, recordUUID, expiresAt, trace)
+        ).thenCompose(result -> {
+            if (statelessLinks) {
+                // 无状态模式不写入数据库，核销时才持久化
+                return CompletableFuture.completedFuture(result);
+            }
+            long dbStart = System.nanoTime();
+            LinkStageEvent dbEvent = LinkStageEvent.start();
+            // 写入数据库（强制生成新链接时同时作废旧记录），超过请求超时仍未完成时按数据库错误返回；
+            // 超时只完成副本，原始future在写入真正结束时才完成
+            CompletableFuture<Boolean> write = forceNew
+                    ? authRecordManager.replaceAuthRecordAsync(playerUUID, action, result.getToken(), recordUUID, expiresAt, trace)
+                    : authRecordManager.writeAuthRecordAsync(playerUUID, action, result.getToken(), recordUUID, expiresAt, trace);
+            return write.copy().completeOnTimeout(null, requestTimeoutMillis, TimeUnit.MILLISECONDS).thenApply(success -> {
+                recordStage(trace, LinkStage.DB_WRITE, dbStart, System.nanoTime());
+                dbEvent.finish(LinkStage.DB_WRITE, playerUUID, action, recordUUID,
+                        success == null ? "timeout" : success ? "ok" : "error");
+                if (success == null) {
+                    requestTimeouts.increment();
+                    platform.getLogger().warning("数据库写入 " + requestTimeoutMillis + "ms 内未完成，放弃本次生成请求 " + recordUUID);
+                    abandonedWrite.set(write);
+                    discardLateWrite(write, List.of(recordUUID));
+                    return null;
+                }
+                return success ? result : null;
+            });
+        }).thenApply(result -> {
+            if (result == null) {
+                return databaseErrorResult();
+            }
+            onLinkWritten(playerUUID, linkAction, result, expiresAt);
+            totalLatency.recordSince(requestStart);
+            if (firstRequestLogged.compareAndSet(false, true)) {
+                platform.getLogger().info("启动后首次生成链接耗时 " + (System.nanoTime() - requestStart) / 1000 + "μs");
+            }
+            return result;
+        }).exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            platform.getLogger().log(Level.SEVERE, "生成认证链接时出错", cause);
+            return generalErrorResult(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+        }).whenComplete((result, ex) -> {
+            CompletableFuture<Boolean> write = abandonedWrite.get();
+            if (write == null) {
+                tracer.finish(trace, result != null && result.isSuccess());
+            } else {
+                // 写入结束后才释放追踪槽位，否则槽位可能已分配给其他请求，迟到的数据库耗时会写进那个请求的追踪
+                write.whenComplete((written, writeEx) -> tracer.finish(trace, false));
+            }
+        });
+    }
+
+    /**
+     * 为多个玩家批量生成同一操作的验证链接
+     * 冷却检查在调用线程完成，之后所有链接在一个异步任务中依次生成令牌、哈希和加密数据，
+     * 最后通过一次多行INSERT写入数据库，而不是为每个玩家各走一遍完整流程；
+     * 写入超过请求超时仍未完成时全部按数据库错误返回
+     *
+     * @param playerUUIDs 玩家UUID集合（重复的UUID只生成一次）
+     * @param action      操作类型
+     * @return 玩家UUID到生成结果的映射（保持传入顺序）
+     */
+    public CompletableFuture<Map<UUID, AuthLinkResult>> generateBatch(Collection<UUID> playerUUIDs, String action) {
+        Map<UUID, AuthLinkResult> results = new LinkedHashMap<>();
+        Collection<UUID> uniquePlayers = new LinkedHashSet<>(playerUUIDs);
+
+        LinkAction linkAction = actionRegistry.get(action);
+        if (!rsaEncryptor.isKeysLoaded() || linkSigner == null || linkAction == null) {
+            AuthLinkResult failure = linkAction == null ? invalidActionResult()
+                    : linkSigner == null ? signerNotConfiguredResult() : keysNotLoadedResult();
+            for (UUID playerUUID : uniquePlayers) {
+                results.put(playerUUID, failure);
+            }
+            return CompletableFuture.completedFuture(results);
+        }
+
+        long requestStart = System.nanoTime();
+        List<UUID> pending = new ArrayList<>(uniquePlayers.size());
+        for (UUID playerUUID : uniquePlayers) {
+            if (idempotentLinks) {
+                ActiveLinkIndex.ActiveLink existing = activeLinkIndex.get(playerUUID, action);
+                if (existing != null) {
+                    activeLinkStats.hit();
+                    auditJournal.record(AuditEventType.REUSED, playerUUID, existing.getRecordUUID(), action);
+                    results.put(playerUUID, AuthLinkResult.reused(existing));
+                    continue;
+                }
+                activeLinkStats.miss();
+            }
+            if (cooldownManager.isInCooldown(playerUUID, action)) {
+                cooldownCacheStats.hit();
+                auditJournal.record(AuditEventType.COOLDOWN_REJECTED, playerUUID, null, action);
+                results.put(playerUUID, cooldownResult(playerUUID, action));
+                continue;
+            }
+            cooldownCacheStats.miss();
+            pending.add(playerUUID);
+        }
+
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        // 与单个生成相同：令牌和加密数据在公共线程池中生成，批量写入在数据库线程池中完成，两者之间不阻塞等待
+        long expiresAt = System.currentTimeMillis() + (linkAction.getExpiredTime() * 1000L);
+        return CompletableFuture.supplyAsync(() -> {
+            List<AuthLinkResult> prepared = new ArrayList<>(pending.size());
+            for (UUID playerUUID : pending) {
+                prepared.add(prepareLink(linkAction, playerUUID, UUID.randomUUID().toString(), expiresAt, null));
+            }
+            return prepared;
+        }).thenCompose(prepared -> {
+            if (statelessLinks) {
+                return CompletableFuture.completedFuture(prepared);
+            }
+            List<AuthRecord> records = new ArrayList<>(prepared.size());
+            for (int i = 0; i < prepared.size(); i++) {
+                AuthLinkResult result = prepared.get(i);
+                records.add(new AuthRecord(result.getRecordUUID(), pending.get(i), action, result.getToken(), expiresAt));
+            }
+            long dbStart = System.nanoTime();
+            CompletableFuture<Boolean> write = authRecordManager.writeAuthRecordsBatchAsync(records);
+            return write.copy().completeOnTimeout(null, requestTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .thenApply(success -> {
+                        batchDbWriteLatency.recordSince(dbStart);
+                        if (success == null) {
+                            requestTimeouts.increment();
+                            platform.getLogger().warning("批量写入 " + records.size() + " 条记录在 " + requestTimeoutMillis +
+                                    "ms 内未完成，放弃本次批量生成");
+                            List<String> recordUUIDs = new ArrayList<>(records.size());
+                            for (AuthRecord record : records) {
+                                recordUUIDs.add(record.getRecordUUID());
+                            }
+                            discardLateWrite(write, recordUUIDs);
+                            return null;
+                        }
+                        return success ? prepared : null;
+                    });
+        }).thenApply(prepared -> {
+            for (int i = 0; i < pending.size(); i++) {
+                UUID playerUUID = pending.get(i);
+                if (prepared != null) {
+                    AuthLinkResult result = prepared.get(i);
+                    onLinkWritten(playerUUID, linkAction, result, expiresAt);
+                    results.put(playerUUID, result);
+                } else {
+                    results.put(playerUUID, databaseErrorResult());
+                }
+            }
+            return results;
+        }).exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            platform.getLogger().log(Level.SEVERE, "批量生成认证链接时出错", cause);
+            Exception error = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+            for (UUID playerUUID : pending) {
+                results.put(playerUUID, generalErrorResult(error));
+            }
+            return results;
+        }).whenComplete((result, ex) -> batchLatency.recordSince(requestStart));
+    }
+
+    /**
+     * 超时放弃的写入之后仍可能提交成功，此时玩家已收到失败提示且未记录冷却，删除这些记录，
+     * 不留下玩家从未拿到却仍然有效的链接
+     *
+     * @param write       被放弃的写入（completeOnTimeout 之前的原始future）
+     * @param recordUUIDs 该写入的记录UUID
+     */
+    private void discardLateWrite(CompletableFuture<Boolean> write, List<String> recordUUIDs) {
+        write.thenAccept(written -> {
+            if (Boolean.TRUE.equals(written)) {
+                lateWritesDiscarded.add(recordUUIDs.size());
+                authRecordManager.deleteRecordsAsync(recordUUIDs).thenAccept(deleted -> {
+                    if (deleted < recordUUIDs.size()) {
+                        platform.getLogger().warning("超时后写入的 " + recordUUIDs.size() + " 条记录只删除了 " + deleted + " 条");
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 生成令牌、哈希和加密数据，返回尚未写入数据库的结果
+     *
+     * @param trace 请求追踪，批量生成时为null
+     */
+    private AuthLinkResult prepareLink(LinkAction linkAction, UUID playerUUID, String recordUUID, long expiresAt, RequestTrace trace) {
+        long stageStart = System.nanoTime();
+        LinkStageEvent stageEvent = LinkStageEvent.start();
+        String token = generateToken();
+        long tokenEnd = System.nanoTime();
+        recordStage(trace, LinkStage.TOKEN, stageStart, tokenEnd);
+        stageEvent.finish(LinkStage.TOKEN, playerUUID, linkAction.getName(), recordUUID, "ok");
+        stageEvent = LinkStageEvent.start();
+
+        // 哈希和RSA加密使用同一份JSON数据，无状态模式下令牌也封装在其中
+        byte[] actionData = linkAction.encodeData(recordUUID, playerUUID, expiresAt, statelessLinks ? token : null);
+        String plainBase64 = Base64.getEncoder().encodeToString(actionData); // 用于哈希计算的Base64编码
+        String hash = generateHash(plainBase64, token);
+        long hashEnd = System.nanoTime();
+        recordStage(trace, LinkStage.HASH, tokenEnd, hashEnd);
+        stageEvent.finish(LinkStage.HASH, playerUUID, linkAction.getName(), recordUUID, "ok");
+        stageEvent = LinkStageEvent.start();
+
+        // RSA加密的数据，混淆模式下使用当前周期的编码表
+        String encryptedData = dataEncoder != null
+                ? dataEncoder.encode(rsaEncryptor.encryptBytes(actionData))
+                : rsaEncryptor.encrypt(actionData);
+        recordStage(trace, LinkStage.RSA, hashEnd, System.nanoTime());
+        stageEvent.finish(LinkStage.RSA, playerUUID, linkAction.getName(), recordUUID, "ok");
+
+        AuthLinkResult result = new AuthLinkResult();
+        result.setData(encryptedData);
+        result.setToken(token);
+        result.setHash(hash);
+        result.setRecordUUID(recordUUID);
+        // 按操作的端点模板生成链接（不包含token，token在服务器端查询）
+        result.setLink(linkAction.buildLink(encryptedData, hash));
+        return result;
+    }
+
+    /**
+     * 为玩家预生成链接材料（在后台线程中调用）
+     * 只准备记录UUID、令牌、加密数据和哈希，不写入数据库也不记录冷却时间；
+     * 玩家该操作在冷却中、已有可复用的链接或已有预生成材料时跳过
+     *
+     * @param playerUUID 玩家UUID
+     * @param action     操作类型
+     * @return 是否生成了新的材料
+     */
+    public boolean pregenerate(UUID playerUUID, String action) {
+        LinkAction linkAction = actionRegistry.get(action);
+        if (!pregenerationEnabled || !rsaEncryptor.isKeysLoaded() || linkSigner == null || linkAction == null
+                || pregeneratedLinks.contains(playerUUID, action)
+                || cooldownManager.isInCooldown(playerUUID, action)
+                || (idempotentLinks && activeLinkIndex.get(playerUUID, action) != null)) {
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        long expiresAt = System.currentTimeMillis() + (linkAction.getExpiredTime() * 1000L);
+        AuthLinkResult result = prepareLink(linkAction, playerUUID, UUID.randomUUID().toString(), expiresAt, null);
+        pregeneratedLinks.put(playerUUID, new PregeneratedLinkCache.PreparedLink(linkAction, result, expiresAt,
+                System.currentTimeMillis(), System.nanoTime() - startNanos));
+        return true;
+    }
+
+    /**
+     * 丢弃玩家未使用的预生成材料（玩家退出时调用）
+     */
+    public void discardPregenerated(UUID playerUUID) {
+        pregeneratedLinks.removePlayer(playerUUID);
+    }
+
+    /**
+     * 取出玩家该操作的预生成材料，命中时追踪的关联ID改为材料中的记录UUID
+     *
+     * @return 未启用预生成或没有可用材料时返回null
+     */
+    private PregeneratedLinkCache.PreparedLink takePregenerated(UUID playerUUID, LinkAction linkAction, RequestTrace trace) {
+        if (!pregenerationEnabled) {
+            return null;
+        }
+        PregeneratedLinkCache.PreparedLink prepared = pregeneratedLinks.take(playerUUID, linkAction);
+        if (prepared == null) {
+            pregeneratedStats.miss();
+            return null;
+        }
+        pregeneratedStats.hit();
+        pregenerationSavedLatency.record(prepared.getPrepareNanos());
+        trace.setCorrelationId(prepared.getResult().getRecordUUID());
+        return prepared;
+    }
+
+    /**
+     * 预热链接生成的计算路径：令牌、JSON编码、哈希、RSA加密和链接拼接，以及少量RSA解密
+     * 触发类加载、加密提供者初始化和JIT编译；不写入数据库，不记录冷却时间，也不计入指标
+     *
+     * @param iterations 加密路径的迭代次数
+     */
+    public void warmUp(int iterations) {
+        List<LinkAction> actions = new ArrayList<>(actionRegistry.getActions());
+        if (iterations <= 0 || !rsaEncryptor.isKeysLoaded() || linkSigner == null || actions.isEmpty()) {
+            return;
+        }
+
+        UUID playerUUID = UUID.randomUUID();
+        long expiresAt = System.currentTimeMillis();
+        byte[] encrypted = null;
+        long totalLength = 0;
+        for (int i = 0; i < iterations; i++) {
+            LinkAction linkAction = actions.get(i % actions.size());
+            String token = generateToken();
+            byte[] actionData = linkAction.encodeData(UUID.randomUUID().toString(), playerUUID, expiresAt, statelessLinks ? token : null);
+            String hash = generateHash(Base64.getEncoder().encodeToString(actionData), token);
+            encrypted = rsaEncryptor.encryptBytes(actionData);
+            String encryptedData = dataEncoder != null ? dataEncoder.encode(encrypted) : Base64.getEncoder().encodeToString(encrypted);
+            totalLength += linkAction.buildLink(encryptedData, hash).length();
+        }
+
+        // RSA解密开销大，只做少量次数（无状态链接核销时使用）
+        for (int i = 0, decrypts = Math.max(1, iterations / 100); i < decrypts; i++) {
+            totalLength += rsaEncryptor.tryDecryptBytes(encrypted).length;
+        }
+        if (totalLength == 0) {
+            platform.getLogger().warning("链接生成预热结果异常");
+        }
+    }
+
+    /**
+     * 记录写入数据库成功后：记录冷却时间、写入审计日志并加入有效链接索引
+     */
+    private void onLinkWritten(UUID playerUUID, LinkAction linkAction, AuthLinkResult result, long expiresAt) {
+        String action = linkAction.getName();
+        cooldownManager.recordAction(playerUUID, action, linkAction.getCooldown());
+        result.setSuccess(true);
+        auditJournal.record(AuditEventType.GENERATED, playerUUID, result.getRecordUUID(), action);
+
+        if (idempotentLinks) {
+            activeLinkIndex.put(playerUUID, action, new ActiveLinkIndex.ActiveLink(result.getRecordUUID(),
+                    result.getToken(), result.getData(), result.getHash(), result.getLink(), expiresAt));
+        }
+    }
+
+    private AuthLinkResult keysNotLoadedResult() {
+        return AuthLinkResult.failure(platform.getConfig().getString("messages.error.keys_not_loaded", "RSA密钥未加载，请先生成密钥对"));
+    }
+
+    private AuthLinkResult signerNotConfiguredResult() {
+        return AuthLinkResult.failure(platform.getConfig().getString("messages.error.signer_not_configured",
+                "<red>链接签名配置错误，暂时无法生成链接，请联系管理员</red>"));
+    }
+
+    private AuthLinkResult invalidActionResult() {
+        String message = platform.getConfig().getString("messages.error.invalid_action", "<red>无效的操作类型。支持的操作：<yellow>{actions}</yellow></red>");
+        return AuthLinkResult.failure(message.replace("{actions}", actionRegistry.describe()));
+    }
+
+    private AuthLinkResult cooldownResult(UUID playerUUID, String action) {
+        // 获取剩余冷却时间并显示给玩家
+        int remainingSeconds = cooldownManager.getRemainingCooldown(playerUUID, action);
+        String cooldownMsg = platform.getConfig().getString("messages.error.cooldown", "操作太频繁，请等待 {cooldown} 秒后再试");
+        AuthLinkResult result = AuthLinkResult.failure(cooldownMsg.replace("{cooldown}", String.valueOf(remainingSeconds)));
+        result.setRemainingCooldown(remainingSeconds);
+        return result;
+    }
+
+    private AuthLinkResult databaseErrorResult() {
+        return AuthLinkResult.failure(platform.getConfig().getString("messages.error.database_error", "生成链接时出错: 数据库写入失败"));
+    }
+
+    private AuthLinkResult generalErrorResult(Exception ex) {
+        String generalErrorMsg = platform.getConfig().getString("messages.error.general_error", "生成链接时出错: {error}");
+        return AuthLinkResult.failure(generalErrorMsg.replace("{error}", String.valueOf(ex.getMessage())));
+    }
+
+    /**
+     * 获取链接签名器，签名配置无效时为null
+     */
+    public LinkSigner getLinkSigner() {
+        return linkSigner;
+    }
+
+    /**
+     * 获取链接数据的混淆编码器
+     *
+     * @return 使用标准Base64时为null
+     */
+    public ObfuscatedBase64 getDataEncoder() {
+        return dataEncoder;
+    }
+
+    /**
+     * 是否为无状态模式
+     */
+    public boolean isStatelessLinks() {
+        return statelessLinks;
+    }
+
+    /**
+     * 获取链接操作注册表
+     */
+    public ActionRegistry getActionRegistry() {
+        return actionRegistry;
+    }
+
+    /**
+     * 获取预生成材料缓存
+     */
+    public PregeneratedLinkCache getPregeneratedLinks() {
+        return pregeneratedLinks;
+    }
+
+    /**
+     * 获取玩家有效链接索引
+     */
+    public ActiveLinkIndex getActiveLinkIndex() {
+        return activeLinkIndex;
+    }
+
+    /**
+     * 同时记录阶段耗时到指标和追踪中
+     */
+    private void recordStage(RequestTrace trace, LinkStage stage, long startNanos, long endNanos) {
+        metrics.recordStage(stage, endNanos - startNanos);
+        if (trace != null) {
+            trace.recordStage(stage, startNanos, endNanos);
+        }
+    }
+
+    /**
+     * 生成随机token
+     *
+     * @return 随机token字符串
+     */
+    private String generateToken() {
+        return tokenGenerator.nextToken(tokenLength);
+    }
+
+    /**
+     * 根据配置的签名模式生成哈希值
+     * sha256模式保持原有的base64 + token + salt逻辑，hmac-sha256模式以salt为密钥
+     *
+     * @param encodedData Base64编码后的数据
+     * @param token       随机生成的token
+     * @return 十六进制哈希字符串
+     */
+    private String generateHash(String encodedData, String token) {
+        return linkSigner.sign(encodedData, token);
+    }
+
+    /**
+     * 认证链接结果类
+     */
+    public static class AuthLinkResult {
+        private boolean success;
+        private String link;
+        private String data;
+        private String token;
+        private String hash;
+        private String recordUUID;
+        private String errorMessage;
+        private int remainingCooldown;
+        private boolean reused;
+
+        /**
+         * 构造失败结果
+         */
+        static AuthLinkResult failure(String errorMessage) {
+            AuthLinkResult result = new AuthLinkResult();
+            result.setSuccess(false);
+            result.setErrorMessage(errorMessage);
+            return result;
+        }
+
+        /**
+         * 由已有的有效链接构造结果
+         */
+        static AuthLinkResult reused(ActiveLinkIndex.ActiveLink link) {
+            AuthLinkResult result = new AuthLinkResult();
+            result.setSuccess(true);
+            result.setReused(true);
+            result.setLink(link.getLink());
+            result.setData(link.getData());
+            result.setToken(link.getToken());
+            result.setHash(link.getHash());
+            result.setRecordUUID(link.getRecordUUID());
+            return result;
+        }
+
+        // Getters and Setters
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+        public String getLink() { return link; }
+        public void setLink(String link) { this.link = link; }
+        public String getData() { return data; }
+        public void setData(String data) { this.data = data; }
+        public String getToken() { return token; }
+        public void setToken(String token) { this.token = token; }
+        public String getHash() { return hash; }
+        public void setHash(String hash) { this.hash = hash; }
+        public String getRecordUUID() { return recordUUID; }
+        public void setRecordUUID(String recordUUID) { this.recordUUID = recordUUID; }
+        public String getErrorMessage() { return errorMessage; }
+        public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+        public int getRemainingCooldown() { return remainingCooldown; }
+        public void setRemainingCooldown(int remainingCooldown) { this.remainingCooldown = remainingCooldown; }
+        public boolean isReused() { return reused; }
+        public void setReused(boolean reused) { this.reused = reused; }
+    }
+}
@@ -0,0 +1,77 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.api.AuthLinkerService;
+import com.miaomc.authLinker.api.ConsumedLink;
+import com.miaomc.authLinker.api.HistoryEntry;
+import com.miaomc.authLinker.api.HistoryPage;
+import com.miaomc.authLinker.audit.AuditEventType;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.api.LinkStatus;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.database.HistoryCursor;
+import com.miaomc.authLinker.service.AuthLinkGenerator.AuthLinkResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AuthLinkerService} 的实现，注册到 Bukkit 的 ServicesManager 供其他插件调用
+ */
+public class AuthLinkerServiceImpl implements AuthLinkerService {
+    private final AuthLinkGenerator linkGenerator;
+    private final AuthRecordManager authRecordManager;
+    private final StatelessLinkVerifier statelessLinkVerifier;
+    private final AuditJournal auditJournal;
+
+    public AuthLinkerServiceImpl(AuthLinkGenerator linkGenerator, AuthRecordManager authRecordManager, StatelessLinkVerifier statelessLinkVerifier,
+                                 AuditJournal auditJournal) {
+        this.linkGenerator = linkGenerator;
+        this.authRecordManager = authRecordManager;
+        this.statelessLinkVerifier = statelessLinkVerifier;
+        this.auditJournal = auditJournal;
+    }
+
+    @Override
+    public CompletableFuture<AuthLinkResult> generate(UUID playerUUID, String action) {
+        return linkGenerator.generateAuthLink(playerUUID, action, linkGenerator.beginTrace(playerUUID, action));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, AuthLinkResult>> generateBatch(Collection<UUID> playerUUIDs, String action) {
+        return linkGenerator.generateBatch(playerUUIDs, action);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> consume(String recordUUID, String token) {
+        return authRecordManager.consumeRecordAsync(recordUUID, token).thenApply(consumed -> {
+            if (consumed) {
+                // 已使用的链接不能再被幂等复用
+                linkGenerator.getActiveLinkIndex().removeRecord(recordUUID);
+                // 按记录UUID核销时不知道玩家和操作，可通过记录UUID与生成事件关联
+                auditJournal.record(AuditEventType.CONSUMED, null, recordUUID, null);
+            }
+            return consumed;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ConsumedLink> consumeSigned(String data, String hash) {
+        return statelessLinkVerifier.consume(data, hash);
+    }
+
+    @Override
+    public CompletableFuture<LinkStatus> status(String recordUUID) {
+        return authRecordManager.getRecordStatusAsync(recordUUID);
+    }
+
+    @Override
+    public CompletableFuture<HistoryPage> history(UUID playerUUID, String cursor, int limit) {
+        List<HistoryEntry> entries = new ArrayList<>(limit);
+        return authRecordManager.streamHistoryAsync(playerUUID, HistoryCursor.parse(cursor), limit, entries::add)
+                .thenApply(next -> new HistoryPage(entries, next == null ? null : next.toString()));
+    }
+}
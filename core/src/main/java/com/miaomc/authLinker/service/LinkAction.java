@@ -0,0 +1,146 @@
+package com.miaomc.authLinker.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 一种链接操作的配置
+ * 链接数据JSON中与记录无关的部分和验证端点模板在加载配置时预先编译，
+ * 生成链接时只需按顺序拼接，不再做字符串替换
+ */
+public class LinkAction {
+    private static final byte[] JSON_PREFIX = "{\"uuid\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JSON_EXPIRES = "\",\"expires_time\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JSON_TOKEN = ",\"token\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte JSON_SUFFIX = '}';
+
+    private final String name;
+    private final String permission;
+    private final int expiredTime;
+    private final int cooldown;
+    // "\",\"action\":\"<name>\",\"player_uuid\":\""
+    private final byte[] jsonAction;
+    // 端点模板按占位符切分后的片段：literals[i] 之后紧跟 placeholders[i]（最后一段之后没有占位符）
+    private final String[] literals;
+    private final boolean[] placeholderIsData;
+    private final int literalLength;
+
+    /**
+     * @param name        操作名（只允许小写字母、数字、下划线和连字符）
+     * @param endpoint    验证端点模板，支持 {data} 和 {hash} 占位符
+     * @param expiredTime 链接过期时间（秒）
+     * @param cooldown    冷却时间（秒）
+     * @param permission  使用 /al gen 生成该操作链接所需的权限
+     */
+    public LinkAction(String name, String endpoint, int expiredTime, int cooldown, String permission) {
+        this.name = name;
+        this.permission = permission;
+        this.expiredTime = expiredTime;
+        this.cooldown = cooldown;
+        this.jsonAction = ("\",\"action\":\"" + name + "\",\"player_uuid\":\"").getBytes(StandardCharsets.UTF_8);
+
+        List<String> literalList = new ArrayList<>();
+        List<Boolean> placeholderList = new ArrayList<>();
+        int from = 0;
+        int length = 0;
+        while (true) {
+            int dataIndex = endpoint.indexOf("{data}", from);
+            int hashIndex = endpoint.indexOf("{hash}", from);
+            if (dataIndex < 0 && hashIndex < 0) {
+                break;
+            }
+            boolean isData = hashIndex < 0 || (dataIndex >= 0 && dataIndex < hashIndex);
+            int index = isData ? dataIndex : hashIndex;
+            literalList.add(endpoint.substring(from, index));
+            placeholderList.add(isData);
+            length += index - from;
+            from = index + 6;
+        }
+        literalList.add(endpoint.substring(from));
+        length += endpoint.length() - from;
+
+        this.literals = literalList.toArray(new String[0]);
+        this.placeholderIsData = new boolean[placeholderList.size()];
+        for (int i = 0; i < placeholderIsData.length; i++) {
+            placeholderIsData[i] = placeholderList.get(i);
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 构建链接数据JSON（UTF-8），字段顺序为 uuid, action, player_uuid, expires_time
+     */
+    public byte[] encodeData(String recordUUID, UUID playerUUID, long expiresTime) {
+        return encodeData(recordUUID, playerUUID, expiresTime, null);
+    }
+
+    /**
+     * 构建链接数据JSON（UTF-8），字段顺序为 uuid, action, player_uuid, expires_time[, token]
+     *
+     * @param token 无状态模式下封装进数据的令牌，为null时不包含该字段
+     */
+    public byte[] encodeData(String recordUUID, UUID playerUUID, long expiresTime, String token) {
+        String player = playerUUID.toString();
+        String expires = Long.toString(expiresTime);
+        int tokenLength = token == null ? 0 : JSON_TOKEN.length + token.length() + 1;
+        byte[] buffer = new byte[JSON_PREFIX.length + recordUUID.length() + jsonAction.length + player.length()
+                + JSON_EXPIRES.length + expires.length() + tokenLength + 1];
+        int offset = 0;
+        System.arraycopy(JSON_PREFIX, 0, buffer, offset, JSON_PREFIX.length);
+        offset += JSON_PREFIX.length;
+        offset = writeAscii(recordUUID, buffer, offset);
+        System.arraycopy(jsonAction, 0, buffer, offset, jsonAction.length);
+        offset += jsonAction.length;
+        offset = writeAscii(player, buffer, offset);
+        System.arraycopy(JSON_EXPIRES, 0, buffer, offset, JSON_EXPIRES.length);
+        offset += JSON_EXPIRES.length;
+        offset = writeAscii(expires, buffer, offset);
+        if (token != null) {
+            System.arraycopy(JSON_TOKEN, 0, buffer, offset, JSON_TOKEN.length);
+            offset += JSON_TOKEN.length;
+            offset = writeAscii(token, buffer, offset);
+            buffer[offset++] = '"';
+        }
+        buffer[offset] = JSON_SUFFIX;
+        return buffer;
+    }
+
+    /**
+     * 无状态模式下链接数据的最大长度（字节），过期时间按13位毫秒时间戳计算
+     *
+     * @param tokenLength 令牌长度
+     */
+    public int maxStatelessDataLength(int tokenLength) {
+        int uuidLength = 36;
+        return JSON_PREFIX.length + uuidLength + jsonAction.length + uuidLength + JSON_EXPIRES.length + 13
+                + JSON_TOKEN.length + tokenLength + 2;
+    }
+
+    /**
+     * 按预编译的端点模板生成链接
+     */
+    public String buildLink(String data, String hash) {
+        StringBuilder link = new StringBuilder(literalLength + placeholderIsData.length * Math.max(data.length(), hash.length()));
+        for (int i = 0; i < placeholderIsData.length; i++) {
+            link.append(literals[i]).append(placeholderIsData[i] ? data : hash);
+        }
+        return link.append(literals[literals.length - 1]).toString();
+    }
+
+    /**
+     * UUID和数字只包含ASCII字符，直接按字节写入
+     */
+    private static int writeAscii(String value, byte[] buffer, int offset) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer[offset++] = (byte) value.charAt(i);
+        }
+        return offset;
+    }
+
+    public String getName() { return name; }
+    public String getPermission() { return permission; }
+    public int getExpiredTime() { return expiredTime; }
+    public int getCooldown() { return cooldown; }
+}
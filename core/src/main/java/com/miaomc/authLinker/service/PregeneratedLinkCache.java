@@ -0,0 +1,128 @@
+package com.miaomc.authLinker.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预生成的链接材料
+ * 玩家进服时按 玩家+操作 预先准备好记录UUID、令牌、加密数据和哈希，但尚未写入数据库，也不记录冷却时间；
+ * 玩家执行 /al gen 时取出直接提交，省去生成令牌、哈希和RSA加密的耗时。每个 玩家+操作 只保留一份，
+ * 超过最长保留时间或操作配置已重载的材料不再使用。
+ * 链接有效期从准备时开始计算，最长保留时间按操作截断为其有效期的 {@value #MAX_AGE_PERCENT}%，
+ * 取出的链接剩余有效期至少为操作有效期减去该时间
+ */
+public class PregeneratedLinkCache {
+    /**
+     * 材料最长保留时间占操作链接有效期的最大比例（百分比）
+     */
+    public static final int MAX_AGE_PERCENT = 20;
+
+    private final Map<String, PreparedLink> slots = new ConcurrentHashMap<>();
+    private final long maxAgeMillis;
+
+    public PregeneratedLinkCache(int maxAgeSeconds) {
+        this.maxAgeMillis = maxAgeSeconds * 1000L;
+    }
+
+    private static String key(UUID playerUUID, String action) {
+        return playerUUID.toString() + ":" + action;
+    }
+
+    /**
+     * 获取操作的材料最长保留时间：max_age_seconds 与操作有效期的 {@value #MAX_AGE_PERCENT}% 中较小者
+     */
+    public long maxAgeMillis(LinkAction linkAction) {
+        return Math.min(maxAgeMillis, linkAction.getExpiredTime() * 1000L * MAX_AGE_PERCENT / 100);
+    }
+
+    /**
+     * 放入预生成的材料（会覆盖该玩家该操作之前的材料）
+     */
+    public void put(UUID playerUUID, PreparedLink link) {
+        slots.put(key(playerUUID, link.getLinkAction().getName()), link);
+    }
+
+    /**
+     * 取出并移除玩家该操作的材料
+     *
+     * @param linkAction 当前的操作配置，与准备时不是同一份配置时丢弃材料
+     * @return 可以使用的材料，不存在、已超过最长保留时间、剩余有效期不足或配置已变化时返回null
+     */
+    public PreparedLink take(UUID playerUUID, LinkAction linkAction) {
+        PreparedLink link = slots.remove(key(playerUUID, linkAction.getName()));
+        if (link == null || link.getLinkAction() != linkAction) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long maxAge = maxAgeMillis(linkAction);
+        if (now - link.getPreparedAtMillis() > maxAge
+                || link.getExpiresAtMillis() - now < linkAction.getExpiredTime() * 1000L - maxAge) {
+            return null;
+        }
+        return link;
+    }
+
+    /**
+     * 是否已有玩家该操作的材料
+     */
+    public boolean contains(UUID playerUUID, String action) {
+        return slots.containsKey(key(playerUUID, action));
+    }
+
+    /**
+     * 丢弃玩家的全部材料（玩家退出时调用）
+     */
+    public void removePlayer(UUID playerUUID) {
+        String prefix = playerUUID.toString() + ":";
+        slots.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 清理超过最长保留时间的材料
+     */
+    public void cleanupExpired() {
+        long now = System.currentTimeMillis();
+        slots.values().removeIf(link -> now - link.getPreparedAtMillis() > maxAgeMillis(link.getLinkAction()));
+    }
+
+    /**
+     * 获取缓存中的材料数量（用于监控）
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * 一份预生成的链接材料
+     */
+    public static class PreparedLink {
+        private final LinkAction linkAction;
+        private final AuthLinkGenerator.AuthLinkResult result;
+        private final long expiresAtMillis;
+        private final long preparedAtMillis;
+        private final long prepareNanos;
+
+        /**
+         * @param linkAction       准备时使用的操作配置
+         * @param result           尚未写入数据库的生成结果
+         * @param expiresAtMillis  封装在链接数据中的过期时间
+         * @param preparedAtMillis 准备完成的时间
+         * @param prepareNanos     准备耗时，命中时即为节省的耗时
+         */
+        public PreparedLink(LinkAction linkAction, AuthLinkGenerator.AuthLinkResult result, long expiresAtMillis,
+                            long preparedAtMillis, long prepareNanos) {
+            this.linkAction = linkAction;
+            this.result = result;
+            this.expiresAtMillis = expiresAtMillis;
+            this.preparedAtMillis = preparedAtMillis;
+            this.prepareNanos = prepareNanos;
+        }
+
+        public LinkAction getLinkAction() { return linkAction; }
+        public AuthLinkGenerator.AuthLinkResult getResult() { return result; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+        public long getPreparedAtMillis() { return preparedAtMillis; }
+        public long getPrepareNanos() { return prepareNanos; }
+    }
+}
@@ -0,0 +1,46 @@
+package com.miaomc.authLinker.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 无状态链接的重放缓存
+ * 记录已核销的记录UUID直到链接过期，过期的链接本身已无法通过校验，无需继续记录。
+ * 缓存只是快速路径：重启后缓存为空，重复核销仍会被数据库主键拒绝
+ */
+public class ReplayCache {
+    private final Map<String, Long> consumed = new ConcurrentHashMap<>();
+
+    /**
+     * 标记记录为已核销
+     *
+     * @param recordUUID      记录UUID
+     * @param expiresAtMillis 链接过期时间戳（毫秒）
+     * @return 首次标记返回true，已被核销过返回false
+     */
+    public boolean markConsumed(String recordUUID, long expiresAtMillis) {
+        return consumed.putIfAbsent(recordUUID, expiresAtMillis) == null;
+    }
+
+    /**
+     * 撤销标记（核销未能持久化时调用，允许重试）
+     */
+    public void forget(String recordUUID) {
+        consumed.remove(recordUUID);
+    }
+
+    /**
+     * 清理已过期的记录
+     */
+    public void cleanupExpired() {
+        long now = System.currentTimeMillis();
+        consumed.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    /**
+     * 获取缓存的记录数量（用于监控）
+     */
+    public int size() {
+        return consumed.size();
+    }
+}
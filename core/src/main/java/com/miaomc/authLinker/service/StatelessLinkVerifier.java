@@ -0,0 +1,180 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.api.ConsumeStatus;
+import com.miaomc.authLinker.api.ConsumedLink;
+import com.miaomc.authLinker.audit.AuditEventType;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.database.AuthRecord;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.utils.LinkSigner;
+import com.miaomc.authLinker.utils.ObfuscatedBase64;
+import com.miaomc.authLinker.utils.RSAEncryptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无状态链接校验
+ * 无状态模式下令牌和过期时间封装在RSA加密的链接数据中，并由哈希签名保护，发放时不写入数据库。
+ * 校验时解密数据、验证签名和过期时间，再通过重放缓存和数据库主键保证同一链接只能核销一次，
+ * 只有核销会写入数据库。无状态模式下签名固定使用 hmac-sha256（见 {@link AuthLinkGenerator}）。
+ */
+public class StatelessLinkVerifier {
+    private final RSAEncryptor rsaEncryptor;
+    private final LinkSigner linkSigner;
+    private final AuthRecordManager authRecordManager;
+    private final ActiveLinkIndex activeLinkIndex;
+    // 链接数据的混淆编码，使用标准Base64时为null
+    private final ObfuscatedBase64 dataEncoder;
+    private final AuditJournal auditJournal;
+    private final ReplayCache replayCache = new ReplayCache();
+    private final LongAdder consumedCount;
+    private final LongAdder replayRejects;
+    private final LongAdder invalidLinks;
+
+    public StatelessLinkVerifier(RSAEncryptor rsaEncryptor, LinkSigner linkSigner, AuthRecordManager authRecordManager,
+                                 ActiveLinkIndex activeLinkIndex, ObfuscatedBase64 dataEncoder, MetricsRegistry metrics,
+                                 AuditJournal auditJournal) {
+        this.rsaEncryptor = rsaEncryptor;
+        this.dataEncoder = dataEncoder;
+        this.auditJournal = auditJournal;
+        this.linkSigner = linkSigner;
+        this.authRecordManager = authRecordManager;
+        this.activeLinkIndex = activeLinkIndex;
+        this.consumedCount = metrics.counter("stateless_consumed");
+        this.replayRejects = metrics.counter("stateless_replay_rejects");
+        this.invalidLinks = metrics.counter("stateless_invalid_links");
+    }
+
+    /**
+     * 校验并核销一条无状态链接
+     *
+     * @param data 链接中的 data 参数（RSA加密的数据）
+     * @param hash 链接中的 hash 参数
+     * @return 核销结果，签名校验通过时包含链接数据中的玩家、操作和记录UUID
+     */
+    public CompletableFuture<ConsumedLink> consume(String data, String hash) {
+        return CompletableFuture.supplyAsync(() -> decode(data, hash)).thenCompose(record -> {
+            if (record == null) {
+                invalidLinks.increment();
+                return CompletableFuture.completedFuture(ConsumedLink.invalid());
+            }
+            if (record.getExpiresAtMillis() <= System.currentTimeMillis()) {
+                invalidLinks.increment();
+                return CompletableFuture.completedFuture(result(ConsumeStatus.EXPIRED, record));
+            }
+            if (!replayCache.markConsumed(record.getRecordUUID(), record.getExpiresAtMillis())) {
+                replayRejects.increment();
+                return CompletableFuture.completedFuture(result(ConsumeStatus.ALREADY_CONSUMED, record));
+            }
+            return authRecordManager.insertConsumedRecordAsync(record).thenApply(inserted -> {
+                if (inserted == null) {
+                    // 未能持久化，允许玩家重试
+                    replayCache.forget(record.getRecordUUID());
+                    return result(ConsumeStatus.UNAVAILABLE, record);
+                }
+                if (!inserted) {
+                    // 已在其他实例或重启前核销
+                    replayRejects.increment();
+                    return result(ConsumeStatus.ALREADY_CONSUMED, record);
+                }
+                consumedCount.increment();
+                auditJournal.record(AuditEventType.CONSUMED, record.getPlayerUUID(), record.getRecordUUID(), record.getAction());
+                activeLinkIndex.removeRecord(record.getPlayerUUID(), record.getAction(), record.getRecordUUID());
+                return result(ConsumeStatus.CONSUMED, record);
+            });
+        });
+    }
+
+    private static ConsumedLink result(ConsumeStatus status, AuthRecord record) {
+        return new ConsumedLink(status, record.getPlayerUUID(), record.getAction(), record.getRecordUUID());
+    }
+
+    /**
+     * 清理重放缓存中已过期的记录
+     */
+    public void cleanupReplayCache() {
+        replayCache.cleanupExpired();
+    }
+
+    /**
+     * 解密链接数据
+     * 混淆模式下依次尝试当前周期和上一周期的编码表（链接可能在轮换前发放），
+     * 用错编码表得到的密文无法通过RSA填充校验
+     */
+    private byte[] decrypt(String data) {
+        if (dataEncoder == null) {
+            return rsaEncryptor.tryDecrypt(data);
+        }
+        if (data == null) {
+            return null;
+        }
+        long epoch = dataEncoder.currentEpoch();
+        byte[] plain = rsaEncryptor.tryDecryptBytes(dataEncoder.decode(data, epoch));
+        return plain != null ? plain : rsaEncryptor.tryDecryptBytes(dataEncoder.decode(data, epoch - 1));
+    }
+
+    /**
+     * 解密链接数据并校验签名（不检查过期时间）
+     *
+     * @return 签名校验通过的记录，无效时返回null
+     */
+    private AuthRecord decode(String data, String hash) {
+        byte[] plain = decrypt(data);
+        if (plain == null) {
+            return null;
+        }
+        String json = new String(plain, StandardCharsets.UTF_8);
+        String recordUUID = stringField(json, "uuid");
+        String action = stringField(json, "action");
+        String playerUUID = stringField(json, "player_uuid");
+        String token = stringField(json, "token");
+        String expiresTime = numberField(json, "expires_time");
+        if (recordUUID == null || action == null || playerUUID == null || token == null || expiresTime == null) {
+            return null;
+        }
+
+        // 签名覆盖完整的链接数据（包括令牌和过期时间）
+        if (linkSigner == null || !linkSigner.verify(Base64.getEncoder().encodeToString(plain), token, hash)) {
+            return null;
+        }
+
+        try {
+            return new AuthRecord(recordUUID, UUID.fromString(playerUUID), action, token, Long.parseLong(expiresTime));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 读取链接数据中的字符串字段（数据由 {@link LinkAction#encodeData} 生成，值中不含转义字符）
+     */
+    private static String stringField(String json, String name) {
+        String key = "\"" + name + "\":\"";
+        int start = json.indexOf(key);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        int end = json.indexOf('"', start);
+        return end < 0 ? null : json.substring(start, end);
+    }
+
+    private static String numberField(String json, String name) {
+        String key = "\"" + name + "\":";
+        int start = json.indexOf(key);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        int end = start;
+        while (end < json.length() && Character.isDigit(json.charAt(end))) {
+            end++;
+        }
+        return end == start ? null : json.substring(start, end);
+    }
+}
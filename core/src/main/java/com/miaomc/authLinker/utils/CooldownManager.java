@@ -0,0 +1,336 @@
+package com.miaomc.authLinker.utils;
+
+import com.miaomc.authLinker.metrics.CooldownCleanupEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * 冷却时间管理器
+ * 使用内存缓存来管理玩家操作的冷却时间，避免频繁的数据库查询
+ * 缓存中保存的是冷却结束时间，不同操作可以有不同的冷却时间
+ */
+public class CooldownManager {
+    private static final int SNAPSHOT_MAGIC = 0x414C4344; // "ALCD"
+    private static final int SNAPSHOT_VERSION = 1;
+    // 快照条目：玩家UUID（16字节）、操作编号（2字节）、冷却结束时间（8字节）
+    private static final int SNAPSHOT_ENTRY_SIZE = 26;
+    // 文件头（魔数、版本、保存时间、操作数量）和文件尾（条目数量、CRC32C）
+    private static final int SNAPSHOT_HEADER_SIZE = 18;
+    private static final int SNAPSHOT_TRAILER_SIZE = 8;
+
+    // 使用ConcurrentHashMap保证线程安全，值为冷却结束时间戳（毫秒）
+    private final Map<CacheKey, Long> cooldownCache = new ConcurrentHashMap<>();
+    private final int cooldownTime; // 默认冷却时间（秒）
+
+    /**
+     * @param cooldownTime 操作未指定冷却时间时使用的默认冷却时间（秒），即 settings.cooldown
+     */
+    public CooldownManager(int cooldownTime) {
+        this.cooldownTime = cooldownTime;
+    }
+
+    /**
+     * 生成缓存键
+     * @param playerUUID 玩家UUID
+     * @param action 操作类型
+     * @return 缓存键
+     */
+    private CacheKey generateCacheKey(UUID playerUUID, String action) {
+        return new CacheKey(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits(), action);
+    }
+
+    /**
+     * 检查玩家是否在冷却期内
+     * @param playerUUID 玩家UUID
+     * @param action 操作类型
+     * @return 是否在冷却期内
+     */
+    public boolean isInCooldown(UUID playerUUID, String action) {
+        CacheKey cacheKey = generateCacheKey(playerUUID, action);
+        Long cooldownEnd = cooldownCache.get(cacheKey);
+
+        if (cooldownEnd == null) {
+            // 没有记录，不在冷却期
+            return false;
+        }
+
+        if (System.currentTimeMillis() >= cooldownEnd) {
+            // 冷却期已过，移除过期记录
+            cooldownCache.remove(cacheKey, cooldownEnd);
+            return false;
+        }
+
+        // 还在冷却期内
+        return true;
+    }
+
+    /**
+     * 获取剩余冷却时间（秒）
+     * @param playerUUID 玩家UUID
+     * @param action 操作类型
+     * @return 剩余冷却时间（秒），如果不在冷却期则返回0
+     */
+    public int getRemainingCooldown(UUID playerUUID, String action) {
+        CacheKey cacheKey = generateCacheKey(playerUUID, action);
+        Long cooldownEnd = cooldownCache.get(cacheKey);
+
+        if (cooldownEnd == null) {
+            return 0;
+        }
+
+        long remainingMillis = cooldownEnd - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            // 冷却期已过
+            cooldownCache.remove(cacheKey, cooldownEnd);
+            return 0;
+        }
+
+        // 计算剩余时间（向上取整）
+        return (int) Math.ceil(remainingMillis / 1000.0);
+    }
+
+    /**
+     * 记录玩家执行操作的时间（使用默认冷却时间）
+     * @param playerUUID 玩家UUID
+     * @param action 操作类型
+     */
+    public void recordAction(UUID playerUUID, String action) {
+        recordAction(playerUUID, action, cooldownTime);
+    }
+
+    /**
+     * 记录玩家执行操作的时间
+     * @param playerUUID 玩家UUID
+     * @param action 操作类型
+     * @param cooldownSeconds 该操作的冷却时间（秒）
+     */
+    public void recordAction(UUID playerUUID, String action, int cooldownSeconds) {
+        if (cooldownSeconds <= 0) {
+            return;
+        }
+        CacheKey cacheKey = generateCacheKey(playerUUID, action);
+        cooldownCache.put(cacheKey, System.currentTimeMillis() + cooldownSeconds * 1000L);
+    }
+
+    /**
+     * 清理过期的冷却记录
+     * 这个方法可以定期调用来清理内存
+     */
+    public void cleanupExpiredCooldowns() {
+        CooldownCleanupEvent event = new CooldownCleanupEvent();
+        int entriesBefore = event.isEnabled() ? cooldownCache.size() : 0;
+        event.begin();
+        long currentTime = System.currentTimeMillis();
+        cooldownCache.values().removeIf(cooldownEnd -> currentTime >= cooldownEnd);
+        event.finish(entriesBefore, cooldownCache::size);
+    }
+
+    /**
+     * 清除指定玩家的所有冷却记录
+     * @param playerUUID 玩家UUID
+     */
+    public void clearPlayerCooldowns(UUID playerUUID) {
+        long most = playerUUID.getMostSignificantBits();
+        long least = playerUUID.getLeastSignificantBits();
+        cooldownCache.keySet().removeIf(key -> key.most == most && key.least == least);
+    }
+
+    /**
+     * 将未过期的冷却记录写入快照文件
+     * 先写入临时文件再原子替换，写入过程中崩溃不会损坏上一次的快照。文件格式：
+     * <pre>
+     * 魔数(int) 版本(int) 保存时间(long) 操作数量(short) [操作名长度(short) 操作名(UTF-8)]...
+     * [玩家UUID(long,long) 操作编号(short) 冷却结束时间(long)]...
+     * 条目数量(int) CRC32C(int，覆盖之前的全部内容)
+     * </pre>
+     *
+     * @param file 快照文件
+     * @return 写入的记录数量
+     */
+    public synchronized int saveSnapshot(File file) throws IOException {
+        long now = System.currentTimeMillis();
+        // 操作名只在文件头中保存一次，条目中使用编号
+        Map<String, Integer> actionCodes = new LinkedHashMap<>();
+        for (CacheKey key : cooldownCache.keySet()) {
+            if (actionCodes.size() < 0xFFFF) {
+                actionCodes.putIfAbsent(key.action, actionCodes.size());
+            }
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(now).putShort((short) actionCodes.size());
+            for (String action : actionCodes.keySet()) {
+                byte[] name = action.getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(channel, buffer, crc, 2 + name.length);
+                buffer.putShort((short) name.length).put(name);
+            }
+
+            for (Map.Entry<CacheKey, Long> entry : cooldownCache.entrySet()) {
+                long cooldownEnd = entry.getValue();
+                CacheKey key = entry.getKey();
+                Integer code = actionCodes.get(key.action);
+                // 跳过已过期的记录和第一遍之后才加入的新操作
+                if (cooldownEnd <= now || code == null) {
+                    continue;
+                }
+                ensureCapacity(channel, buffer, crc, SNAPSHOT_ENTRY_SIZE);
+                buffer.putLong(key.most).putLong(key.least).putShort((short) (int) code).putLong(cooldownEnd);
+                count++;
+            }
+
+            ensureCapacity(channel, buffer, crc, 4);
+            buffer.putInt(count);
+            flush(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue());
+            flush(channel, buffer, null);
+            channel.force(false);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * 从快照文件恢复冷却记录，已过期的记录直接跳过
+     * 与内存中已有的记录合并时取较晚的冷却结束时间
+     *
+     * @param file 快照文件
+     * @return 恢复的记录数量，文件不存在时为0
+     * @throws IOException 文件不完整、校验失败或格式不支持
+     */
+    public int loadSnapshot(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SNAPSHOT_HEADER_SIZE + SNAPSHOT_TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("冷却快照文件大小异常: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int checksumOffset = (int) size - 4;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().limit(checksumOffset));
+            if (buffer.getInt(checksumOffset) != (int) crc.getValue()) {
+                throw new IOException("冷却快照校验失败");
+            }
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("不支持的冷却快照格式");
+            }
+            buffer.getLong(); // 保存时间
+
+            // 同一操作的记录共用一个操作名实例
+            String[] actions = new String[Short.toUnsignedInt(buffer.getShort())];
+            for (int i = 0; i < actions.length; i++) {
+                byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(name);
+                actions[i] = new String(name, StandardCharsets.UTF_8).intern();
+            }
+
+            int count = buffer.getInt(checksumOffset - 4);
+            if (buffer.position() + (long) count * SNAPSHOT_ENTRY_SIZE != checksumOffset - 4) {
+                throw new IOException("冷却快照条目数量不匹配");
+            }
+
+            long now = System.currentTimeMillis();
+            int loaded = 0;
+            for (int i = 0; i < count; i++) {
+                long most = buffer.getLong();
+                long least = buffer.getLong();
+                int code = Short.toUnsignedInt(buffer.getShort());
+                long cooldownEnd = buffer.getLong();
+                if (cooldownEnd <= now || code >= actions.length) {
+                    continue;
+                }
+                cooldownCache.merge(new CacheKey(most, least, actions[code]), cooldownEnd, Math::max);
+                loaded++;
+            }
+            return loaded;
+        }
+    }
+
+    private static void ensureCapacity(FileChannel channel, ByteBuffer buffer, CRC32C crc, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer, crc);
+        }
+    }
+
+    /**
+     * 写出缓冲区内容，crc不为null时同时计入校验和
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 获取当前缓存的记录数量（用于监控）
+     * @return 缓存记录数量
+     */
+    public int getCacheSize() {
+        return cooldownCache.size();
+    }
+
+    /**
+     * 清空所有冷却记录
+     */
+    public void clearAllCooldowns() {
+        cooldownCache.clear();
+    }
+
+    /**
+     * 缓存键：玩家UUID和操作类型
+     * 直接保存UUID的两个long，查询时不需要拼接字符串，快照读写时也不需要解析UUID
+     */
+    private static final class CacheKey {
+        private final long most;
+        private final long least;
+        private final String action;
+
+        CacheKey(long most, long least, String action) {
+            this.most = most;
+            this.least = least;
+            this.action = action;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return most == other.most && least == other.least && action.equals(other.action);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(most ^ least) * 31 + action.hashCode();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.miaomc.authLinker.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 链接签名器
+ * 支持两种模式：
+ * - sha256：SHA-256(base64 + token + salt)，与旧版本验证端兼容
+ * - hmac-sha256：以salt为密钥的HMAC-SHA256(base64 + token)
+ * 密钥状态只初始化一次，每次签名克隆预计算好的实例
+ */
+public class LinkSigner {
+    public static final String MODE_SHA256 = "sha256";
+    public static final String MODE_HMAC_SHA256 = "hmac-sha256";
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final boolean hmacMode;
+    private final byte[] saltBytes;
+    // 已用salt初始化的HMAC实例（内外层密钥块已预计算）
+    private final Mac hmacPrototype;
+    private final MessageDigest digestPrototype;
+
+    /**
+     * @param mode 签名模式（sha256 或 hmac-sha256）
+     * @param salt 盐值，HMAC模式下作为密钥
+     * @throws IllegalArgumentException HMAC模式下盐值为空
+     */
+    public LinkSigner(String mode, String salt) {
+        this.hmacMode = MODE_HMAC_SHA256.equalsIgnoreCase(mode);
+        this.saltBytes = salt == null ? new byte[0] : salt.getBytes(StandardCharsets.UTF_8);
+        if (hmacMode && saltBytes.length == 0) {
+            // 空密钥无法创建SecretKeySpec，且等于没有签名
+            throw new IllegalArgumentException("hash_mode 为 hmac-sha256 时 settings.salt 不能为空（作为HMAC密钥）");
+        }
+
+        try {
+            if (hmacMode) {
+                this.hmacPrototype = Mac.getInstance("HmacSHA256");
+                this.hmacPrototype.init(new SecretKeySpec(saltBytes, "HmacSHA256"));
+                this.digestPrototype = null;
+            } else {
+                this.hmacPrototype = null;
+                this.digestPrototype = MessageDigest.getInstance("SHA-256");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化链接签名器失败", e);
+        }
+    }
+
+    /**
+     * 计算链接签名
+     *
+     * @param encodedData Base64编码后的数据
+     * @param token       随机token
+     * @return 十六进制签名字符串
+     */
+    public String sign(String encodedData, String token) {
+        return toHex(signBytes(encodedData, token));
+    }
+
+    /**
+     * 以常量时间校验链接签名
+     *
+     * @param encodedData Base64编码后的数据
+     * @param token       随机token
+     * @param hash        待校验的十六进制签名
+     * @return 签名是否匹配
+     */
+    public boolean verify(String encodedData, String token, String hash) {
+        if (hash == null) {
+            return false;
+        }
+        byte[] expected = sign(encodedData, token).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = hash.getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * 是否为HMAC模式
+     */
+    public boolean isHmacMode() {
+        return hmacMode;
+    }
+
+    private byte[] signBytes(String encodedData, String token) {
+        byte[] dataBytes = encodedData.getBytes(StandardCharsets.UTF_8);
+        byte[] tokenBytes = token.getBytes(StandardCharsets.UTF_8);
+
+        if (hmacMode) {
+            Mac mac = newMac();
+            mac.update(dataBytes);
+            mac.update(tokenBytes);
+            return mac.doFinal();
+        }
+
+        // 分段update与拼接后整体计算结果相同，省去中间字符串
+        MessageDigest digest = newDigest();
+        digest.update(dataBytes);
+        digest.update(tokenBytes);
+        digest.update(saltBytes);
+        return digest.digest();
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) hmacPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // 提供者不支持克隆时退回到重新初始化
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(saltBytes, "HmacSHA256"));
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("创建HMAC实例失败", ex);
+            }
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return (MessageDigest) digestPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("创建SHA-256实例失败", ex);
+            }
+        }
+    }
+
+    /**
+     * 使用查表法将字节数组转换为小写十六进制字符串
+     */
+    private static String toHex(byte[] bytes) {
+        byte[] hex = new byte[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            hex[i * 2] = HEX_DIGITS[v >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[v & 0x0F];
+        }
+        return new String(hex, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,206 @@
+package com.miaomc.authLinker.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 按时间轮换的混淆Base64编码
+ * 编码表由配置的64字符混淆表经 {@link SeededRandom} 驱动的 Fisher-Yates 洗牌得到，
+ * 种子为轮换周期序号 floor(秒级时间戳 / 轮换间隔)，与JavaScript实现得到相同的表。
+ * 每个周期只洗牌一次，缓存当前和下一周期的编码表及反查表，编解码时只做查表，不含填充字符。
+ */
+public class ObfuscatedBase64 {
+    private final byte[] baseTable;
+    private final long rotationSeconds;
+    // 当前周期和下一周期的编码表，整体替换保证两者一致
+    private volatile TablePair tables;
+
+    /**
+     * @param table           混淆表（64个不重复的ASCII字符）
+     * @param rotationSeconds 轮换间隔（秒）
+     */
+    public ObfuscatedBase64(String table, long rotationSeconds) {
+        byte[] bytes = table.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length != 64 || table.length() != 64) {
+            throw new IllegalArgumentException("混淆表必须为64个ASCII字符，当前为 " + table.length() + " 个");
+        }
+        boolean[] seen = new boolean[128];
+        for (byte b : bytes) {
+            if (b < 0x21 || b > 0x7E || seen[b]) {
+                throw new IllegalArgumentException("混淆表包含重复字符或不可见字符: " + (char) b);
+            }
+            seen[b] = true;
+        }
+        this.baseTable = bytes;
+        this.rotationSeconds = Math.max(1, rotationSeconds);
+    }
+
+    /**
+     * 当前时间所在的轮换周期序号
+     */
+    public long currentEpoch() {
+        return epochAt(System.currentTimeMillis());
+    }
+
+    /**
+     * 指定时间所在的轮换周期序号
+     */
+    public long epochAt(long timeMillis) {
+        return Math.floorDiv(timeMillis / 1000L, rotationSeconds);
+    }
+
+    /**
+     * 使用当前周期的编码表编码
+     */
+    public String encode(byte[] data) {
+        return encode(data, currentEpoch());
+    }
+
+    /**
+     * 使用指定周期的编码表编码
+     */
+    public String encode(byte[] data, long epoch) {
+        byte[] table = tableFor(epoch).encode;
+        byte[] out = new byte[(data.length * 4 + 2) / 3];
+        int in = 0;
+        int o = 0;
+        int fullGroups = data.length / 3 * 3;
+        while (in < fullGroups) {
+            int bits = (data[in++] & 0xFF) << 16 | (data[in++] & 0xFF) << 8 | (data[in++] & 0xFF);
+            out[o++] = table[bits >>> 18];
+            out[o++] = table[(bits >>> 12) & 0x3F];
+            out[o++] = table[(bits >>> 6) & 0x3F];
+            out[o++] = table[bits & 0x3F];
+        }
+        int remaining = data.length - in;
+        if (remaining == 1) {
+            int bits = (data[in] & 0xFF) << 16;
+            out[o++] = table[bits >>> 18];
+            out[o] = table[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (data[in] & 0xFF) << 16 | (data[in + 1] & 0xFF) << 8;
+            out[o++] = table[bits >>> 18];
+            out[o++] = table[(bits >>> 12) & 0x3F];
+            out[o] = table[(bits >>> 6) & 0x3F];
+        }
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 使用指定周期的编码表解码
+     *
+     * @return 解码结果，包含表外字符或长度无效时返回null
+     */
+    public byte[] decode(String encoded, long epoch) {
+        int length = encoded.length();
+        if (length % 4 == 1) {
+            return null;
+        }
+        byte[] table = tableFor(epoch).decode;
+        byte[] out = new byte[length * 3 / 4];
+        int in = 0;
+        int o = 0;
+        int fullGroups = length / 4 * 4;
+        while (in < fullGroups) {
+            int bits = lookup(table, encoded.charAt(in++)) << 18 | lookup(table, encoded.charAt(in++)) << 12
+                    | lookup(table, encoded.charAt(in++)) << 6 | lookup(table, encoded.charAt(in++));
+            if (bits < 0) {
+                return null;
+            }
+            out[o++] = (byte) (bits >>> 16);
+            out[o++] = (byte) (bits >>> 8);
+            out[o++] = (byte) bits;
+        }
+        int remaining = length - in;
+        if (remaining >= 2) {
+            int bits = lookup(table, encoded.charAt(in)) << 18 | lookup(table, encoded.charAt(in + 1)) << 12;
+            if (remaining == 3) {
+                bits |= lookup(table, encoded.charAt(in + 2)) << 6;
+            }
+            if (bits < 0) {
+                return null;
+            }
+            out[o++] = (byte) (bits >>> 16);
+            if (remaining == 3) {
+                out[o] = (byte) (bits >>> 8);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 指定周期的编码表（用于调试和与其他语言实现对照）
+     */
+    public String tableString(long epoch) {
+        return new String(tableFor(epoch).encode, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 反查字符，表外字符返回一个足够小的负数，使组合后的结果为负
+     */
+    private static int lookup(byte[] decodeTable, char c) {
+        return c < 128 ? decodeTable[c] : -0x1000000;
+    }
+
+    private Table tableFor(long epoch) {
+        TablePair pair = tables;
+        if (pair != null) {
+            if (pair.current.epoch == epoch) {
+                return pair.current;
+            }
+            if (pair.next.epoch == epoch) {
+                // 进入下一周期：预先生成再下一周期的表
+                tables = new TablePair(pair.next, new Table(epoch + 1, shuffle(epoch + 1)));
+                return pair.next;
+            }
+            if (pair.current.epoch == epoch + 1) {
+                // 上一周期（例如跨周期的链接），不替换缓存
+                return new Table(epoch, shuffle(epoch));
+            }
+        }
+        Table current = new Table(epoch, shuffle(epoch));
+        tables = new TablePair(current, new Table(epoch + 1, shuffle(epoch + 1)));
+        return current;
+    }
+
+    /**
+     * Fisher-Yates 洗牌，与JavaScript版本的 offsetBase64Table 相同
+     */
+    private byte[] shuffle(long epoch) {
+        byte[] table = Arrays.copyOf(baseTable, baseTable.length);
+        SeededRandom random = new SeededRandom(epoch & 0xFFFFFFFFL);
+        for (int i = table.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte temp = table[i];
+            table[i] = table[j];
+            table[j] = temp;
+        }
+        return table;
+    }
+
+    private static class Table {
+        private final long epoch;
+        private final byte[] encode;
+        // 以字符为下标的反查表，表外字符为负数
+        private final byte[] decode = new byte[128];
+
+        Table(long epoch, byte[] encode) {
+            this.epoch = epoch;
+            this.encode = encode;
+            Arrays.fill(decode, (byte) -1);
+            for (int i = 0; i < encode.length; i++) {
+                decode[encode[i]] = (byte) i;
+            }
+        }
+    }
+
+    private static class TablePair {
+        private final Table current;
+        private final Table next;
+
+        TablePair(Table current, Table next) {
+            this.current = current;
+            this.next = next;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.miaomc.authLinker.utils;
 
-import org.bukkit.plugin.java.JavaPlugin;
+import com.miaomc.authLinker.metrics.RsaOperationEvent;
+import com.miaomc.authLinker.platform.AuthLinkerPlatform;
 
 import javax.crypto.Cipher;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.*;
 import java.security.spec.PKCS8EncodedKeySpec;
@@ -13,14 +15,19 @@ import java.util.Base64;
 import java.util.logging.Level;
 
 public class RSAEncryptor {
-    private final JavaPlugin plugin;
+    /**
+     * 2048位密钥、PKCS#1 v1.5填充时单次最多加密的字节数
+     */
+    public static final int MAX_PLAIN_BYTES = 2048 / 8 - 11;
+
+    private final AuthLinkerPlatform platform;
     private final File keyDir;
     private PublicKey publicKey;
     private PrivateKey privateKey;
 
-    public RSAEncryptor(JavaPlugin plugin) {
-        this.plugin = plugin;
-        this.keyDir = new File(plugin.getDataFolder(), "keys");
+    public RSAEncryptor(AuthLinkerPlatform platform) {
+        this.platform = platform;
+        this.keyDir = new File(platform.getDataFolder(), "keys");
         if (!keyDir.exists()) {
             keyDir.mkdirs();
         }
@@ -31,6 +38,9 @@ public class RSAEncryptor {
      * 生成RSA密钥对并保存到文件
      */
     public boolean generateKeyPair() {
+        RsaOperationEvent event = new RsaOperationEvent();
+        event.begin();
+        boolean success = false;
         try {
             KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
             keyPairGenerator.initialize(2048);
@@ -51,11 +61,14 @@ public class RSAEncryptor {
                 fos.write(Base64.getEncoder().encode(privateKey.getEncoded()));
             }
 
-            plugin.getLogger().info("RSA密钥对生成成功并保存到: " + keyDir.getAbsolutePath());
+            platform.getLogger().info("RSA密钥对生成成功并保存到: " + keyDir.getAbsolutePath());
+            success = true;
             return true;
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "生成RSA密钥对失败", e);
+            platform.getLogger().log(Level.SEVERE, "生成RSA密钥对失败", e);
             return false;
+        } finally {
+            event.finish("keygen", 0, success);
         }
     }
 
@@ -67,10 +80,13 @@ public class RSAEncryptor {
         File privateKeyFile = new File(keyDir, "private.key");
 
         if (!publicKeyFile.exists() || !privateKeyFile.exists()) {
-            plugin.getLogger().warning("密钥文件不存在，请使用命令生成密钥对");
+            platform.getLogger().warning("密钥文件不存在，请使用命令生成密钥对");
             return;
         }
 
+        RsaOperationEvent event = new RsaOperationEvent();
+        event.begin();
+        boolean success = false;
         try {
             // 加载公钥
             byte[] publicKeyBytes = Base64.getDecoder().decode(Files.readAllBytes(publicKeyFile.toPath()));
@@ -83,9 +99,12 @@ public class RSAEncryptor {
             PKCS8EncodedKeySpec privateKeySpec = new PKCS8EncodedKeySpec(privateKeyBytes);
             this.privateKey = keyFactory.generatePrivate(privateKeySpec);
 
-            plugin.getLogger().info("RSA密钥加载成功");
+            platform.getLogger().info("RSA密钥加载成功");
+            success = true;
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "加载RSA密钥失败", e);
+            platform.getLogger().log(Level.SEVERE, "加载RSA密钥失败", e);
+        } finally {
+            event.finish("load", 0, success);
         }
     }
 
@@ -93,18 +112,38 @@ public class RSAEncryptor {
      * 使用公钥加密数据
      */
     public String encrypt(String data) {
+        return encrypt(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 使用公钥加密UTF-8编码的数据
+     */
+    public String encrypt(byte[] data) {
+        return Base64.getEncoder().encodeToString(encryptBytes(data));
+    }
+
+    /**
+     * 使用公钥加密数据，返回未编码的密文（由调用方选择编码方式）
+     */
+    public byte[] encryptBytes(byte[] data) {
         if (publicKey == null) {
             throw new IllegalStateException("公钥未加载，请先生成密钥对");
         }
 
+        RsaOperationEvent event = new RsaOperationEvent();
+        event.begin();
+        boolean success = false;
         try {
             Cipher cipher = Cipher.getInstance("RSA");
             cipher.init(Cipher.ENCRYPT_MODE, publicKey);
-            byte[] encryptedBytes = cipher.doFinal(data.getBytes("UTF-8"));
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            byte[] encrypted = cipher.doFinal(data);
+            success = true;
+            return encrypted;
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "RSA加密失败", e);
+            platform.getLogger().log(Level.SEVERE, "RSA加密失败", e);
             throw new RuntimeException("RSA加密失败", e);
+        } finally {
+            event.finish("encrypt", data.length, success);
         }
     }
 
@@ -116,14 +155,58 @@ public class RSAEncryptor {
             throw new IllegalStateException("私钥未加载，请先生成密钥对");
         }
 
+        RsaOperationEvent event = new RsaOperationEvent();
+        event.begin();
+        boolean success = false;
         try {
             Cipher cipher = Cipher.getInstance("RSA");
             cipher.init(Cipher.DECRYPT_MODE, privateKey);
             byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedData));
+            success = true;
             return new String(decryptedBytes, "UTF-8");
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "RSA解密失败", e);
+            platform.getLogger().log(Level.SEVERE, "RSA解密失败", e);
             throw new RuntimeException("RSA解密失败", e);
+        } finally {
+            event.finish("decrypt", encryptedData.length(), success);
+        }
+    }
+
+    /**
+     * 使用私钥解密链接数据，数据无效时返回null而不记录错误（用于校验外部传入的无状态链接）
+     */
+    public byte[] tryDecrypt(String encryptedData) {
+        if (encryptedData == null) {
+            return null;
+        }
+
+        try {
+            return tryDecryptBytes(Base64.getDecoder().decode(encryptedData));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 使用私钥解密未编码的密文，数据无效时返回null而不记录错误
+     */
+    public byte[] tryDecryptBytes(byte[] encryptedBytes) {
+        if (privateKey == null || encryptedBytes == null) {
+            return null;
+        }
+
+        RsaOperationEvent event = new RsaOperationEvent();
+        event.begin();
+        byte[] decrypted = null;
+        try {
+            Cipher cipher = Cipher.getInstance("RSA");
+            cipher.init(Cipher.DECRYPT_MODE, privateKey);
+            decrypted = cipher.doFinal(encryptedBytes);
+            return decrypted;
+        } catch (GeneralSecurityException e) {
+            return null;
+        } finally {
+            event.finish("decrypt", encryptedBytes.length, decrypted != null);
         }
     }
 
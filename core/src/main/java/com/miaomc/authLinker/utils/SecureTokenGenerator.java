@@ -0,0 +1,62 @@
+package com.miaomc.authLinker.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+/**
+ * 安全Token生成器
+ * 使用SecureRandom批量预取随机字节到线程本地缓冲区，通过拒绝采样无偏地映射到62字符表
+ */
+public class SecureTokenGenerator {
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".getBytes(StandardCharsets.US_ASCII);
+    // 每次从SecureRandom预取的字节数
+    private static final int BUFFER_SIZE = 512;
+
+    // 每个线程持有独立的SecureRandom和缓冲区，避免线程间竞争同一把锁
+    private final ThreadLocal<EntropyBuffer> buffers = ThreadLocal.withInitial(EntropyBuffer::new);
+
+    /**
+     * 生成指定长度的随机token
+     *
+     * @param length token长度
+     * @return 由大小写字母和数字组成的token
+     */
+    public String nextToken(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("token长度必须大于0");
+        }
+
+        EntropyBuffer buffer = buffers.get();
+        byte[] token = new byte[length];
+        int filled = 0;
+
+        while (filled < length) {
+            // 取低6位得到[0, 64)，丢弃62和63以保证每个字符概率相同
+            int index = buffer.nextByte() & 0x3F;
+            if (index < ALPHABET.length) {
+                token[filled++] = ALPHABET[index];
+            }
+        }
+
+        // 字符均为ASCII，直接按Latin-1构造字符串，无需StringBuilder
+        return new String(token, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 线程本地的随机字节缓冲区
+     */
+    private static final class EntropyBuffer {
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private int position = BUFFER_SIZE;
+
+        private byte nextByte() {
+            if (position == BUFFER_SIZE) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            return bytes[position++];
+        }
+    }
+}
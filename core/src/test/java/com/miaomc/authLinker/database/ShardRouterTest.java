@@ -0,0 +1,35 @@
+package com.miaomc.authLinker.database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardRouterTest {
+
+    @Test
+    public void routesByFirstByte() {
+        ShardRouter router = new ShardRouter("auth_records", 4);
+
+        assertEquals("auth_records_3", router.tableFor("ff3e2a10-0000-4000-8000-000000000000"));
+        assertEquals("auth_records_2", router.tableFor("0a000000-0000-4000-8000-000000000000"));
+    }
+
+    @Test
+    public void malformedUuidFallsBackInsteadOfThrowing() {
+        ShardRouter router = new ShardRouter("auth_records", 4);
+
+        assertEquals("auth_records_0", router.tableFor(null));
+        assertTrue(router.getTableNames().contains(router.tableFor("")));
+        assertTrue(router.getTableNames().contains(router.tableFor("a")));
+        assertTrue(router.getTableNames().contains(router.tableFor("zz")));
+    }
+
+    @Test
+    public void singleShardKeepsBaseTableName() {
+        ShardRouter router = new ShardRouter("auth_records", 1);
+
+        assertEquals("auth_records", router.tableFor(null));
+        assertEquals("auth_records", router.tableFor("a"));
+    }
+}
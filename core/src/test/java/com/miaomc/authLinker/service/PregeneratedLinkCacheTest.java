@@ -0,0 +1,66 @@
+package com.miaomc.authLinker.service;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class PregeneratedLinkCacheTest {
+    private static final String ENDPOINT = "https://example.com/verify?data={data}&hash={hash}";
+
+    @Test
+    public void maxAgeIsCappedByActionExpiry() {
+        PregeneratedLinkCache cache = new PregeneratedLinkCache(60);
+
+        // 30秒有效期最多保留6秒，300秒有效期不受影响
+        assertEquals(6000, cache.maxAgeMillis(action(30)));
+        assertEquals(60000, cache.maxAgeMillis(action(300)));
+    }
+
+    @Test
+    public void takeRejectsMaterialOlderThanCappedAge() {
+        PregeneratedLinkCache cache = new PregeneratedLinkCache(60);
+        LinkAction linkAction = action(30);
+        UUID player = UUID.randomUUID();
+        long preparedAt = System.currentTimeMillis() - 10_000;
+        cache.put(player, prepared(linkAction, preparedAt + 30_000, preparedAt));
+
+        // 未超过 max_age_seconds，但链接已失去三分之一的有效期
+        assertNull(cache.take(player, linkAction));
+    }
+
+    @Test
+    public void takeRejectsMaterialWithShortenedExpiry() {
+        PregeneratedLinkCache cache = new PregeneratedLinkCache(60);
+        LinkAction linkAction = action(300);
+        UUID player = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        cache.put(player, prepared(linkAction, now + 5_000, now));
+
+        assertNull(cache.take(player, linkAction));
+    }
+
+    @Test
+    public void takeReturnsFreshMaterial() {
+        PregeneratedLinkCache cache = new PregeneratedLinkCache(60);
+        LinkAction linkAction = action(300);
+        UUID player = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        cache.put(player, prepared(linkAction, now + 300_000, now));
+
+        assertNotNull(cache.take(player, linkAction));
+        assertNull(cache.take(player, linkAction));
+    }
+
+    private static LinkAction action(int expiredTime) {
+        return new LinkAction("login", ENDPOINT, expiredTime, 0, null);
+    }
+
+    private static PregeneratedLinkCache.PreparedLink prepared(LinkAction linkAction, long expiresAt, long preparedAt) {
+        return new PregeneratedLinkCache.PreparedLink(linkAction, new AuthLinkGenerator.AuthLinkResult(), expiresAt,
+                preparedAt, 0);
+    }
+}
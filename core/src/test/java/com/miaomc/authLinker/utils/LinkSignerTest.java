@@ -0,0 +1,31 @@
+package com.miaomc.authLinker.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LinkSignerTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hmacModeRejectsEmptySalt() {
+        new LinkSigner(LinkSigner.MODE_HMAC_SHA256, "");
+    }
+
+    @Test
+    public void sha256ModeAcceptsEmptySalt() {
+        LinkSigner signer = new LinkSigner(LinkSigner.MODE_SHA256, "");
+        assertEquals(64, signer.sign("ZGF0YQ==", "token").length());
+    }
+
+    @Test
+    public void verifyMatchesSignature() {
+        LinkSigner signer = new LinkSigner(LinkSigner.MODE_HMAC_SHA256, "abc123");
+        String hash = signer.sign("ZGF0YQ==", "token");
+
+        assertTrue(signer.verify("ZGF0YQ==", "token", hash));
+        assertFalse(signer.verify("ZGF0YQ==", "other", hash));
+        assertFalse(signer.verify("ZGF0YQ==", "token", null));
+    }
+}
@@ -8,7 +8,12 @@ const PORT = 3000;
 // 配置 - 必须与插件配置保持一致
 const CONFIG = {
     salt: 'abc123', // 必须与插件中的配置一致
+    hashMode: 'sha256', // 必须与插件的 settings.hash_mode 一致（sha256 或 hmac-sha256）
+    stateless: false, // 必须与插件的 stateless.enabled 一致，为 true 时 hashMode 必须为 hmac-sha256
     privateKeyPath: './keys/private.key', // RSA私钥文件路径
+    dataEncoding: 'base64', // 必须与插件的 settings.data_encoding 一致（base64 或 obfuscated）
+    base64ObfuscationTable: 'jQNHxo9a1zVG8dFcyb27XmiwOl0WULnkPsBKqEAZYfer3t5RMDSCJhgvu4pTI6-.', // 与插件的 settings.base64_obfuscation_table 一致
+    rotationTimestamp: 86400, // 与插件的 settings.rotation_timestamp 一致（秒）
 
     // MySQL数据库配置 - 必须与插件配置保持一致
     database: {
@@ -17,7 +22,8 @@ const CONFIG = {
         user: 'root',
         password: 'your_password_here',
         database: 'authlinker',
-        tableName: 'auth_records' // 与插件配置的表名一致
+        tableName: 'auth_records', // 与插件配置的表名一致
+        shards: 1 // 与插件的 database.shards 一致
     }
 };
 
@@ -65,12 +71,14 @@ app.get('/verify', async (req, res) => {
             });
         }
 
-        const { decryptedData, dbRecord } = result;
+        const { decryptedData } = result;
 
-        // 标记记录为已使用（更新MySQL数据库）
-        const marked = await database.markAsUsed(decryptedData.uuid);
-        if (!marked) {
-            console.warn(`无法标记记录 ${decryptedData.uuid} 为已使用`);
+        // 标记记录为已使用（更新MySQL数据库）；无状态链接在校验时已插入已使用的记录
+        if (!result.consumed) {
+            const marked = await database.markAsUsed(decryptedData.uuid);
+            if (!marked) {
+                console.warn(`无法标记记录 ${decryptedData.uuid} 为已使用`);
+            }
         }
 
         // 根据操作类型处理
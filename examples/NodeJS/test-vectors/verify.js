@@ -0,0 +1,18 @@
+/**
+ * 校验 ObfuscatedBase64.js 与插件的Java实现是否一致
+ * obfuscated-base64.json 由插件的 ObfuscatedBase64 生成，包含各周期的编码表和编解码结果
+ * 用法: node test-vectors/verify.js
+ */
+const assert = require('assert');
+const path = require('path');
+const ObfuscatedBase64 = require('../utils/ObfuscatedBase64');
+const vectors = require(path.join(__dirname, 'obfuscated-base64.json'));
+
+const encoder = new ObfuscatedBase64(vectors.table, vectors.rotation_timestamp);
+for (const vector of vectors.vectors) {
+    const data = Buffer.from(vector.data_hex, 'hex');
+    assert.strictEqual(encoder.tableString(vector.epoch), vector.epoch_table, `周期 ${vector.epoch} 的编码表不一致`);
+    assert.strictEqual(encoder.encode(data, vector.epoch), vector.encoded, `周期 ${vector.epoch} 编码结果不一致`);
+    assert.ok(encoder.decode(vector.encoded, vector.epoch).equals(data), `周期 ${vector.epoch} 解码结果不一致`);
+}
+console.log(`全部 ${vectors.vectors.length} 组测试向量通过`);
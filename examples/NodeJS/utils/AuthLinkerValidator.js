@@ -2,6 +2,10 @@ const crypto = require('crypto');
 const NodeRSA = require('node-rsa');
 const fs = require('fs');
 const path = require('path');
+const ObfuscatedBase64 = require('./ObfuscatedBase64');
+
+// 重放缓存的清理间隔（毫秒）
+const REPLAY_CACHE_CLEANUP_MS = 60000;
 
 /**
  * AuthLinker 验证工具类
@@ -11,6 +15,15 @@ class AuthLinkerValidator {
     constructor(config) {
         this.config = config;
         this.privateKey = null;
+        // 插件 settings.data_encoding 为 obfuscated 时使用混淆Base64解码 data 参数
+        this.dataEncoder = config.dataEncoding === 'obfuscated'
+            ? new ObfuscatedBase64(config.base64ObfuscationTable, config.rotationTimestamp)
+            : null;
+        // 无状态模式：记录UUID -> 过期时间，在写入数据库之前拦截同一链接的并发重放
+        this.replayCache = new Map();
+        if (config.stateless) {
+            setInterval(() => this.cleanupReplayCache(), REPLAY_CACHE_CLEANUP_MS).unref();
+        }
         this.initializeRSA();
     }
 
@@ -49,6 +62,10 @@ class AuthLinkerValidator {
             throw new Error('RSA私钥未初始化');
         }
 
+        if (this.dataEncoder) {
+            return this.decryptObfuscatedData(encryptedData);
+        }
+
         try {
             const decryptedData = this.privateKey.decrypt(encryptedData, 'utf8');
             return JSON.parse(decryptedData);
@@ -57,32 +74,81 @@ class AuthLinkerValidator {
         }
     }
 
+    /**
+     * 解码混淆Base64后RSA解密
+     * 依次尝试当前和上一周期的编码表（链接可能在轮换前发放），用错编码表的密文无法通过RSA填充校验
+     */
+    decryptObfuscatedData(encryptedData) {
+        const epoch = this.dataEncoder.epochAt();
+        let lastError = null;
+        for (const candidate of [epoch, epoch - 1]) {
+            const bytes = this.dataEncoder.decode(encryptedData, candidate);
+            if (!bytes) {
+                continue;
+            }
+            try {
+                return JSON.parse(this.privateKey.decrypt(bytes, 'utf8'));
+            } catch (error) {
+                lastError = error;
+            }
+        }
+        throw new Error('RSA解密失败: ' + (lastError ? lastError.message : '数据编码无效'));
+    }
+
     /**
      * 计算哈希值（与插件逻辑保持一致）
+     * hashMode 为 'hmac-sha256' 时以salt为密钥计算HMAC，否则使用旧版 SHA-256(base64 + token + salt)
      */
     calculateHash(base64Data, token) {
+        if (this.config.hashMode === 'hmac-sha256') {
+            return crypto.createHmac('sha256', this.config.salt)
+                .update(base64Data, 'utf8')
+                .update(token, 'utf8')
+                .digest('hex');
+        }
         const input = base64Data + token + this.config.salt;
         return crypto.createHash('sha256').update(input, 'utf8').digest('hex');
     }
 
+    /**
+     * 以常量时间比较哈希值，避免通过响应时间推测签名
+     */
+    isHashEqual(expectedHash, hash) {
+        const expected = Buffer.from(expectedHash, 'utf8');
+        const actual = Buffer.from(String(hash), 'utf8');
+        if (expected.length !== actual.length) {
+            return false;
+        }
+        return crypto.timingSafeEqual(expected, actual);
+    }
+
     /**
      * 从解密数据重建Base64（用于哈希验证）
+     * 无状态模式下数据中包含 token 字段，同样参与哈希计算
      */
     rebuildBase64ForHash(decryptedJson) {
-        const jsonString = JSON.stringify({
+        const fields = {
             uuid: decryptedJson.uuid,
             action: decryptedJson.action,
             player_uuid: decryptedJson.player_uuid,
             expires_time: decryptedJson.expires_time
-        });
+        };
+        if (decryptedJson.token !== undefined) {
+            fields.token = decryptedJson.token;
+        }
+        const jsonString = JSON.stringify(fields);
         return Buffer.from(jsonString, 'utf8').toString('base64');
     }
 
     /**
      * 验证认证请求
      * 新的验证流程：不依赖URL中的token，从数据库查询token
+     * 插件开启 stateless.enabled 时改用 verifyStatelessRequest
      */
     async verifyRequest(data, hash, database) {
+        if (this.config.stateless) {
+            return this.verifyStatelessRequest(data, hash, database);
+        }
         try {
             // 1. RSA解密
             const decryptedData = this.decryptData(data);
@@ -113,7 +179,7 @@ class AuthLinkerValidator {
             const base64Data = this.rebuildBase64ForHash(decryptedData);
             const expectedHash = this.calculateHash(base64Data, dbRecord.token);
 
-            if (expectedHash !== hash) {
+            if (!this.isHashEqual(expectedHash, hash)) {
                 return { valid: false, error: '哈希验证失败' };
             }
 
@@ -128,6 +194,80 @@ class AuthLinkerValidator {
         }
     }
 
+    /**
+     * 验证并核销无状态链接（插件 stateless.enabled 为 true）
+     * 令牌在加密数据中，发放时数据库里没有记录：校验签名和过期时间后，先经重放缓存拦截并发请求，
+     * 再以记录UUID为主键插入一条已使用的记录，插入失败（主键冲突）说明链接已被核销。
+     * 插件在无状态模式下固定使用 hmac-sha256 签名
+     */
+    async verifyStatelessRequest(data, hash, database) {
+        try {
+            if (this.config.hashMode !== 'hmac-sha256') {
+                return { valid: false, error: '无状态模式需要 hashMode 为 hmac-sha256' };
+            }
+
+            // 1. RSA解密
+            const decryptedData = this.decryptData(data);
+            if (!decryptedData.uuid || !decryptedData.action || !decryptedData.player_uuid ||
+                !decryptedData.expires_time || !decryptedData.token) {
+                return { valid: false, error: '解密数据格式不正确' };
+            }
+
+            // 2. 使用数据中的token验证哈希
+            const base64Data = this.rebuildBase64ForHash(decryptedData);
+            const expectedHash = this.calculateHash(base64Data, decryptedData.token);
+            if (!this.isHashEqual(expectedHash, hash)) {
+                return { valid: false, error: '哈希验证失败' };
+            }
+
+            // 3. 检查过期时间
+            if (Date.now() > decryptedData.expires_time) {
+                return { valid: false, error: '验证链接已过期' };
+            }
+
+            // 4. 重放缓存拦截本进程内的重复请求
+            if (this.replayCache.has(decryptedData.uuid)) {
+                return { valid: false, error: '验证链接已被使用' };
+            }
+            this.replayCache.set(decryptedData.uuid, decryptedData.expires_time);
+
+            // 5. 插入已使用的记录，主键保证多个验证端之间也只能核销一次
+            let inserted;
+            try {
+                inserted = await database.insertConsumedRecord(decryptedData);
+            } catch (error) {
+                // 未能记录核销，允许重试
+                this.replayCache.delete(decryptedData.uuid);
+                throw error;
+            }
+            if (!inserted) {
+                return { valid: false, error: '验证链接已被使用' };
+            }
+
+            return {
+                valid: true,
+                consumed: true,
+                decryptedData,
+                dbRecord: null
+            };
+
+        } catch (error) {
+            return { valid: false, error: error.message };
+        }
+    }
+
+    /**
+     * 清理重放缓存中已过期的链接（过期链接在校验过期时间时即被拒绝）
+     */
+    cleanupReplayCache() {
+        const now = Date.now();
+        for (const [uuid, expiresTime] of this.replayCache) {
+            if (expiresTime < now) {
+                this.replayCache.delete(uuid);
+            }
+        }
+    }
+
     /**
      * 检查RSA密钥是否已加载
      */
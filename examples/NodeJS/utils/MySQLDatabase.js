@@ -13,6 +13,8 @@ class MySQLDatabase {
             password: config.password || '',
             database: config.database || 'authlinker',
             tableName: config.tableName || 'auth_records',
+            // 分表数量，与插件的 database.shards 一致（1-256），1 表示不分表
+            shards: Math.min(256, Math.max(1, parseInt(config.shards, 10) || 1)),
             // 连接池配置
             connectionLimit: 10,
             acquireTimeout: 60000,
@@ -52,6 +54,34 @@ class MySQLDatabase {
         }
     }
 
+    /**
+     * 获取记录UUID所在的表名
+     * 与插件的分表路由一致：分表号 = parseInt(uuid.substring(0, 2), 16) % 分表数量，表名为 <tableName>_<分表号>
+     * @param {string} uuid - 记录UUID
+     * @returns {string} 表名
+     */
+    tableFor(uuid) {
+        if (this.config.shards === 1) {
+            return this.config.tableName;
+        }
+        // 格式不正确的UUID不会由插件生成，路由到0号分表，查询结果为记录不存在
+        const shard = typeof uuid === 'string' && /^[0-9a-f]{2}/i.test(uuid)
+            ? parseInt(uuid.substring(0, 2), 16) % this.config.shards
+            : 0;
+        return `${this.config.tableName}_${shard}`;
+    }
+
+    /**
+     * 获取全部分表的表名（按分表号排序）
+     * @returns {string[]} 表名列表
+     */
+    getTableNames() {
+        if (this.config.shards === 1) {
+            return [this.config.tableName];
+        }
+        return Array.from({ length: this.config.shards }, (_, i) => `${this.config.tableName}_${i}`);
+    }
+
     /**
      * 根据UUID获取认证记录
      * @param {string} uuid - 记录UUID
@@ -68,7 +98,7 @@ class MySQLDatabase {
                   AND is_used = FALSE
             `;
 
-            const [rows] = await this.pool.execute(sql, [this.config.tableName, uuid]);
+            const [rows] = await this.pool.execute(sql, [this.tableFor(uuid), uuid]);
 
             if (rows.length === 0) {
                 return null;
@@ -110,7 +140,7 @@ class MySQLDatabase {
                   AND is_used = FALSE
             `;
 
-            const [result] = await this.pool.execute(sql, [this.config.tableName, uuid]);
+            const [result] = await this.pool.execute(sql, [this.tableFor(uuid), uuid]);
 
             return result.affectedRows > 0;
         } catch (error) {
@@ -119,8 +149,34 @@ class MySQLDatabase {
         }
     }
 
+    /**
+     * 记录一条无状态链接的核销：以记录UUID为主键插入已使用的记录
+     * 分表时写入记录UUID路由到的分表，与插件查询同一张表
+     * @param {Object} decryptedData - 解密后的链接数据
+     * @returns {Promise<boolean>} 插入成功为true，记录已存在（已被核销）为false
+     */
+    async insertConsumedRecord(decryptedData) {
+        try {
+            const sql = `
+                INSERT INTO ?? (uuid, player_uuid, action, token, status, is_used, expires_at)
+                VALUES (?, ?, ?, ?, 'used', TRUE, ?)
+            `;
+
+            await this.pool.execute(sql, [this.tableFor(decryptedData.uuid), decryptedData.uuid, decryptedData.player_uuid,
+                decryptedData.action, decryptedData.token, new Date(decryptedData.expires_time)]);
+            return true;
+        } catch (error) {
+            if (error.code === 'ER_DUP_ENTRY') {
+                return false;
+            }
+            console.error('记录链接核销失败:', error.message);
+            throw error;
+        }
+    }
+
     /**
      * 根据玩家UUID和操作类型查询最近的记录（用于调试）
+     * 分表时查询每一张分表，合并后按创建时间取最近的10条
      * @param {string} playerUuid - 玩家UUID
      * @param {string} action - 操作类型
      * @returns {Promise<Object[]>} 记录列表
@@ -134,7 +190,7 @@ class MySQLDatabase {
                 WHERE player_uuid = ?
             `;
 
-            const params = [this.config.tableName, playerUuid];
+            const params = [playerUuid];
 
             if (action) {
                 sql += ' AND action = ?';
@@ -143,7 +199,11 @@ class MySQLDatabase {
 
             sql += ' ORDER BY create_at DESC LIMIT 10';
 
-            const [rows] = await this.pool.execute(sql, params);
+            const results = await Promise.all(this.getTableNames()
+                .map(table => this.pool.execute(sql, [table, ...params])));
+            const rows = results.flatMap(([shardRows]) => shardRows)
+                .sort((a, b) => new Date(b.create_at) - new Date(a.create_at))
+                .slice(0, 10);
 
             return rows.map(record => ({
                 uuid: record.uuid,
@@ -163,19 +223,23 @@ class MySQLDatabase {
     }
 
     /**
-     * 清理过期记录
+     * 清理过期记录（分表时清理每一张分表）
      * @returns {Promise<number>} 清理的记录数量
      */
     async cleanupExpiredRecords() {
         try {
             const sql = `DELETE FROM ?? WHERE expires_at < NOW()`;
-            const [result] = await this.pool.execute(sql, [this.config.tableName]);
+            let affectedRows = 0;
+            for (const table of this.getTableNames()) {
+                const [result] = await this.pool.execute(sql, [table]);
+                affectedRows += result.affectedRows;
+            }
 
-            if (result.affectedRows > 0) {
-                console.log(`清理了 ${result.affectedRows} 条过期记录`);
+            if (affectedRows > 0) {
+                console.log(`清理了 ${affectedRows} 条过期记录`);
             }
 
-            return result.affectedRows;
+            return affectedRows;
         } catch (error) {
             console.error('清理过期记录失败:', error.message);
             throw error;
@@ -0,0 +1,143 @@
+/**
+ * 按时间轮换的混淆Base64编码（与插件的 ObfuscatedBase64 保持一致）
+ * 编码表由混淆表经 SeededRandom 驱动的 Fisher-Yates 洗牌得到，
+ * 种子为轮换周期序号 floor(秒级时间戳 / rotationTimestamp)，不含填充字符
+ */
+
+/**
+ * 与插件 SeededRandom 相同的线性同余随机数生成器
+ */
+const createSeededRandom = (seed) => {
+    let seedValue = seed >>> 0;
+
+    const nextDouble = () => {
+        // 1664525 * seed 不超过 2^53，乘法结果精确，>>> 0 取模 2^32
+        seedValue = (1664525 * seedValue + 1013904223) >>> 0;
+        return seedValue / 4294967296;
+    };
+
+    return {
+        nextDouble,
+        nextInt: (max) => Math.floor(nextDouble() * max)
+    };
+};
+
+class ObfuscatedBase64 {
+    /**
+     * @param {string} table 混淆表（64个不重复的ASCII字符）
+     * @param {number} rotationTimestamp 轮换间隔（秒）
+     */
+    constructor(table, rotationTimestamp) {
+        if (typeof table !== 'string' || table.length !== 64 || new Set(table).size !== 64) {
+            throw new Error('混淆表必须为64个不重复的字符');
+        }
+        this.table = table;
+        this.rotationTimestamp = Math.max(1, rotationTimestamp);
+        // 按周期序号缓存的编码表和反查表
+        this.cache = new Map();
+    }
+
+    /**
+     * 指定时间（毫秒）所在的轮换周期序号
+     */
+    epochAt(timeMillis = Date.now()) {
+        return Math.floor(Math.floor(timeMillis / 1000) / this.rotationTimestamp);
+    }
+
+    /**
+     * 指定周期的编码表
+     */
+    tableString(epoch) {
+        return this.tableFor(epoch).encode;
+    }
+
+    /**
+     * 使用指定周期的编码表编码
+     * @param {Buffer} data
+     */
+    encode(data, epoch = this.epochAt()) {
+        const table = this.tableFor(epoch).encode;
+        let out = '';
+        let i = 0;
+        for (; i + 3 <= data.length; i += 3) {
+            const bits = (data[i] << 16) | (data[i + 1] << 8) | data[i + 2];
+            out += table[bits >>> 18] + table[(bits >>> 12) & 63] + table[(bits >>> 6) & 63] + table[bits & 63];
+        }
+        const remaining = data.length - i;
+        if (remaining === 1) {
+            const bits = data[i] << 16;
+            out += table[bits >>> 18] + table[(bits >>> 12) & 63];
+        } else if (remaining === 2) {
+            const bits = (data[i] << 16) | (data[i + 1] << 8);
+            out += table[bits >>> 18] + table[(bits >>> 12) & 63] + table[(bits >>> 6) & 63];
+        }
+        return out;
+    }
+
+    /**
+     * 使用指定周期的编码表解码
+     * @returns {Buffer|null} 包含表外字符或长度无效时返回null
+     */
+    decode(encoded, epoch) {
+        if (typeof encoded !== 'string' || encoded.length % 4 === 1) {
+            return null;
+        }
+        const reverse = this.tableFor(epoch).decode;
+        const out = Buffer.alloc(Math.floor(encoded.length * 3 / 4));
+        let o = 0;
+        let bits = 0;
+        let count = 0;
+        for (let i = 0; i < encoded.length; i++) {
+            const code = encoded.charCodeAt(i);
+            const value = code < 128 ? reverse[code] : -1;
+            if (value < 0) {
+                return null;
+            }
+            bits = (bits << 6) | value;
+            if (++count === 4) {
+                out[o++] = bits >>> 16;
+                out[o++] = (bits >>> 8) & 255;
+                out[o++] = bits & 255;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count === 2) {
+            out[o] = bits >>> 4;
+        } else if (count === 3) {
+            out[o++] = bits >>> 10;
+            out[o] = (bits >>> 2) & 255;
+        }
+        return out;
+    }
+
+    tableFor(epoch) {
+        let entry = this.cache.get(epoch);
+        if (!entry) {
+            const tableArr = this.table.split('');
+            const random = createSeededRandom(epoch);
+
+            // Fisher-Yates 洗牌
+            for (let i = tableArr.length - 1; i > 0; i--) {
+                const j = random.nextInt(i + 1);
+                const temp = tableArr[i];
+                tableArr[i] = tableArr[j];
+                tableArr[j] = temp;
+            }
+
+            const decode = new Int8Array(128).fill(-1);
+            tableArr.forEach((c, index) => {
+                decode[c.charCodeAt(0)] = index;
+            });
+            entry = { encode: tableArr.join(''), decode };
+            // 只保留最近的几个周期
+            if (this.cache.size >= 4) {
+                this.cache.delete(this.cache.keys().next().value);
+            }
+            this.cache.set(epoch, entry);
+        }
+        return entry;
+    }
+}
+
+module.exports = ObfuscatedBase64;
@@ -0,0 +1,306 @@
+package com.miaomc.authLinker;
+
+import com.miaomc.authLinker.api.AuthLinkerService;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.database.DatabaseInitializer;
+import com.miaomc.authLinker.database.DatabaseManager;
+import com.miaomc.authLinker.metrics.JfrEvents;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.metrics.PrometheusExporter;
+import com.miaomc.authLinker.metrics.RequestTracer;
+import com.miaomc.authLinker.platform.PaperPlatform;
+import com.miaomc.authLinker.service.ActionRegistry;
+import com.miaomc.authLinker.service.AuthCommandHandler;
+import com.miaomc.authLinker.service.AuthLinkGenerator;
+import com.miaomc.authLinker.service.AuthLinkerServiceImpl;
+import com.miaomc.authLinker.service.BulkIssueRunner;
+import com.miaomc.authLinker.service.ChangeFeedPoller;
+import com.miaomc.authLinker.service.LinkPregenerator;
+import com.miaomc.authLinker.service.MaintenanceCoordinator;
+import com.miaomc.authLinker.service.LoadTestRunner;
+import com.miaomc.authLinker.service.RecordExporter;
+import com.miaomc.authLinker.service.StartupWarmup;
+import com.miaomc.authLinker.service.StatelessLinkVerifier;
+import com.miaomc.authLinker.utils.RSAEncryptor;
+import com.miaomc.authLinker.utils.CooldownManager;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+
+public final class AuthLinker extends JavaPlugin {
+    private DatabaseManager databaseManager;
+    private RSAEncryptor rsaEncryptor;
+    private PrometheusExporter prometheusExporter;
+    private RequestTracer requestTracer;
+    private ChangeFeedPoller changeFeedPoller;
+    private AuditJournal auditJournal;
+    private MaintenanceCoordinator maintenanceCoordinator;
+    private LinkPregenerator linkPregenerator;
+    private LoadTestRunner loadTestRunner;
+    private BulkIssueRunner bulkIssueRunner;
+    private RecordExporter recordExporter;
+    private CooldownManager cooldownManager;
+    private File cooldownSnapshotFile;
+
+    @Override
+    public void onEnable() {
+        // 保存默认配置
+        saveDefaultConfig();
+        // 核心模块通过平台接口读取配置和写日志，不直接依赖插件类
+        PaperPlatform platform = new PaperPlatform(this);
+
+        // 注册JFR事件并释放JFR配置文件（事件默认关闭，使用 authlinker.jfc 录制时才记录）
+        JfrEvents.register(getLogger());
+        if (!new File(getDataFolder(), "authlinker.jfc").exists()) {
+            saveResource("authlinker.jfc", false);
+        }
+
+        // 初始化RSA加密器
+        rsaEncryptor = new RSAEncryptor(platform);
+
+        // 初始化指标注册表
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+        // 初始化慢请求追踪器
+        FileConfiguration config = getConfig();
+        requestTracer = new RequestTracer(getLogger(), metricsRegistry,
+                config.getBoolean("tracing.enabled", true),
+                config.getLong("tracing.slow_threshold_ms", 500),
+                config.getInt("tracing.ring_size", 256));
+        requestTracer.openLog(new File(getDataFolder(), "logs"),
+                config.getInt("tracing.log_file_limit_kb", 1024) * 1024,
+                config.getInt("tracing.log_file_count", 5));
+
+        // 初始化审计日志（生成、复用、冷却拒绝和核销事件写入本地文件）
+        auditJournal = new AuditJournal(getLogger(), metricsRegistry, config.getInt("audit.ring_size", 65536));
+        if (config.getBoolean("audit.enabled", true)) {
+            auditJournal.open(new File(getDataFolder(), "audit"), config.getInt("audit.segment_mb", 64),
+                    config.getInt("audit.max_segments", 16), config.getLong("audit.flush_interval_ms", 1000));
+        }
+
+        // 初始化冷却时间管理器，并恢复上次停用前的冷却记录（避免重启后玩家立即重新生成链接）
+        cooldownManager = new CooldownManager(config.getInt("settings.cooldown", 120));
+        if (config.getBoolean("cooldown_persistence.enabled", true)) {
+            cooldownSnapshotFile = new File(getDataFolder(), "cooldowns.bin");
+            loadCooldownSnapshot();
+        }
+
+        // 初始化数据库连接和表结构
+        databaseManager = new DatabaseManager(platform);
+        DatabaseInitializer databaseInitializer = new DatabaseInitializer(platform, databaseManager);
+        databaseInitializer.initializeDatabase();
+        databaseInitializer.migrateIndexesAsync();
+
+        // 加载链接操作配置
+        ActionRegistry actionRegistry = new ActionRegistry(getLogger());
+        actionRegistry.reload(platform.getConfig());
+
+        // 初始化记录管理器和链接生成器
+        AuthRecordManager authRecordManager = new AuthRecordManager(platform, databaseManager, databaseInitializer, metricsRegistry);
+        authRecordManager.rebuildIssuedFilterAsync();
+        AuthLinkGenerator authLinkGenerator = new AuthLinkGenerator(platform, authRecordManager, rsaEncryptor, cooldownManager, metricsRegistry, requestTracer, actionRegistry, auditJournal);
+
+        // 无状态链接校验（核销时才写入数据库）
+        StatelessLinkVerifier statelessLinkVerifier = new StatelessLinkVerifier(rsaEncryptor, authLinkGenerator.getLinkSigner(),
+                authRecordManager, authLinkGenerator.getActiveLinkIndex(), authLinkGenerator.getDataEncoder(), metricsRegistry, auditJournal);
+        if (authLinkGenerator.isStatelessLinks()) {
+            getLogger().info("已启用无状态链接模式，发放链接时不写入数据库");
+        }
+
+        // 预热连接池和链接生成路径，避免重启后的首批请求承担冷启动开销
+        new StartupWarmup(this, authRecordManager, authLinkGenerator).run();
+
+        // 玩家进服时预生成链接材料（可选）
+        if (config.getBoolean("pregeneration.enabled", false)) {
+            linkPregenerator = new LinkPregenerator(this, authLinkGenerator);
+            linkPregenerator.start();
+        }
+
+        // 注册对外服务，供其他插件通过ServicesManager调用
+        getServer().getServicesManager().register(AuthLinkerService.class,
+                new AuthLinkerServiceImpl(authLinkGenerator, authRecordManager, statelessLinkVerifier, auditJournal), this, ServicePriority.Normal);
+
+        // 压测工具（仅在执行 /al loadtest 时运行）
+        loadTestRunner = new LoadTestRunner(this, authLinkGenerator, cooldownManager, authRecordManager, metricsRegistry);
+
+        // 批量发放工具（仅在执行 /al bulk 时运行）
+        bulkIssueRunner = new BulkIssueRunner(this, authLinkGenerator);
+
+        // 记录导出工具（仅在执行 /al export 时运行）
+        recordExporter = new RecordExporter(this, databaseInitializer, authRecordManager);
+
+        // 集群维护任务：多台服务器共用数据表时只由持有租约的一台执行清理（可选）
+        if (config.getBoolean("maintenance.enabled", false)) {
+            maintenanceCoordinator = new MaintenanceCoordinator(this, authRecordManager, metricsRegistry);
+            maintenanceCoordinator.addJob("reap_expired", config.getInt("maintenance.reap_interval_seconds", 300),
+                    authRecordManager::cleanupExpiredRecordsAsync);
+            maintenanceCoordinator.start();
+        }
+
+        // 注册命令
+        AuthCommandHandler commandHandler = new AuthCommandHandler(this, authLinkGenerator, rsaEncryptor, databaseInitializer, authRecordManager, metricsRegistry, loadTestRunner, bulkIssueRunner, recordExporter, auditJournal, maintenanceCoordinator);
+        registerCommands(commandHandler);
+
+        // 启动Prometheus指标端点（可选）
+        if (config.getBoolean("metrics.prometheus.enabled", false)) {
+            prometheusExporter = new PrometheusExporter(metricsRegistry, getLogger());
+            prometheusExporter.start(config.getString("metrics.prometheus.host", "127.0.0.1"),
+                    config.getInt("metrics.prometheus.port", 9464));
+        }
+
+        // 启动链接使用变更流（网页端使用链接后通知在线玩家）
+        if (config.getBoolean("change_feed.enabled", false)) {
+            changeFeedPoller = new ChangeFeedPoller(this, authRecordManager, authLinkGenerator.getActiveLinkIndex(), metricsRegistry, auditJournal);
+            changeFeedPoller.start();
+        }
+
+        // 启动定期清理任务（每5分钟清理一次过期的冷却记录和有效链接索引）
+        getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+            cooldownManager.cleanupExpiredCooldowns();
+            authLinkGenerator.getActiveLinkIndex().cleanupExpired();
+            authLinkGenerator.getPregeneratedLinks().cleanupExpired();
+            authRecordManager.cleanupRecentWrites();
+            authRecordManager.cleanupIssuedFilter();
+            statelessLinkVerifier.cleanupReplayCache();
+            getLogger().info("已清理过期的冷却记录，当前缓存数量: " + cooldownManager.getCacheSize());
+        }, 6000L, 6000L); // 5分钟 = 6000 ticks
+
+        // 定期保存冷却记录快照
+        if (cooldownSnapshotFile != null) {
+            long snapshotTicks = Math.max(1, config.getInt("cooldown_persistence.snapshot_interval_seconds", 60)) * 20L;
+            getServer().getScheduler().runTaskTimerAsynchronously(this, this::saveCooldownSnapshot, snapshotTicks, snapshotTicks);
+        }
+
+        getLogger().info("AuthLinker 插件已启用!");
+
+        // 检查密钥状态
+        if (!rsaEncryptor.isKeysLoaded()) {
+            getLogger().warning("RSA密钥未加载！请使用 /authlinker keygen 命令生成密钥对");
+        } else {
+            getLogger().info("RSA密钥已成功加载");
+        }
+    }
+
+    @Override
+    public void onDisable() {
+        // 注销对外服务
+        getServer().getServicesManager().unregisterAll(this);
+
+        // 停止变更流轮询
+        if (changeFeedPoller != null) {
+            changeFeedPoller.stop();
+        }
+
+        // 停止预生成
+        if (linkPregenerator != null) {
+            linkPregenerator.stop();
+        }
+
+        // 停止压测并清理模拟玩家的数据（需在保存冷却快照和关闭数据库连接之前）
+        if (loadTestRunner != null) {
+            loadTestRunner.stop();
+        }
+
+        // 停止批量发放（需在关闭数据库连接之前）
+        if (bulkIssueRunner != null) {
+            bulkIssueRunner.stop();
+        }
+
+        // 停止导出，保留检查点（需在关闭数据库连接之前）
+        if (recordExporter != null) {
+            recordExporter.stop();
+        }
+
+        // 停止维护任务心跳并释放租约（需在关闭数据库连接之前）
+        if (maintenanceCoordinator != null) {
+            maintenanceCoordinator.stop();
+        }
+
+        // 停止指标端点
+        if (prometheusExporter != null) {
+            prometheusExporter.stop();
+        }
+
+        // 保存冷却记录快照
+        if (cooldownSnapshotFile != null) {
+            saveCooldownSnapshot();
+        }
+
+        // 写完缓冲区中的审计事件
+        if (auditJournal != null) {
+            auditJournal.close();
+        }
+
+        // 关闭慢请求日志
+        if (requestTracer != null) {
+            requestTracer.close();
+        }
+
+        // 关闭数据库连接
+        if (databaseManager != null) {
+            databaseManager.closeDataSource();
+        }
+
+        // 注销JFR事件
+        JfrEvents.unregister();
+
+        getLogger().info("AuthLinker 插件已禁用!");
+    }
+
+    private void loadCooldownSnapshot() {
+        long startNanos = System.nanoTime();
+        try {
+            int loaded = cooldownManager.loadSnapshot(cooldownSnapshotFile);
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            if (elapsedMillis >= 1000) {
+                // 恢复在主线程中执行，一百万条记录应远低于1秒（见 CooldownSnapshotBenchmark）
+                getLogger().warning("恢复 " + loaded + " 条冷却记录耗时 " + elapsedMillis + "ms，超过1秒，启动被拖慢");
+            } else if (loaded > 0) {
+                getLogger().info("已恢复 " + loaded + " 条冷却记录，耗时 " + elapsedMillis + "ms");
+            }
+        } catch (IOException e) {
+            getLogger().warning("无法读取冷却记录快照，将不恢复冷却时间: " + e.getMessage());
+        }
+    }
+
+    private void saveCooldownSnapshot() {
+        try {
+            cooldownManager.saveSnapshot(cooldownSnapshotFile);
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "保存冷却记录快照失败", e);
+        }
+    }
+
+    private void registerCommands(AuthCommandHandler commandHandler) {
+        // 注册主命令
+        PluginCommand authlinkerCmd = getCommand("authlinker");
+        if (authlinkerCmd != null) {
+            authlinkerCmd.setExecutor(commandHandler);
+            authlinkerCmd.setTabCompleter(commandHandler);
+        } else {
+            getLogger().warning("无法注册 authlinker 命令!");
+        }
+
+        // 注册别名命令
+        PluginCommand alCmd = getCommand("al");
+        if (alCmd != null) {
+            alCmd.setExecutor(commandHandler);
+            alCmd.setTabCompleter(commandHandler);
+        } else {
+            getLogger().warning("无法注册 al 命令!");
+        }
+    }
+
+    /**
+     * 获取RSA加密器实例
+     */
+    public RSAEncryptor getRsaEncryptor() {
+        return rsaEncryptor;
+    }
+}
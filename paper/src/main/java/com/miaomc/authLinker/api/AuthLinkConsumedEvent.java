@@ -0,0 +1,54 @@
+package com.miaomc.authLinker.api;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 玩家的认证链接在网页端被使用后触发（在主线程中调用）
+ * 由变更流轮询发现，相对网页端操作会有最多一个轮询间隔的延迟
+ */
+public class AuthLinkConsumedEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Player player;
+    private final String action;
+    private final String recordUUID;
+
+    public AuthLinkConsumedEvent(Player player, String action, String recordUUID) {
+        this.player = player;
+        this.action = action;
+        this.recordUUID = recordUUID;
+    }
+
+    /**
+     * 获取链接所属的玩家
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * 获取操作类型
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * 获取记录UUID
+     */
+    public String getRecordUUID() {
+        return recordUUID;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,58 @@
+package com.miaomc.authLinker.platform;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 以 Bukkit 配置节实现的平台配置
+ */
+public class BukkitPlatformConfig implements PlatformConfig {
+    private final ConfigurationSection section;
+
+    public BukkitPlatformConfig(ConfigurationSection section) {
+        this.section = section;
+    }
+
+    @Override
+    public String getString(String path, String def) {
+        return section.getString(path, def);
+    }
+
+    @Override
+    public int getInt(String path, int def) {
+        return section.getInt(path, def);
+    }
+
+    @Override
+    public long getLong(String path, long def) {
+        return section.getLong(path, def);
+    }
+
+    @Override
+    public double getDouble(String path, double def) {
+        return section.getDouble(path, def);
+    }
+
+    @Override
+    public boolean getBoolean(String path, boolean def) {
+        return section.getBoolean(path, def);
+    }
+
+    @Override
+    public List<String> getStringList(String path) {
+        return section.getStringList(path);
+    }
+
+    @Override
+    public PlatformConfig getSection(String path) {
+        ConfigurationSection child = section.getConfigurationSection(path);
+        return child == null ? null : new BukkitPlatformConfig(child);
+    }
+
+    @Override
+    public Set<String> getKeys() {
+        return section.getKeys(false);
+    }
+}
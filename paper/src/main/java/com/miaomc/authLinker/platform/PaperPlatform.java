@@ -0,0 +1,33 @@
+package com.miaomc.authLinker.platform;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+/**
+ * Paper 服务端上的运行平台：配置、日志和数据目录均来自插件本身
+ * 每次读取配置都包装插件当前的配置，/authlinker reload 之后核心模块读到的是新配置
+ */
+public class PaperPlatform implements AuthLinkerPlatform {
+    private final JavaPlugin plugin;
+
+    public PaperPlatform(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return plugin.getLogger();
+    }
+
+    @Override
+    public PlatformConfig getConfig() {
+        return new BukkitPlatformConfig(plugin.getConfig());
+    }
+
+    @Override
+    public File getDataFolder() {
+        return plugin.getDataFolder();
+    }
+}
@@ -0,0 +1,850 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.audit.AuditEvent;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.audit.AuditJournalReader;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.database.DatabaseInitializer;
+import com.miaomc.authLinker.database.HistoryCursor;
+import com.miaomc.authLinker.database.IssuedRecordFilter;
+import com.miaomc.authLinker.database.LeaseState;
+import com.miaomc.authLinker.metrics.CacheStats;
+import com.miaomc.authLinker.metrics.LatencyHistogram;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.metrics.RequestTrace;
+import com.miaomc.authLinker.platform.BukkitPlatformConfig;
+import com.miaomc.authLinker.utils.RSAEncryptor;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+public class AuthCommandHandler implements CommandExecutor, TabCompleter {
+    private final AuthLinker plugin;
+    private final AuthLinkGenerator linkGenerator;
+    private final RSAEncryptor rsaEncryptor;
+    private final DatabaseInitializer databaseInitializer;
+    private final AuthRecordManager authRecordManager;
+    private final MetricsRegistry metrics;
+    private final LoadTestRunner loadTestRunner;
+    private final BulkIssueRunner bulkIssueRunner;
+    private final RecordExporter recordExporter;
+    private final AuditJournal auditJournal;
+    private final MaintenanceCoordinator maintenanceCoordinator;
+    private final MiniMessage miniMessage;
+    private final List<String> subCommands = Arrays.asList("gen", "keygen", "reload", "info", "stats", "loadtest", "bulk", "history", "export", "audit", "help");
+
+    public AuthCommandHandler(AuthLinker plugin, AuthLinkGenerator linkGenerator, RSAEncryptor rsaEncryptor, DatabaseInitializer databaseInitializer, AuthRecordManager authRecordManager, MetricsRegistry metrics, LoadTestRunner loadTestRunner, BulkIssueRunner bulkIssueRunner, RecordExporter recordExporter, AuditJournal auditJournal, MaintenanceCoordinator maintenanceCoordinator) {
+        this.plugin = plugin;
+        this.linkGenerator = linkGenerator;
+        this.rsaEncryptor = rsaEncryptor;
+        this.databaseInitializer = databaseInitializer;
+        this.authRecordManager = authRecordManager;
+        this.metrics = metrics;
+        this.loadTestRunner = loadTestRunner;
+        this.bulkIssueRunner = bulkIssueRunner;
+        this.recordExporter = recordExporter;
+        this.auditJournal = auditJournal;
+        this.maintenanceCoordinator = maintenanceCoordinator;
+        this.miniMessage = MiniMessage.miniMessage();
+    }
+
+    /**
+     * 获取并解析MiniMessage格式的消息
+     */
+    private Component getMessage(String path, String defaultMessage) {
+        String message = plugin.getConfig().getString(path, defaultMessage);
+        return miniMessage.deserialize(message);
+    }
+
+    /**
+     * 获取并解析带前缀的MiniMessage格式消息
+     */
+    private Component getMessageWithPrefix(String path, String defaultMessage) {
+        String prefix = plugin.getConfig().getString("settings.prefix", "<white>[<gradient:#00ff00:#ffff00>Auth<gradient:#ffff00:#ff6600>Linker</gradient></gradient>]</white> ");
+        String message = plugin.getConfig().getString(path, defaultMessage);
+        return miniMessage.deserialize(prefix + message);
+    }
+
+    /**
+     * 发送MiniMessage格式的消息
+     */
+    private void sendMessage(CommandSender sender, String path, String defaultMessage) {
+        sender.sendMessage(getMessageWithPrefix(path, defaultMessage));
+    }
+
+    /**
+     * 发送带变量替换的MiniMessage格式消息
+     *
+     * @param replacements 占位符和值交替排列，例如 "{name}", "login", "{count}", "3"
+     */
+    private void sendMessage(CommandSender sender, String path, String defaultMessage, String... replacements) {
+        String prefix = plugin.getConfig().getString("settings.prefix", "<white>[<gradient:#00ff00:#ffff00>Auth<gradient:#ffff00:#ff6600>Linker</gradient></gradient>]</white> ");
+        String message = plugin.getConfig().getString(path, defaultMessage);
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            message = message.replace(replacements[i], replacements[i + 1]);
+        }
+        sender.sendMessage(miniMessage.deserialize(prefix + message));
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 0) {
+            sendUsage(sender);
+            return true;
+        }
+
+        String subCommand = args[0].toLowerCase();
+
+        switch (subCommand) {
+            case "gen":
+                return handleGenCommand(sender, args);
+            case "keygen":
+                return handleKeygenCommand(sender);
+            case "reload":
+                return handleReloadCommand(sender);
+            case "info":
+                return handleInfoCommand(sender);
+            case "stats":
+                return handleStatsCommand(sender);
+            case "loadtest":
+                return handleLoadTestCommand(sender, args);
+            case "bulk":
+                return handleBulkCommand(sender, args);
+            case "history":
+                return handleHistoryCommand(sender, args);
+            case "export":
+                return handleExportCommand(sender, args);
+            case "audit":
+                return handleAuditCommand(sender, args);
+            case "help":
+            default:
+                sendUsage(sender);
+                return true;
+        }
+    }
+
+    private boolean handleGenCommand(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player player)) {
+            sendMessage(sender, "messages.error.player_only", "<red>此命令只能由玩家执行。</red>");
+            return true;
+        }
+
+        if (!player.hasPermission("miaomc.authlinker.use")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        if (args.length < 2) {
+            sendMessage(sender, "messages.help.gen_usage", "<yellow>生成认证链接: <white>/authlinker gen <action> [force]</white></yellow>");
+            sendAvailableActions(sender);
+            return true;
+        }
+
+        String action = args[1].toLowerCase();
+        LinkAction linkAction = linkGenerator.getActionRegistry().get(action);
+        if (linkAction == null) {
+            sendMessage(sender, "messages.error.invalid_action", "<red>无效的操作类型。支持的操作：<yellow>{actions}</yellow></red>",
+                    "{actions}", describeActions(sender));
+            return true;
+        }
+        if (!player.hasPermission(linkAction.getPermission())) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        // 第三个参数为 force 时强制生成新链接并作废旧链接
+        boolean forceNew = args.length > 2 && args[2].equalsIgnoreCase("force");
+
+        // 异步生成链接，追踪的关联ID即本次的记录UUID
+        RequestTrace trace = linkGenerator.beginTrace(player.getUniqueId(), action);
+        linkGenerator.generateAuthLink(player.getUniqueId(), action, forceNew, trace).thenAccept(result -> {
+            if (result.isSuccess()) {
+                if (result.isReused()) {
+                    sendMessage(sender, "messages.success.link_reused", "<yellow>你已有一个未使用的认证链接，使用 <white>/authlinker gen <action> force</white> 可重新生成</yellow>");
+                } else {
+                    sendMessage(sender, "messages.success.link_generated", "<gradient:#00ff00:#00ffff>认证链接生成成功！</gradient>");
+                }
+
+                // 创建可点击的链接
+                String clickMessage = plugin.getConfig().getString("messages.success.click_to_open", "<click:open_url:'{url}'><underlined><aqua>点击打开链接</aqua></underlined></click>");
+                String finalClickMessage = clickMessage.replace("{url}", result.getLink());
+                player.sendMessage(miniMessage.deserialize(finalClickMessage));
+            } else {
+                sendMessage(sender, "messages.error.general_error", "<red>生成链接时出错: <yellow>{error}</yellow></red>", "{error}", result.getErrorMessage());
+            }
+        });
+
+        return true;
+    }
+
+    private boolean handleKeygenCommand(CommandSender sender) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        // 异步生成密钥对
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            boolean success = rsaEncryptor.generateKeyPair();
+
+            // 在主线程发送消息
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (success) {
+                    String keyPath = plugin.getDataFolder().getAbsolutePath() + "/keys/";
+                    sendMessage(sender, "messages.success.keygen_success", "<green>RSA密钥对生成成功！密钥文件保存在: <yellow>{path}</yellow></green>", "{path}", keyPath);
+                } else {
+                    sendMessage(sender, "messages.success.keygen_failure", "<red>密钥对生成失败，请查看控制台错误信息</red>");
+                }
+            });
+        });
+
+        return true;
+    }
+
+    private boolean handleReloadCommand(CommandSender sender) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        try {
+            plugin.reloadConfig();
+            linkGenerator.getActionRegistry().reload(new BukkitPlatformConfig(plugin.getConfig()));
+            sendMessage(sender, "messages.reload.success", "<green>配置文件重载成功！</green>");
+        } catch (Exception e) {
+            sendMessage(sender, "messages.reload.failure", "<red>配置文件重载失败: <yellow>{error}</yellow></red>", "{error}", e.getMessage());
+        }
+
+        return true;
+    }
+
+    private boolean handleInfoCommand(CommandSender sender) {
+        // 发送插件信息
+        sendMessage(sender, "messages.info.plugin_info", "<gradient:#00ff00:#00ffff>AuthLinker 插件信息</gradient>");
+
+        // 版本信息
+        String version = plugin.getDescription().getVersion();
+        sendMessage(sender, "messages.info.version", "<yellow>版本: <white>{version}</white></yellow>", "{version}", version);
+
+        // RSA密钥状态
+        String rsaStatusKey = rsaEncryptor.isKeysLoaded() ? "messages.info.keys_loaded" : "messages.info.keys_not_loaded";
+        String rsaStatusDefault = rsaEncryptor.isKeysLoaded() ? "<green>已加载</green>" : "<red>未加载</red>";
+        String rsaStatus = plugin.getConfig().getString(rsaStatusKey, rsaStatusDefault);
+        sendMessage(sender, "messages.info.rsa_status", "<yellow>RSA密钥状态: <white>{status}</white></yellow>", "{status}", rsaStatus);
+
+        // 数据库类型
+        sendMessage(sender, "messages.info.database_type", "<yellow>数据库类型: <white>MySQL</white></yellow>");
+
+        // 数据表名
+        String tableName = databaseInitializer.getTableName();
+        sendMessage(sender, "messages.info.table_name", "<yellow>数据表名: <white>{table_name}</white></yellow>", "{table_name}", tableName);
+        if (databaseInitializer.getShardRouter().isSharded()) {
+            sendMessage(sender, "messages.info.shards", "<yellow>分表数量: <white>{shards}</white></yellow>",
+                    "{shards}", String.valueOf(databaseInitializer.getShardRouter().getShardCount()));
+        }
+
+        // 集群维护任务的租约状态（包含节点ID和主机名，仅管理员可见）
+        if (maintenanceCoordinator != null && sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMaintenanceInfo(sender);
+        }
+
+        return true;
+    }
+
+    private void sendMaintenanceInfo(CommandSender sender) {
+        LeaseState state = maintenanceCoordinator.getLastState();
+        String node = maintenanceCoordinator.getNodeId();
+        if (state == null) {
+            sendMessage(sender, "messages.info.maintenance_unknown", "<yellow>维护任务: <white>尚未取得租约状态（本节点 {node}）</white></yellow>",
+                    "{node}", node);
+        } else if (maintenanceCoordinator.isLeader()) {
+            sendMessage(sender, "messages.info.maintenance_leader", "<yellow>维护任务: <white>本节点 {node} 为主节点，已持有 {held} 秒，租约剩余 {remaining} 秒</white></yellow>",
+                    "{node}", node,
+                    "{held}", String.valueOf(state.getHeldMillis() / 1000),
+                    "{remaining}", String.valueOf(state.getRemainingMillis() / 1000));
+        } else {
+            sendMessage(sender, "messages.info.maintenance_follower", "<yellow>维护任务: <white>由 {holder} 执行，租约剩余 {remaining} 秒（本节点 {node}）</white></yellow>",
+                    "{holder}", state.getHolder(),
+                    "{remaining}", String.valueOf(state.getRemainingMillis() / 1000),
+                    "{node}", node);
+        }
+        sendMessage(sender, "messages.info.maintenance_schedule", "<yellow>租约心跳: <white>每 {heartbeat} 秒 + 抖动 {jitter}ms（上限 {jitter_max}ms），租约 {lease} 秒，最长 {failover} 秒完成切换</white></yellow>",
+                "{heartbeat}", String.valueOf(maintenanceCoordinator.getHeartbeatSeconds()),
+                "{jitter}", String.valueOf(maintenanceCoordinator.getLastJitterMillis()),
+                "{jitter_max}", String.valueOf(maintenanceCoordinator.getJitterMillis()),
+                "{lease}", String.valueOf(maintenanceCoordinator.getLeaseSeconds()),
+                "{failover}", String.valueOf(maintenanceCoordinator.getFailoverBoundSeconds()));
+    }
+
+    private boolean handleStatsCommand(CommandSender sender) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        sendMessage(sender, "messages.stats.header", "<gradient:#00ff00:#00ffff>AuthLinker 性能统计</gradient>");
+
+        // 各阶段及数据库语句的延迟分布
+        for (LatencyHistogram.Snapshot snapshot : metrics.getHistogramSnapshots().values()) {
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            sendMessage(sender, "messages.stats.latency_line",
+                    "<yellow>{name}: <white>{count}次 p50={p50}ms p99={p99}ms max={max}ms</white></yellow>",
+                    "{name}", snapshot.getName(),
+                    "{count}", String.valueOf(snapshot.getCount()),
+                    "{p50}", formatMillis(snapshot.getQuantile(0.5)),
+                    "{p99}", formatMillis(snapshot.getQuantile(0.99)),
+                    "{max}", formatMillis(snapshot.getMax()));
+        }
+
+        // 缓存命中率
+        for (CacheStats cache : metrics.getCacheStats().values()) {
+            long total = cache.getHits() + cache.getMisses();
+            sendMessage(sender, "messages.stats.cache_line",
+                    "<yellow>{name} 缓存命中率: <white>{rate}% ({hits}/{total})</white></yellow>",
+                    "{name}", cache.getName(),
+                    "{rate}", String.format("%.1f", cache.getHitRate() * 100),
+                    "{hits}", String.valueOf(cache.getHits()),
+                    "{total}", String.valueOf(total));
+        }
+
+        // 已发放记录过滤器
+        IssuedRecordFilter issuedFilter = authRecordManager.getIssuedFilter();
+        if (issuedFilter != null) {
+            sendMessage(sender, "messages.stats.filter_line",
+                    "<yellow>记录过滤器: <white>{buckets} 个桶，占用 {memory}KB，估算误判率 {fpp}%</white></yellow>",
+                    "{buckets}", String.valueOf(issuedFilter.getBucketCount()),
+                    "{memory}", String.valueOf(issuedFilter.getMemoryBytes() / 1024),
+                    "{fpp}", String.format("%.4f", issuedFilter.getEstimatedFalsePositiveRate() * 100));
+        }
+
+        // 计数器
+        for (Map.Entry<String, Long> entry : metrics.getCounterValues().entrySet()) {
+            sendMessage(sender, "messages.stats.counter_line", "<yellow>{name}: <white>{value}</white></yellow>",
+                    "{name}", entry.getKey(),
+                    "{value}", String.valueOf(entry.getValue()));
+        }
+
+        return true;
+    }
+
+    private boolean handleLoadTestCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        // 将最近一次结果保存为基线
+        if (args.length == 2 && args[1].equalsIgnoreCase("baseline")) {
+            if (loadTestRunner.saveLastAsBaseline()) {
+                sendMessage(sender, "messages.loadtest.baseline_saved", "<green>已将最近一次压测结果保存为基线</green>");
+            } else {
+                sendMessage(sender, "messages.loadtest.no_result", "<red>没有可保存的压测结果</red>");
+            }
+            return true;
+        }
+
+        if (!loadTestRunner.isEnabled()) {
+            sendMessage(sender, "messages.loadtest.disabled", "<red>压测未启用：压测会向数据库写入大量模拟记录，只能在预发布环境中将 loadtest.enabled 设为 true 后使用</red>");
+            return true;
+        }
+
+        if (args.length < 4) {
+            sendMessage(sender, "messages.help.loadtest_usage", "<yellow>压测: <white>/authlinker loadtest <玩家数> <速率/秒> <秒数> [冲突百分比] | baseline</white></yellow>");
+            return true;
+        }
+
+        int players;
+        double rate;
+        int seconds;
+        double collision;
+        try {
+            players = Integer.parseInt(args[1]);
+            rate = Double.parseDouble(args[2]);
+            seconds = Integer.parseInt(args[3]);
+            collision = args.length > 4 ? Double.parseDouble(args[4]) : plugin.getConfig().getDouble("loadtest.collision_percent", 5);
+        } catch (NumberFormatException e) {
+            sendMessage(sender, "messages.help.loadtest_usage", "<yellow>压测: <white>/authlinker loadtest <玩家数> <速率/秒> <秒数> [冲突百分比] | baseline</white></yellow>");
+            return true;
+        }
+        if (players <= 0 || rate <= 0 || seconds <= 0 || collision < 0 || collision > 100) {
+            sendMessage(sender, "messages.help.loadtest_usage", "<yellow>压测: <white>/authlinker loadtest <玩家数> <速率/秒> <秒数> [冲突百分比] | baseline</white></yellow>");
+            return true;
+        }
+
+        CompletableFuture<LoadTestRunner.LoadTestReport> future = loadTestRunner.start(players, rate, seconds, collision);
+        if (future == null) {
+            sendMessage(sender, "messages.loadtest.already_running", "<red>已有压测正在运行</red>");
+            return true;
+        }
+
+        sendMessage(sender, "messages.loadtest.started",
+                "<yellow>压测开始：<white>{players}</white> 名模拟玩家，目标速率 <white>{rate}</white>/s，持续 <white>{seconds}</white> 秒</yellow>",
+                "{players}", String.valueOf(players),
+                "{rate}", String.valueOf(rate),
+                "{seconds}", String.valueOf(seconds));
+
+        future.thenAccept(report -> sendLoadTestReport(sender, report, loadTestRunner.loadBaseline()));
+        return true;
+    }
+
+    private boolean handleBulkCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        if (args.length < 3) {
+            sendMessage(sender, "messages.help.bulk_usage", "<yellow>批量发放: <white>/authlinker bulk <action> online [perm:<权限>] [world:<世界>] | file <文件名></white></yellow>");
+            return true;
+        }
+
+        String action = args[1].toLowerCase();
+        if (linkGenerator.getActionRegistry().get(action) == null) {
+            sendMessage(sender, "messages.error.invalid_action", "<red>无效的操作类型。支持的操作：<yellow>{actions}</yellow></red>",
+                    "{actions}", linkGenerator.getActionRegistry().describe());
+            return true;
+        }
+
+        CompletableFuture<BulkIssueRunner.BulkProgress> future;
+        if (args[2].equalsIgnoreCase("online")) {
+            // 在主线程中按权限和世界筛选在线玩家
+            String permission = null;
+            String world = null;
+            for (int i = 3; i < args.length; i++) {
+                if (args[i].startsWith("perm:")) {
+                    permission = args[i].substring("perm:".length());
+                } else if (args[i].startsWith("world:")) {
+                    world = args[i].substring("world:".length());
+                }
+            }
+            List<UUID> targets = new ArrayList<>();
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                if (permission != null && !player.hasPermission(permission)) {
+                    continue;
+                }
+                if (world != null && !player.getWorld().getName().equalsIgnoreCase(world)) {
+                    continue;
+                }
+                targets.add(player.getUniqueId());
+            }
+            future = bulkIssueRunner.start(targets, action, progress -> sendBulkProgress(sender, progress));
+        } else if (args[2].equalsIgnoreCase("file") && args.length > 3) {
+            // 只允许读取插件数据目录下的文件
+            File file = new File(plugin.getDataFolder(), args[3]);
+            try {
+                if (!file.getCanonicalPath().startsWith(plugin.getDataFolder().getCanonicalPath() + File.separator) || !file.isFile()) {
+                    sendMessage(sender, "messages.bulk.file_not_found", "<red>找不到UUID列表文件: <yellow>{file}</yellow></red>", "{file}", args[3]);
+                    return true;
+                }
+            } catch (IOException e) {
+                sendMessage(sender, "messages.bulk.file_not_found", "<red>找不到UUID列表文件: <yellow>{file}</yellow></red>", "{file}", args[3]);
+                return true;
+            }
+            future = bulkIssueRunner.startFromFile(file, action, progress -> sendBulkProgress(sender, progress));
+        } else {
+            sendMessage(sender, "messages.help.bulk_usage", "<yellow>批量发放: <white>/authlinker bulk <action> online [perm:<权限>] [world:<世界>] | file <文件名></white></yellow>");
+            return true;
+        }
+
+        if (future == null) {
+            sendMessage(sender, "messages.bulk.already_running", "<red>已有批量发放任务正在运行</red>");
+            return true;
+        }
+
+        sendMessage(sender, "messages.bulk.started", "<yellow>开始批量发放 <white>{action}</white> 链接</yellow>", "{action}", action);
+        future.whenComplete((progress, error) -> {
+            // 链接投递任务在此之前已提交到主线程，这里同样在主线程汇报，保证投递数量已统计完
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    sendMessage(sender, "messages.error.general_error", "<red>生成链接时出错: <yellow>{error}</yellow></red>", "{error}", String.valueOf(error.getMessage()));
+                    return;
+                }
+                sendMessage(sender, "messages.bulk.finished",
+                        "<green>批量发放完成：成功 <white>{issued}</white>，冷却跳过 <white>{skipped}</white>，失败 <white>{failed}</white>，已发送给在线玩家 <white>{delivered}</white>，<white>{throughput}</white>/s</green>",
+                        "{issued}", String.valueOf(progress.getIssued()),
+                        "{skipped}", String.valueOf(progress.getSkipped()),
+                        "{failed}", String.valueOf(progress.getFailed()),
+                        "{delivered}", String.valueOf(progress.getDelivered()),
+                        "{throughput}", String.format("%.1f", progress.getThroughput()));
+                sendMessage(sender, "messages.bulk.output_file", "<yellow>结果已写入: <white>{file}</white></yellow>",
+                        "{file}", progress.getOutputFile().getPath());
+            });
+        });
+        return true;
+    }
+
+    private boolean handleExportCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        if (args.length < 2) {
+            sendMessage(sender, "messages.help.export_usage", "<yellow>导出链接记录: <white>/authlinker export <csv|json> [最近小时数] | resume</white></yellow>");
+            return true;
+        }
+
+        CompletableFuture<RecordExporter.ExportProgress> future;
+        if (args[1].equalsIgnoreCase("resume")) {
+            if (!recordExporter.hasCheckpoint()) {
+                sendMessage(sender, "messages.export.no_checkpoint", "<red>没有未完成的导出</red>");
+                return true;
+            }
+            future = recordExporter.resume(progress -> sendExportProgress(sender, progress));
+        } else if (args[1].equalsIgnoreCase("csv") || args[1].equalsIgnoreCase("json")) {
+            if (recordExporter.hasCheckpoint() && !recordExporter.isRunning()) {
+                sendMessage(sender, "messages.export.checkpoint_exists", "<red>存在未完成的导出，请使用 <white>/authlinker export resume</white> 继续</red>");
+                return true;
+            }
+            long sinceMillis = 0;
+            if (args.length > 2) {
+                try {
+                    int hours = Integer.parseInt(args[2]);
+                    if (hours <= 0) {
+                        throw new NumberFormatException();
+                    }
+                    sinceMillis = System.currentTimeMillis() - hours * 3_600_000L;
+                } catch (NumberFormatException e) {
+                    sendMessage(sender, "messages.help.export_usage", "<yellow>导出链接记录: <white>/authlinker export <csv|json> [最近小时数] | resume</white></yellow>");
+                    return true;
+                }
+            }
+            future = recordExporter.start(args[1].equalsIgnoreCase("json"), sinceMillis, progress -> sendExportProgress(sender, progress));
+        } else {
+            sendMessage(sender, "messages.help.export_usage", "<yellow>导出链接记录: <white>/authlinker export <csv|json> [最近小时数] | resume</white></yellow>");
+            return true;
+        }
+
+        if (future == null) {
+            sendMessage(sender, "messages.export.already_running", "<red>已有导出任务正在运行</red>");
+            return true;
+        }
+
+        sendMessage(sender, "messages.export.started", "<yellow>开始导出链接记录</yellow>");
+        future.whenComplete((progress, error) -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (error != null) {
+                sendMessage(sender, "messages.export.failed", "<red>导出中断: <yellow>{error}</yellow>，可使用 <white>/authlinker export resume</white> 继续</red>",
+                        "{error}", String.valueOf(error.getMessage()));
+                return;
+            }
+            sendMessage(sender, "messages.export.finished",
+                    "<green>导出完成：共 <white>{rows}</white> 条记录，<white>{size}</white>KB，<white>{throughput}</white> 条/s</green>",
+                    "{rows}", String.valueOf(progress.getRows()),
+                    "{size}", String.valueOf(progress.getBytes() / 1024),
+                    "{throughput}", String.format("%.1f", progress.getThroughput()));
+            sendMessage(sender, "messages.export.output_file", "<yellow>导出文件: <white>{file}</white></yellow>",
+                    "{file}", progress.getOutputFile().getPath());
+        }));
+        return true;
+    }
+
+    private void sendExportProgress(CommandSender sender, RecordExporter.ExportProgress progress) {
+        sendMessage(sender, "messages.export.progress", "<yellow>导出进度: <white>{rows}</white> 条，<white>{throughput}</white> 条/s</yellow>",
+                "{rows}", String.valueOf(progress.getRows()),
+                "{throughput}", String.format("%.1f", progress.getThroughput()));
+    }
+
+    private boolean handleHistoryCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        if (args.length < 2) {
+            sendMessage(sender, "messages.help.history_usage", "<yellow>查询链接记录: <white>/authlinker history <玩家名|UUID> [游标]</white></yellow>");
+            return true;
+        }
+
+        // 支持玩家名（需要服务器缓存过该玩家）或UUID
+        UUID playerUUID;
+        try {
+            playerUUID = UUID.fromString(args[1]);
+        } catch (IllegalArgumentException e) {
+            OfflinePlayer offlinePlayer = plugin.getServer().getOfflinePlayerIfCached(args[1]);
+            if (offlinePlayer == null) {
+                sendMessage(sender, "messages.history.player_not_found", "<red>找不到玩家: <yellow>{player}</yellow></red>", "{player}", args[1]);
+                return true;
+            }
+            playerUUID = offlinePlayer.getUniqueId();
+        }
+
+        HistoryCursor cursor = null;
+        if (args.length > 2) {
+            cursor = HistoryCursor.parse(args[2]);
+            if (cursor == null) {
+                sendMessage(sender, "messages.history.invalid_cursor", "<red>无效的分页游标</red>");
+                return true;
+            }
+        }
+
+        int pageSize = Math.max(1, plugin.getConfig().getInt("history.page_size", 10));
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        AtomicInteger count = new AtomicInteger();
+        String player = args[1];
+
+        sendMessage(sender, "messages.history.header", "<gradient:#00ff00:#00ffff>{player} 的链接记录</gradient>", "{player}", player);
+        // 未分表时每读到一行立即发送给执行者；分表时各分表的一页合并排序后再逐条发送
+        authRecordManager.streamHistoryAsync(playerUUID, cursor, pageSize, entry -> {
+            count.incrementAndGet();
+            sendMessage(sender, "messages.history.line",
+                    "<gray>{time}</gray> <yellow>{action}</yellow> <white>{status}</white> <gray>{uuid}</gray>",
+                    "{time}", timeFormat.format(new Date(entry.getCreatedAtMillis())),
+                    "{action}", entry.getAction(),
+                    "{status}", entry.getStatus().name().toLowerCase(),
+                    "{uuid}", entry.getRecordUUID());
+        }).thenAccept(next -> {
+            if (count.get() == 0) {
+                sendMessage(sender, "messages.history.empty", "<gray>没有更多记录</gray>");
+            } else if (next != null) {
+                sendMessage(sender, "messages.history.next_page",
+                        "<click:run_command:'/authlinker history {player} {cursor}'><underlined><aqua>下一页</aqua></underlined></click>",
+                        "{player}", player,
+                        "{cursor}", next.toString());
+            }
+        });
+        return true;
+    }
+
+    private boolean handleAuditCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.error.no_permission", "<red>你没有权限使用此命令。</red>");
+            return true;
+        }
+
+        if (args.length < 2) {
+            sendMessage(sender, "messages.help.audit_usage", "<yellow>查询审计日志: <white>/authlinker audit <玩家名|UUID> [最近小时数]</white></yellow>");
+            return true;
+        }
+
+        if (auditJournal.getDirectory() == null) {
+            sendMessage(sender, "messages.audit.disabled", "<red>审计日志未启用</red>");
+            return true;
+        }
+
+        UUID playerUUID;
+        try {
+            playerUUID = UUID.fromString(args[1]);
+        } catch (IllegalArgumentException e) {
+            OfflinePlayer offlinePlayer = plugin.getServer().getOfflinePlayerIfCached(args[1]);
+            if (offlinePlayer == null) {
+                sendMessage(sender, "messages.history.player_not_found", "<red>找不到玩家: <yellow>{player}</yellow></red>", "{player}", args[1]);
+                return true;
+            }
+            playerUUID = offlinePlayer.getUniqueId();
+        }
+
+        long fromMillis = Long.MIN_VALUE;
+        if (args.length > 2) {
+            try {
+                fromMillis = System.currentTimeMillis() - (long) (Double.parseDouble(args[2]) * 3_600_000L);
+            } catch (NumberFormatException e) {
+                sendMessage(sender, "messages.help.audit_usage", "<yellow>查询审计日志: <white>/authlinker audit <玩家名|UUID> [最近小时数]</white></yellow>");
+                return true;
+            }
+        }
+
+        // 只显示最近的若干条，扫描在独立线程中进行
+        int limit = Math.max(1, plugin.getConfig().getInt("audit.query_limit", 20));
+        String player = args[1];
+        UUID targetUUID = playerUUID;
+        long from = fromMillis;
+        CompletableFuture.runAsync(() -> {
+            ArrayDeque<AuditEvent> latest = new ArrayDeque<>(limit);
+            long scanned;
+            try {
+                scanned = AuditJournalReader.scan(auditJournal.getDirectory(), targetUUID, from, Long.MAX_VALUE, null, event -> {
+                    if (latest.size() == limit) {
+                        latest.removeFirst();
+                    }
+                    latest.addLast(event);
+                });
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "读取审计日志失败", e);
+                sendMessage(sender, "messages.audit.failed", "<red>读取审计日志失败，请查看控制台</red>");
+                return;
+            }
+
+            sendMessage(sender, "messages.audit.header", "<gradient:#00ff00:#00ffff>{player} 的审计事件（扫描 {scanned} 条）</gradient>",
+                    "{player}", player, "{scanned}", String.valueOf(scanned));
+            if (latest.isEmpty()) {
+                sendMessage(sender, "messages.audit.empty", "<gray>没有匹配的事件</gray>");
+                return;
+            }
+            SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            for (AuditEvent event : latest) {
+                sendMessage(sender, "messages.audit.line",
+                        "<gray>{time}</gray> <white>{type}</white> <yellow>{action}</yellow> <gray>{uuid}</gray>",
+                        "{time}", timeFormat.format(new Date(event.getTimeMillis())),
+                        "{type}", event.getType().getName(),
+                        "{action}", event.getAction(),
+                        "{uuid}", event.getRecordUUID() != null ? event.getRecordUUID().toString() : "-");
+            }
+        });
+        return true;
+    }
+
+    private void sendBulkProgress(CommandSender sender, BulkIssueRunner.BulkProgress progress) {
+        sendMessage(sender, "messages.bulk.progress", "<yellow>批量发放进度: <white>{processed}/{total}</white>，<white>{throughput}</white>/s</yellow>",
+                "{processed}", String.valueOf(progress.getProcessed()),
+                "{total}", String.valueOf(progress.getTotal()),
+                "{throughput}", String.format("%.1f", progress.getThroughput()));
+    }
+
+    private void sendLoadTestReport(CommandSender sender, LoadTestRunner.LoadTestReport report, LoadTestRunner.LoadTestReport baseline) {
+        sendMessage(sender, "messages.loadtest.report_throughput",
+                "<yellow>吞吐: <white>{throughput}/s</white>（成功 {success}，冷却拒绝 {cooldown}，失败 {failed}，丢弃 {dropped}）</yellow>",
+                "{throughput}", String.format("%.1f", report.getThroughput()),
+                "{success}", String.valueOf(report.getSucceeded()),
+                "{cooldown}", String.valueOf(report.getRejected()),
+                "{failed}", String.valueOf(report.getFailed()),
+                "{dropped}", String.valueOf(report.getDropped()));
+        sendMessage(sender, "messages.loadtest.report_latency",
+                "<yellow>延迟: <white>p50={p50}ms p99={p99}ms p999={p999}ms max={max}ms</white></yellow>",
+                "{p50}", formatMillis(report.getP50Nanos()),
+                "{p99}", formatMillis(report.getP99Nanos()),
+                "{p999}", formatMillis(report.getP999Nanos()),
+                "{max}", formatMillis(report.getMaxNanos()));
+        sendMessage(sender, "messages.loadtest.report_resources",
+                "<yellow>每条链接数据库往返: <white>{round_trips}</white>，每条链接分配: <white>{alloc_kb}KB</white>，GC次数: <white>{gc_count}</white></yellow>",
+                "{round_trips}", String.format("%.2f", report.getRoundTripsPerLink()),
+                "{alloc_kb}", report.getAllocatedBytesPerLink() < 0 ? "N/A" : String.format("%.1f", report.getAllocatedBytesPerLink() / 1024.0),
+                "{gc_count}", String.valueOf(report.getGcCount()));
+
+        if (baseline != null) {
+            sendMessage(sender, "messages.loadtest.report_baseline",
+                    "<yellow>与基线对比: <white>吞吐 {throughput_delta}%，p99 {p99_delta}%，每条分配 {alloc_delta}%</white></yellow>",
+                    "{throughput_delta}", formatDelta(report.getThroughput(), baseline.getThroughput()),
+                    "{p99_delta}", formatDelta(report.getP99Nanos(), baseline.getP99Nanos()),
+                    "{alloc_delta}", formatDelta(report.getAllocatedBytesPerLink(), baseline.getAllocatedBytesPerLink()));
+        }
+    }
+
+    private static String formatDelta(double current, double baseline) {
+        if (baseline <= 0 || current < 0) {
+            return "N/A";
+        }
+        return String.format("%+.1f", (current - baseline) / baseline * 100);
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+
+    private void sendUsage(CommandSender sender) {
+        sendMessage(sender, "messages.help.usage", "<yellow>用法: <white>/authlinker <子命令></white></yellow>");
+        sendMessage(sender, "messages.help.gen_usage", "<yellow>生成认证链接: <white>/authlinker gen <action> [force]</white></yellow>");
+
+        if (sender.hasPermission("miaomc.authlinker.admin")) {
+            sendMessage(sender, "messages.help.keygen_usage", "<yellow>生成密钥对: <white>/authlinker keygen</white></yellow>");
+            sendMessage(sender, "messages.help.reload_usage", "<yellow>重载配置: <white>/authlinker reload</white></yellow>");
+            sendMessage(sender, "messages.help.stats_usage", "<yellow>查看性能统计: <white>/authlinker stats</white></yellow>");
+            sendMessage(sender, "messages.help.loadtest_usage", "<yellow>压测: <white>/authlinker loadtest <玩家数> <速率/秒> <秒数> [冲突百分比] | baseline</white></yellow>");
+            sendMessage(sender, "messages.help.bulk_usage", "<yellow>批量发放: <white>/authlinker bulk <action> online [perm:<权限>] [world:<世界>] | file <文件名></white></yellow>");
+            sendMessage(sender, "messages.help.history_usage", "<yellow>查询链接记录: <white>/authlinker history <玩家名|UUID> [游标]</white></yellow>");
+            sendMessage(sender, "messages.help.export_usage", "<yellow>导出链接记录: <white>/authlinker export <csv|json> [最近小时数] | resume</white></yellow>");
+            sendMessage(sender, "messages.help.audit_usage", "<yellow>查询审计日志: <white>/authlinker audit <玩家名|UUID> [最近小时数]</white></yellow>");
+        }
+
+        sendMessage(sender, "messages.help.info_usage", "<yellow>查看信息: <white>/authlinker info</white></yellow>");
+        sendAvailableActions(sender);
+    }
+
+    private void sendAvailableActions(CommandSender sender) {
+        sendMessage(sender, "messages.help.available_actions", "<yellow>可用操作: <gradient:#ff6600:#ffff00>{actions}</gradient></yellow>",
+                "{actions}", describeActions(sender));
+    }
+
+    /**
+     * 列出发送者有权限使用的操作
+     */
+    private String describeActions(CommandSender sender) {
+        List<String> names = new ArrayList<>();
+        for (LinkAction linkAction : linkGenerator.getActionRegistry().getActions()) {
+            if (sender.hasPermission(linkAction.getPermission())) {
+                names.add(linkAction.getName());
+            }
+        }
+        return String.join(", ", names);
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1) {
+            // 第一个参数：子命令
+            for (String subCmd : subCommands) {
+                if (subCmd.toLowerCase().startsWith(args[0].toLowerCase())) {
+                    // 检查权限
+                    if ((subCmd.equals("keygen") || subCmd.equals("reload") || subCmd.equals("stats") || subCmd.equals("loadtest") || subCmd.equals("bulk") || subCmd.equals("history") || subCmd.equals("export") || subCmd.equals("audit")) && !sender.hasPermission("miaomc.authlinker.admin")) {
+                        continue;
+                    }
+                    if (subCmd.equals("gen") && !sender.hasPermission("miaomc.authlinker.use")) {
+                        continue;
+                    }
+                    completions.add(subCmd);
+                }
+            }
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("gen") || args[0].equalsIgnoreCase("bulk"))) {
+            // 第二个参数：gen/bulk 命令的操作类型（gen 只列出有权限的操作）
+            boolean bulk = args[0].equalsIgnoreCase("bulk");
+            if (sender.hasPermission(bulk ? "miaomc.authlinker.admin" : "miaomc.authlinker.use")) {
+                for (LinkAction linkAction : linkGenerator.getActionRegistry().getActions()) {
+                    if (linkAction.getName().startsWith(args[1].toLowerCase())
+                            && (bulk || sender.hasPermission(linkAction.getPermission()))) {
+                        completions.add(linkAction.getName());
+                    }
+                }
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("gen")) {
+            // 第三个参数：强制生成新链接
+            if (sender.hasPermission("miaomc.authlinker.use") && "force".startsWith(args[2].toLowerCase())) {
+                completions.add("force");
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("bulk")) {
+            // 第三个参数：批量发放的目标来源
+            if (sender.hasPermission("miaomc.authlinker.admin")) {
+                for (String source : Arrays.asList("online", "file")) {
+                    if (source.startsWith(args[2].toLowerCase())) {
+                        completions.add(source);
+                    }
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("export")) {
+            // 第二个参数：导出格式或继续
+            if (sender.hasPermission("miaomc.authlinker.admin")) {
+                for (String option : Arrays.asList("csv", "json", "resume")) {
+                    if (option.startsWith(args[1].toLowerCase())) {
+                        completions.add(option);
+                    }
+                }
+            }
+        }
+
+        return completions;
+    }
+}
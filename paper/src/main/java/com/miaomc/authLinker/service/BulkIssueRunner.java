@@ -0,0 +1,321 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.service.AuthLinkGenerator.AuthLinkResult;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.entity.Player;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * 批量发放认证链接
+ * 目标玩家按固定大小分块，每块通过 {@link AuthLinkGenerator#generateBatch} 一次生成并以多行INSERT写入，
+ * 同时在途的块数量有上限；整个流程在独立线程中执行，只有向在线玩家发送链接时才回到主线程，
+ * 且每块只占用一次主线程任务，不影响TPS。
+ * 所有结果会写入 bulk/ 目录下的CSV文件，便于给离线玩家补发。
+ */
+public class BulkIssueRunner {
+    // 停止时等待在途批次完成的时间
+    private static final long STOP_DRAIN_MILLIS = 3000;
+
+    private final AuthLinker plugin;
+    private final AuthLinkGenerator linkGenerator;
+    private final MiniMessage miniMessage = MiniMessage.miniMessage();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile Thread driver;
+
+    public BulkIssueRunner(AuthLinker plugin, AuthLinkGenerator linkGenerator) {
+        this.plugin = plugin;
+        this.linkGenerator = linkGenerator;
+    }
+
+    /**
+     * 向指定玩家批量发放链接
+     *
+     * @param playerUUIDs 目标玩家（应在主线程中收集好）
+     * @param action      操作类型
+     * @param listener    进度回调（在批量发放线程中调用）
+     * @return 最终进度，如果已有批量任务在运行则返回null
+     */
+    public CompletableFuture<BulkProgress> start(Collection<UUID> playerUUIDs, String action, Consumer<BulkProgress> listener) {
+        List<UUID> targets = new ArrayList<>(playerUUIDs);
+        return start(() -> targets, action, listener);
+    }
+
+    /**
+     * 向UUID列表文件中的玩家批量发放链接（每行一个UUID，忽略空行和 # 开头的注释）
+     *
+     * @param file     UUID列表文件
+     * @param action   操作类型
+     * @param listener 进度回调（在批量发放线程中调用）
+     * @return 最终进度，如果已有批量任务在运行则返回null
+     */
+    public CompletableFuture<BulkProgress> startFromFile(File file, String action, Consumer<BulkProgress> listener) {
+        return start(() -> readUUIDs(file), action, listener);
+    }
+
+    /**
+     * 是否有批量任务正在运行
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 停止正在运行的批量任务（插件停用时在关闭连接池之前调用）
+     * 不再提交新的批次，短暂等待在途批次写完结果文件，不再向玩家发送链接
+     */
+    public void stop() {
+        cancelled = true;
+        Thread thread = driver;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(STOP_DRAIN_MILLIS + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<BulkProgress> start(Callable<List<UUID>> targets, String action, Consumer<BulkProgress> listener) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        cancelled = false;
+
+        CompletableFuture<BulkProgress> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(run(targets.call(), action, listener));
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "批量发放链接失败", t);
+                future.completeExceptionally(t);
+            } finally {
+                driver = null;
+                running.set(false);
+            }
+        }, "AuthLinker-BulkIssue");
+        thread.setDaemon(true);
+        driver = thread;
+        thread.start();
+        return future;
+    }
+
+    private BulkProgress run(List<UUID> targets, String action, Consumer<BulkProgress> listener) throws Exception {
+        int chunkSize = Math.max(1, plugin.getConfig().getInt("bulk.chunk_size", 200));
+        int maxConcurrentChunks = Math.max(1, plugin.getConfig().getInt("bulk.max_concurrent_chunks", 2));
+        long progressIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, plugin.getConfig().getInt("bulk.progress_interval", 2)));
+
+        BulkProgress progress = new BulkProgress(targets.size());
+        Semaphore permits = new Semaphore(maxConcurrentChunks);
+        File outputFile = createOutputFile(action);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("player_uuid,record_uuid,status,link");
+            writer.newLine();
+
+            long lastReport = System.nanoTime();
+            for (int from = 0; from < targets.size() && !cancelled; from += chunkSize) {
+                List<UUID> chunk = targets.subList(from, Math.min(from + chunkSize, targets.size()));
+
+                // 在途块数达到上限时等待，期间按间隔汇报进度
+                while (!permits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    lastReport = maybeReport(progress, listener, lastReport, progressIntervalNanos);
+                }
+                if (cancelled) {
+                    permits.release();
+                    break;
+                }
+
+                linkGenerator.generateBatch(chunk, action).whenComplete((results, error) -> {
+                    try {
+                        if (error != null) {
+                            plugin.getLogger().log(Level.SEVERE, "批量发放链接失败", error);
+                            progress.failed.add(chunk.size());
+                        } else {
+                            writeResults(writer, results);
+                            deliver(results, progress);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+                lastReport = maybeReport(progress, listener, lastReport, progressIntervalNanos);
+            }
+
+            // 等待所有块完成，停止时只短暂等待
+            long drainDeadline = Long.MAX_VALUE;
+            while (!permits.tryAcquire(maxConcurrentChunks, 100, TimeUnit.MILLISECONDS)) {
+                lastReport = maybeReport(progress, listener, lastReport, progressIntervalNanos);
+                if (cancelled) {
+                    long now = System.nanoTime();
+                    if (drainDeadline == Long.MAX_VALUE) {
+                        drainDeadline = now + TimeUnit.MILLISECONDS.toNanos(STOP_DRAIN_MILLIS);
+                    } else if (now - drainDeadline >= 0) {
+                        plugin.getLogger().warning("批量发放已停止，仍有未完成的批次，结果文件可能不完整");
+                        break;
+                    }
+                }
+            }
+        }
+
+        progress.outputFile = outputFile;
+        progress.finishNanos = System.nanoTime();
+        return progress;
+    }
+
+    private long maybeReport(BulkProgress progress, Consumer<BulkProgress> listener, long lastReport, long intervalNanos) {
+        long now = System.nanoTime();
+        if (now - lastReport < intervalNanos) {
+            return lastReport;
+        }
+        listener.accept(progress);
+        return now;
+    }
+
+    /**
+     * 统计结果，并在主线程中把链接发送给在线玩家（每块一次主线程任务）
+     */
+    private void deliver(Map<UUID, AuthLinkResult> results, BulkProgress progress) {
+        List<Map.Entry<UUID, AuthLinkResult>> issued = new ArrayList<>(results.size());
+        for (Map.Entry<UUID, AuthLinkResult> entry : results.entrySet()) {
+            AuthLinkResult result = entry.getValue();
+            if (result.isSuccess()) {
+                progress.issued.increment();
+                issued.add(entry);
+            } else if (result.getRemainingCooldown() > 0) {
+                progress.skipped.increment();
+            } else {
+                progress.failed.increment();
+            }
+        }
+        // 插件停用时不再调度主线程任务
+        if (issued.isEmpty() || cancelled) {
+            return;
+        }
+
+        String generatedMessage = plugin.getConfig().getString("settings.prefix", "") +
+                plugin.getConfig().getString("messages.success.link_generated", "<gradient:#00ff00:#00ffff>认证链接生成成功！</gradient>");
+        String clickMessage = plugin.getConfig().getString("messages.success.click_to_open", "<click:open_url:'{url}'><underlined><aqua>点击打开链接</aqua></underlined></click>");
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            for (Map.Entry<UUID, AuthLinkResult> entry : issued) {
+                Player player = plugin.getServer().getPlayer(entry.getKey());
+                if (player == null) {
+                    continue;
+                }
+                player.sendMessage(miniMessage.deserialize(generatedMessage));
+                player.sendMessage(miniMessage.deserialize(clickMessage.replace("{url}", entry.getValue().getLink())));
+                progress.delivered.increment();
+            }
+        });
+    }
+
+    private void writeResults(BufferedWriter writer, Map<UUID, AuthLinkResult> results) {
+        synchronized (writer) {
+            try {
+                for (Map.Entry<UUID, AuthLinkResult> entry : results.entrySet()) {
+                    AuthLinkResult result = entry.getValue();
+                    writer.write(entry.getKey().toString());
+                    writer.write(',');
+                    writer.write(result.getRecordUUID() == null ? "" : result.getRecordUUID());
+                    writer.write(',');
+                    writer.write(result.isSuccess() ? (result.isReused() ? "reused" : "issued")
+                            : (result.getRemainingCooldown() > 0 ? "cooldown" : "failed"));
+                    writer.write(',');
+                    writer.write(result.isSuccess() ? result.getLink() : "");
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "写入批量发放结果失败", e);
+            }
+        }
+    }
+
+    private File createOutputFile(String action) {
+        File dir = new File(plugin.getDataFolder(), "bulk");
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        return new File(dir, action + "-" + timestamp + ".csv");
+    }
+
+    private List<UUID> readUUIDs(File file) throws IOException {
+        LinkedHashSet<UUID> uuids = new LinkedHashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    uuids.add(UUID.fromString(line));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("UUID列表第 " + lineNumber + " 行格式无效，已跳过: " + line);
+                }
+            }
+        }
+        return new ArrayList<>(uuids);
+    }
+
+    /**
+     * 批量发放进度
+     */
+    public static class BulkProgress {
+        private final int total;
+        private final long startNanos = System.nanoTime();
+        private final LongAdder issued = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private volatile long finishNanos;
+        private volatile File outputFile;
+
+        BulkProgress(int total) {
+            this.total = total;
+        }
+
+        public int getTotal() { return total; }
+        public long getIssued() { return issued.sum(); }
+        public long getSkipped() { return skipped.sum(); }
+        public long getFailed() { return failed.sum(); }
+        public long getDelivered() { return delivered.sum(); }
+        public long getProcessed() { return getIssued() + getSkipped() + getFailed(); }
+        public File getOutputFile() { return outputFile; }
+
+        /**
+         * 已处理的玩家数每秒
+         */
+        public double getThroughput() {
+            long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+            double seconds = (end - startNanos) / 1_000_000_000.0;
+            return seconds > 0 ? getProcessed() / seconds : 0;
+        }
+    }
+}
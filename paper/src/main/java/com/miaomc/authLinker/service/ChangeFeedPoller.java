@@ -0,0 +1,185 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.api.AuthLinkConsumedEvent;
+import com.miaomc.authLinker.audit.AuditEventType;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.database.ConsumedRecord;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * 链接使用变更流
+ * 每个轮询间隔只执行一条查询，读取游标之后被网页端使用、且属于在线玩家的记录，
+ * 然后在主线程中通知玩家并触发 {@link AuthLinkConsumedEvent}。
+ * 查询次数与在线人数无关，不会按玩家逐个轮询。
+ */
+public class ChangeFeedPoller implements Listener {
+    // 估算数据库时间时预留的余量，避免时钟误差导致游标越过尚未读取的记录
+    private static final long SAFETY_LAG_MILLIS = 2000L;
+
+    private final AuthLinker plugin;
+    private final AuthRecordManager authRecordManager;
+    private final ActiveLinkIndex activeLinkIndex;
+    private final AuditJournal auditJournal;
+    private final MiniMessage miniMessage = MiniMessage.miniMessage();
+    private final Set<UUID> onlinePlayers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final LongAdder consumedEvents;
+    private final int batchLimit;
+    private BukkitTask task;
+
+    // 游标：(update_at, uuid)，只在轮询线程中读写
+    private Timestamp cursorTime;
+    private String cursorUUID = "";
+    // 数据库时钟与本地时钟的差值（毫秒）
+    private long clockOffsetMillis;
+
+    public ChangeFeedPoller(AuthLinker plugin, AuthRecordManager authRecordManager, ActiveLinkIndex activeLinkIndex, MetricsRegistry metrics,
+                            AuditJournal auditJournal) {
+        this.plugin = plugin;
+        this.authRecordManager = authRecordManager;
+        this.activeLinkIndex = activeLinkIndex;
+        this.auditJournal = auditJournal;
+        this.consumedEvents = metrics.counter("change_feed_events");
+        this.batchLimit = Math.max(1, plugin.getConfig().getInt("change_feed.batch_limit", 500));
+    }
+
+    /**
+     * 启动轮询（需在主线程中调用）
+     * 游标从当前数据库时间开始，不会补发启动前已使用的记录
+     */
+    public void start() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            onlinePlayers.add(player.getUniqueId());
+        }
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        long intervalTicks = Math.max(1, plugin.getConfig().getInt("change_feed.interval_seconds", 2)) * 20L;
+        task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::poll, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * 停止轮询
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        onlinePlayers.add(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        onlinePlayers.remove(event.getPlayer().getUniqueId());
+    }
+
+    private void poll() {
+        // 上一次轮询尚未结束时跳过本次
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (cursorTime == null && !initCursor()) {
+                return;
+            }
+            if (onlinePlayers.isEmpty()) {
+                advanceCursorToNow();
+                return;
+            }
+
+            List<UUID> players = new ArrayList<>(onlinePlayers);
+            List<ConsumedRecord> records = authRecordManager.fetchConsumedRecordsAsync(cursorTime, cursorUUID, players, batchLimit).join();
+            if (records == null) {
+                return;
+            }
+
+            if (!records.isEmpty()) {
+                ConsumedRecord last = records.get(records.size() - 1);
+                cursorTime = last.getUpdateAt();
+                cursorUUID = last.getRecordUUID();
+                dispatch(records);
+            }
+            // 未取满说明游标之后属于在线玩家的记录已全部读取，可以跳过离线玩家的记录
+            if (records.size() < batchLimit) {
+                advanceCursorToNow();
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "读取链接使用变更流失败", e);
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    private boolean initCursor() {
+        Timestamp databaseTime = authRecordManager.getDatabaseTimeAsync().join();
+        if (databaseTime == null) {
+            return false;
+        }
+        clockOffsetMillis = databaseTime.getTime() - System.currentTimeMillis();
+        cursorTime = databaseTime;
+        cursorUUID = "";
+        return true;
+    }
+
+    /**
+     * 将游标推进到估算的数据库当前时间之前（只前进不后退）
+     */
+    private void advanceCursorToNow() {
+        long estimated = System.currentTimeMillis() + clockOffsetMillis - SAFETY_LAG_MILLIS;
+        // update_at 精度为秒
+        Timestamp candidate = new Timestamp(estimated - Math.floorMod(estimated, 1000L));
+        if (candidate.after(cursorTime)) {
+            cursorTime = candidate;
+            cursorUUID = "";
+        }
+    }
+
+    /**
+     * 在主线程中通知玩家并触发事件（每次轮询最多一个主线程任务）
+     */
+    private void dispatch(List<ConsumedRecord> records) {
+        for (ConsumedRecord record : records) {
+            activeLinkIndex.removeRecord(record.getPlayerUUID(), record.getAction(), record.getRecordUUID());
+            auditJournal.record(AuditEventType.CONSUME_OBSERVED, record.getPlayerUUID(), record.getRecordUUID(), record.getAction());
+        }
+        consumedEvents.add(records.size());
+
+        String prefix = plugin.getConfig().getString("settings.prefix", "");
+        String message = plugin.getConfig().getString("messages.change_feed.link_consumed", "<green>你的 <white>{action}</white> 认证链接已完成验证</green>");
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            for (ConsumedRecord record : records) {
+                Player player = plugin.getServer().getPlayer(record.getPlayerUUID());
+                if (player == null) {
+                    continue;
+                }
+                player.sendMessage(miniMessage.deserialize(prefix + message.replace("{action}", record.getAction())));
+                plugin.getServer().getPluginManager().callEvent(
+                        new AuthLinkConsumedEvent(player, record.getAction(), record.getRecordUUID()));
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+
+/**
+ * 进服预生成
+ * 需要验证的玩家通常在进服后几秒内执行 /al gen，玩家进服时在后台线程中为配置的操作预先准备链接材料，
+ * 执行命令时只需写入数据库（无状态模式下直接发放）；玩家退出时丢弃未使用的材料。
+ * 预生成使用单独的线程，进服高峰不会占用命令生成链接所用的线程池
+ */
+public class LinkPregenerator implements Listener {
+    private final AuthLinker plugin;
+    private final AuthLinkGenerator linkGenerator;
+    private final List<String> actions;
+    private ExecutorService executor;
+
+    public LinkPregenerator(AuthLinker plugin, AuthLinkGenerator linkGenerator) {
+        this.plugin = plugin;
+        this.linkGenerator = linkGenerator;
+        this.actions = new ArrayList<>();
+        for (String action : plugin.getConfig().getStringList("pregeneration.actions")) {
+            actions.add(action.toLowerCase());
+        }
+    }
+
+    /**
+     * 启动预生成线程并注册事件（需在主线程中调用）
+     */
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "AuthLinker-Pregen");
+            thread.setDaemon(true);
+            return thread;
+        });
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * 停止预生成线程，尚未执行的预生成任务直接丢弃
+     */
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        UUID playerUUID = player.getUniqueId();
+        for (String action : actions) {
+            // 只为有权限使用该操作的玩家预生成
+            LinkAction linkAction = linkGenerator.getActionRegistry().get(action);
+            if (linkAction == null || !player.hasPermission(linkAction.getPermission())) {
+                continue;
+            }
+            submit(playerUUID, action);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        linkGenerator.discardPregenerated(event.getPlayer().getUniqueId());
+    }
+
+    private void submit(UUID playerUUID, String action) {
+        ExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.execute(() -> {
+                try {
+                    linkGenerator.pregenerate(playerUUID, action);
+                    // 准备期间玩家已退出时丢弃材料
+                    if (plugin.getServer().getPlayer(playerUUID) == null) {
+                        linkGenerator.discardPregenerated(playerUUID);
+                    }
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.WARNING, "预生成认证链接时出错", e);
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // 插件正在停用
+        }
+    }
+}
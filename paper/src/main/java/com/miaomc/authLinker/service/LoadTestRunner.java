@@ -0,0 +1,457 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.metrics.LatencyHistogram;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.utils.CooldownManager;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * 压测工具
+ * 以开环泊松到达的方式模拟大量玩家执行 /al gen，驱动真实的链接生成流程和数据库，
+ * 统计吞吐、延迟分位、每条链接的数据库往返次数和内存分配，并可与保存的基线对比。
+ * 模拟玩家的UUID以固定前缀 4c4f4144-5445-5354- 开头，压测结束后按该前缀删除写入的记录。
+ * 压测会真实写入数据库，只有配置 loadtest.enabled 为true（仅用于预发布环境）时才能启动。
+ */
+public class LoadTestRunner {
+    // "LOADTEST" 的ASCII编码，作为模拟玩家UUID的高64位
+    private static final long SYNTHETIC_MSB = 0x4C4F414454455354L;
+    // 用于制造冷却冲突的最近玩家窗口大小
+    private static final int RECENT_WINDOW = 64;
+    // 模拟玩家UUID的字符串前缀（与 SYNTHETIC_MSB 对应）
+    static final String SYNTHETIC_PREFIX = "4c4f4144-5445-5354-";
+    // 等待到达时单次休眠的上限，停止时及时退出
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // 停止时等待在途请求和清理数据的时间
+    private static final long STOP_DRAIN_MILLIS = 3000;
+    private static final long CLEANUP_TIMEOUT_SECONDS = 10;
+
+    private final AuthLinker plugin;
+    private final AuthLinkGenerator linkGenerator;
+    private final CooldownManager cooldownManager;
+    private final AuthRecordManager authRecordManager;
+    private final LongAdder dbRoundTrips;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final File baselineFile;
+    private volatile LoadTestReport lastReport;
+    private volatile boolean cancelled;
+    private volatile Thread driver;
+
+    public LoadTestRunner(AuthLinker plugin, AuthLinkGenerator linkGenerator, CooldownManager cooldownManager,
+                          AuthRecordManager authRecordManager, MetricsRegistry metrics) {
+        this.plugin = plugin;
+        this.linkGenerator = linkGenerator;
+        this.cooldownManager = cooldownManager;
+        this.authRecordManager = authRecordManager;
+        this.dbRoundTrips = metrics.counter("db_round_trips");
+        this.baselineFile = new File(new File(plugin.getDataFolder(), "loadtest"), "baseline.properties");
+    }
+
+    /**
+     * 启动一次压测
+     *
+     * @param players          模拟玩家数量
+     * @param ratePerSecond    平均到达速率（次/秒）
+     * @param seconds          持续时间（秒）
+     * @param collisionPercent 命中冷却期内玩家的请求比例（0-100）
+     * @return 压测报告，如果已有压测在运行则返回null
+     * @throws IllegalStateException 未启用压测（loadtest.enabled）
+     */
+    public CompletableFuture<LoadTestReport> start(int players, double ratePerSecond, int seconds, double collisionPercent) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("压测未启用");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        cancelled = false;
+
+        CompletableFuture<LoadTestReport> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                LoadTestReport report = run(players, ratePerSecond, seconds, collisionPercent / 100.0);
+                lastReport = report;
+                future.complete(report);
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "压测执行失败", t);
+                future.completeExceptionally(t);
+            } finally {
+                driver = null;
+                running.set(false);
+            }
+        }, "AuthLinker-LoadTest");
+        thread.setDaemon(true);
+        driver = thread;
+        thread.start();
+        return future;
+    }
+
+    /**
+     * 是否允许压测（loadtest.enabled，默认关闭，只应在预发布环境中开启）
+     */
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("loadtest.enabled", false);
+    }
+
+    /**
+     * 停止正在运行的压测（插件停用时在关闭连接池之前调用）
+     * 不再产生新的请求，短暂等待在途请求后清理模拟玩家的冷却和数据库记录
+     */
+    public void stop() {
+        cancelled = true;
+        Thread thread = driver;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(STOP_DRAIN_MILLIS + TimeUnit.SECONDS.toMillis(CLEANUP_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 是否有压测正在运行
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private LoadTestReport run(int players, double ratePerSecond, int seconds, double collisionRate) throws InterruptedException {
+        List<String> actions = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int totalWeight = loadActionMix(actions, weights);
+        int maxInFlight = plugin.getConfig().getInt("loadtest.max_in_flight", 2000);
+
+        SplittableRandom random = new SplittableRandom();
+        UUID[] playerIds = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            playerIds[i] = new UUID(SYNTHETIC_MSB, random.nextLong());
+        }
+        UUID[] recent = new UUID[RECENT_WINDOW];
+        int recentCount = 0;
+        int nextPlayer = 0;
+
+        LatencyHistogram latency = new LatencyHistogram("loadtest");
+        LongAdder succeeded = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long dropped = 0;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long roundTripsBefore = dbRoundTrips.sum();
+        long allocatedBefore = totalAllocatedBytes();
+        long gcBefore = totalGcCount();
+
+        double meanGapNanos = 1_000_000_000.0 / ratePerSecond;
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+        long nextArrival = startNanos;
+
+        while (nextArrival < endNanos && !cancelled) {
+            long now = System.nanoTime();
+            if (nextArrival > now) {
+                LockSupport.parkNanos(Math.min(nextArrival - now, MAX_PARK_NANOS));
+                continue;
+            }
+
+            if (!inFlight.tryAcquire()) {
+                // 在途请求已达上限，丢弃本次到达（说明系统已经跟不上目标速率）
+                dropped++;
+            } else {
+                // 按冲突比例选择最近用过的玩家，否则轮换到下一个玩家
+                UUID playerUUID;
+                if (recentCount > 0 && random.nextDouble() < collisionRate) {
+                    playerUUID = recent[random.nextInt(Math.min(recentCount, RECENT_WINDOW))];
+                } else {
+                    playerUUID = playerIds[nextPlayer];
+                    nextPlayer = (nextPlayer + 1) % players;
+                    recent[recentCount % RECENT_WINDOW] = playerUUID;
+                    recentCount++;
+                }
+                String action = pickAction(actions, weights, totalWeight, random);
+
+                // 以计划到达时间为起点计算延迟，避免协调遗漏
+                long scheduled = nextArrival;
+                linkGenerator.generateAuthLink(playerUUID, action, linkGenerator.beginTrace(playerUUID, action))
+                        .whenComplete((result, ex) -> {
+                            long elapsed = System.nanoTime() - scheduled;
+                            if (ex != null || result == null) {
+                                failed.increment();
+                            } else if (result.isSuccess()) {
+                                succeeded.increment();
+                                latency.record(elapsed);
+                            } else if (result.getRemainingCooldown() > 0) {
+                                rejected.increment();
+                            } else {
+                                failed.increment();
+                            }
+                            inFlight.release();
+                        });
+            }
+
+            nextArrival += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+        }
+
+        // 等待在途请求完成，停止时只短暂等待
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!inFlight.tryAcquire(maxInFlight, 100, TimeUnit.MILLISECONDS)) {
+            long now = System.nanoTime();
+            if (cancelled) {
+                drainDeadline = Math.min(drainDeadline, now + TimeUnit.MILLISECONDS.toNanos(STOP_DRAIN_MILLIS));
+            }
+            if (now - drainDeadline >= 0) {
+                break;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        cleanup(playerIds);
+
+        long success = succeeded.sum();
+        LoadTestReport report = new LoadTestReport();
+        report.players = players;
+        report.targetRate = ratePerSecond;
+        report.seconds = seconds;
+        report.succeeded = success;
+        report.rejected = rejected.sum();
+        report.failed = failed.sum();
+        report.dropped = dropped;
+        report.throughput = success / (elapsedNanos / 1_000_000_000.0);
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        report.p50Nanos = snapshot.getQuantile(0.5);
+        report.p99Nanos = snapshot.getQuantile(0.99);
+        report.p999Nanos = snapshot.getQuantile(0.999);
+        report.maxNanos = snapshot.getMax();
+        report.roundTripsPerLink = success == 0 ? 0 : (double) (dbRoundTrips.sum() - roundTripsBefore) / success;
+        long allocatedAfter = totalAllocatedBytes();
+        report.allocatedBytesPerLink = allocatedBefore < 0 || success == 0 ? -1 : (allocatedAfter - allocatedBefore) / success;
+        report.gcCount = totalGcCount() - gcBefore;
+        return report;
+    }
+
+    /**
+     * 清理模拟玩家的冷却记录和数据库记录
+     */
+    private void cleanup(UUID[] playerIds) {
+        for (UUID playerUUID : playerIds) {
+            cooldownManager.clearPlayerCooldowns(playerUUID);
+        }
+        try {
+            int deleted = authRecordManager.deleteRecordsByPlayerPrefixAsync(SYNTHETIC_PREFIX)
+                    .get(CLEANUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            plugin.getLogger().info("已删除压测写入的 " + deleted + " 条记录");
+        } catch (ExecutionException | TimeoutException e) {
+            plugin.getLogger().log(Level.WARNING, "删除压测记录失败，可按玩家UUID前缀 " + SYNTHETIC_PREFIX + " 手动清理", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int loadActionMix(List<String> actions, List<Integer> weights) {
+        int total = 0;
+        ConfigurationSection mix = plugin.getConfig().getConfigurationSection("loadtest.action_mix");
+        if (mix != null) {
+            for (String action : mix.getKeys(false)) {
+                int weight = mix.getInt(action, 0);
+                if (weight > 0) {
+                    actions.add(action);
+                    weights.add(weight);
+                    total += weight;
+                }
+            }
+        }
+        if (total == 0) {
+            actions.add("login");
+            weights.add(1);
+            total = 1;
+        }
+        return total;
+    }
+
+    private static String pickAction(List<String> actions, List<Integer> weights, int totalWeight, SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (int i = 0; i < actions.size(); i++) {
+            roll -= weights.get(i);
+            if (roll < 0) {
+                return actions.get(i);
+            }
+        }
+        return actions.get(actions.size() - 1);
+    }
+
+    /**
+     * 当前存活线程累计分配的字节数之和，不支持时返回-1
+     * 统计范围是整个进程，在线上服务器中会包含其他插件的分配，仅作对比参考
+     */
+    private static long totalAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            long total = 0;
+            for (long allocated : sunBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+                if (allocated > 0) {
+                    total += allocated;
+                }
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gcBean.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * 获取最近一次压测报告
+     */
+    public LoadTestReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * 将最近一次压测报告保存为基线
+     *
+     * @return 是否保存成功
+     */
+    public boolean saveLastAsBaseline() {
+        LoadTestReport report = lastReport;
+        if (report == null) {
+            return false;
+        }
+        File dir = baselineFile.getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        try (OutputStream os = new FileOutputStream(baselineFile)) {
+            report.toProperties().store(os, "AuthLinker load test baseline");
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "保存压测基线失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 读取保存的基线，不存在时返回null
+     */
+    public LoadTestReport loadBaseline() {
+        if (!baselineFile.exists()) {
+            return null;
+        }
+        try (InputStream is = new FileInputStream(baselineFile)) {
+            Properties properties = new Properties();
+            properties.load(is);
+            return LoadTestReport.fromProperties(properties);
+        } catch (IOException | NumberFormatException e) {
+            plugin.getLogger().log(Level.WARNING, "读取压测基线失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 压测报告
+     */
+    public static class LoadTestReport {
+        private int players;
+        private double targetRate;
+        private int seconds;
+        private long succeeded;
+        private long rejected;
+        private long failed;
+        private long dropped;
+        private double throughput;
+        private long p50Nanos;
+        private long p99Nanos;
+        private long p999Nanos;
+        private long maxNanos;
+        private double roundTripsPerLink;
+        private long allocatedBytesPerLink;
+        private long gcCount;
+
+        public int getPlayers() { return players; }
+        public double getTargetRate() { return targetRate; }
+        public int getSeconds() { return seconds; }
+        public long getSucceeded() { return succeeded; }
+        public long getRejected() { return rejected; }
+        public long getFailed() { return failed; }
+        public long getDropped() { return dropped; }
+        public double getThroughput() { return throughput; }
+        public long getP50Nanos() { return p50Nanos; }
+        public long getP99Nanos() { return p99Nanos; }
+        public long getP999Nanos() { return p999Nanos; }
+        public long getMaxNanos() { return maxNanos; }
+        public double getRoundTripsPerLink() { return roundTripsPerLink; }
+        public long getAllocatedBytesPerLink() { return allocatedBytesPerLink; }
+        public long getGcCount() { return gcCount; }
+
+        private Properties toProperties() {
+            Properties properties = new Properties();
+            properties.setProperty("players", String.valueOf(players));
+            properties.setProperty("target_rate", String.valueOf(targetRate));
+            properties.setProperty("seconds", String.valueOf(seconds));
+            properties.setProperty("succeeded", String.valueOf(succeeded));
+            properties.setProperty("rejected", String.valueOf(rejected));
+            properties.setProperty("failed", String.valueOf(failed));
+            properties.setProperty("dropped", String.valueOf(dropped));
+            properties.setProperty("throughput", String.valueOf(throughput));
+            properties.setProperty("p50_nanos", String.valueOf(p50Nanos));
+            properties.setProperty("p99_nanos", String.valueOf(p99Nanos));
+            properties.setProperty("p999_nanos", String.valueOf(p999Nanos));
+            properties.setProperty("max_nanos", String.valueOf(maxNanos));
+            properties.setProperty("round_trips_per_link", String.valueOf(roundTripsPerLink));
+            properties.setProperty("allocated_bytes_per_link", String.valueOf(allocatedBytesPerLink));
+            properties.setProperty("gc_count", String.valueOf(gcCount));
+            return properties;
+        }
+
+        private static LoadTestReport fromProperties(Properties properties) {
+            LoadTestReport report = new LoadTestReport();
+            report.players = Integer.parseInt(properties.getProperty("players", "0"));
+            report.targetRate = Double.parseDouble(properties.getProperty("target_rate", "0"));
+            report.seconds = Integer.parseInt(properties.getProperty("seconds", "0"));
+            report.succeeded = Long.parseLong(properties.getProperty("succeeded", "0"));
+            report.rejected = Long.parseLong(properties.getProperty("rejected", "0"));
+            report.failed = Long.parseLong(properties.getProperty("failed", "0"));
+            report.dropped = Long.parseLong(properties.getProperty("dropped", "0"));
+            report.throughput = Double.parseDouble(properties.getProperty("throughput", "0"));
+            report.p50Nanos = Long.parseLong(properties.getProperty("p50_nanos", "0"));
+            report.p99Nanos = Long.parseLong(properties.getProperty("p99_nanos", "0"));
+            report.p999Nanos = Long.parseLong(properties.getProperty("p999_nanos", "0"));
+            report.maxNanos = Long.parseLong(properties.getProperty("max_nanos", "0"));
+            report.roundTripsPerLink = Double.parseDouble(properties.getProperty("round_trips_per_link", "0"));
+            report.allocatedBytesPerLink = Long.parseLong(properties.getProperty("allocated_bytes_per_link", "-1"));
+            report.gcCount = Long.parseLong(properties.getProperty("gc_count", "0"));
+            return report;
+        }
+    }
+}
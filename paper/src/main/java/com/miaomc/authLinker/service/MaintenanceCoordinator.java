@@ -0,0 +1,240 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.database.LeaseState;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * 集群维护任务协调
+ * 多台服务器共用同一张表时，清理过期记录等维护任务只应由一台服务器执行。各服务器定期对租约表中的同一行发送心跳，
+ * 租约由本节点持有或已过期时续约或接管，否则保持原持有者；只有持有租约的节点执行维护任务。
+ * 持有者停止心跳后，最迟在租约时长加一个心跳间隔（含抖动）后由其他节点接管；正常停用时主动释放租约，其他节点下一次心跳即可接管。
+ * 心跳间隔和任务执行时间都加入随机抖动，避免多台服务器在同一时刻访问数据库
+ */
+public class MaintenanceCoordinator {
+    private static final String LEASE_NAME = "maintenance";
+    // 停用时等待释放租约的最长时间，数据库不可用时不阻塞关服，租约到期后由其他节点接管
+    private static final long RELEASE_TIMEOUT_MILLIS = 3000;
+
+    private final AuthLinker plugin;
+    private final AuthRecordManager authRecordManager;
+    private final String nodeId;
+    private final int leaseSeconds;
+    private final int heartbeatSeconds;
+    private final long jitterMillis;
+    private final List<MaintenanceJob> jobs = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean heartbeating = new AtomicBoolean();
+    private final LongAdder leasesAcquired;
+    private final LongAdder leasesLost;
+    private final LongAdder jobRuns;
+    private volatile boolean running;
+    private BukkitTask task;
+
+    // 以下状态只在心跳线程中写入，/al info 读取
+    private volatile LeaseState lastState;
+    // 本节点租约在本地时钟上的截止时间（System.nanoTime()），以心跳开始时间计算，不会晚于数据库中的过期时间
+    private volatile long leaderDeadlineNanos;
+    private volatile boolean leader;
+    private volatile long lastJitterMillis;
+
+    public MaintenanceCoordinator(AuthLinker plugin, AuthRecordManager authRecordManager, MetricsRegistry metrics) {
+        this.plugin = plugin;
+        this.authRecordManager = authRecordManager;
+        FileConfiguration config = plugin.getConfig();
+        String configuredId = config.getString("maintenance.node_id", "");
+        this.nodeId = configuredId == null || configuredId.isEmpty() ? defaultNodeId() : configuredId;
+        this.heartbeatSeconds = Math.max(1, config.getInt("maintenance.heartbeat_seconds", 5));
+        // 租约至少覆盖两次心跳，一次心跳失败不会导致主节点切换
+        this.leaseSeconds = Math.max(heartbeatSeconds * 2, config.getInt("maintenance.lease_seconds", 15));
+        this.jitterMillis = Math.max(0, config.getLong("maintenance.jitter_ms", 2000));
+        this.leasesAcquired = metrics.counter("maintenance_leases_acquired");
+        this.leasesLost = metrics.counter("maintenance_leases_lost");
+        this.jobRuns = metrics.counter("maintenance_job_runs");
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 注册一个只在持有租约的节点上执行的维护任务（需在 {@link #start()} 之前调用）
+     * 首次执行在注册后一个间隔；上一次执行尚未结束时不会再次执行
+     *
+     * @param name            任务名（用于日志）
+     * @param intervalSeconds 执行间隔（秒），实际间隔另加随机抖动
+     * @param job             任务，返回的CompletableFuture完成即视为执行结束
+     */
+    public void addJob(String name, int intervalSeconds, Supplier<CompletableFuture<?>> job) {
+        jobs.add(new MaintenanceJob(name, Math.max(1, intervalSeconds) * 1000L, job));
+    }
+
+    /**
+     * 启动心跳
+     */
+    public void start() {
+        running = true;
+        scheduleHeartbeat();
+        plugin.getLogger().info("已启用集群维护任务协调，本节点ID: " + nodeId);
+    }
+
+    /**
+     * 停止心跳并释放租约（最多等待 {@value #RELEASE_TIMEOUT_MILLIS} 毫秒）
+     */
+    public void stop() {
+        running = false;
+        synchronized (this) {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+        if (leader) {
+            leader = false;
+            try {
+                authRecordManager.releaseLeaseAsync(LEASE_NAME, nodeId)
+                        .orTimeout(RELEASE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                        .join();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "释放维护任务租约失败，其他节点将在租约到期后接管", e);
+            }
+        }
+    }
+
+    private void scheduleHeartbeat() {
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0;
+        lastJitterMillis = jitter;
+        long delayTicks = Math.max(1, (heartbeatSeconds * 1000L + jitter) / 50);
+        synchronized (this) {
+            if (running) {
+                task = plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, this::heartbeat, delayTicks);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        // 上一次心跳尚未结束时跳过本次
+        if (!heartbeating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startNanos = System.nanoTime();
+            LeaseState state = authRecordManager.heartbeatLeaseAsync(LEASE_NAME, nodeId, leaseSeconds).join();
+            if (state != null) {
+                lastState = state;
+                updateLeadership(nodeId.equals(state.getHolder()), startNanos + TimeUnit.MILLISECONDS.toNanos(state.getRemainingMillis()));
+            } else if (leader && System.nanoTime() - leaderDeadlineNanos >= 0) {
+                // 无法续约且租约已到期：其他节点可能已经接管
+                updateLeadership(false, 0);
+            }
+            if (isLeader()) {
+                runDueJobs();
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "维护任务心跳出错", e);
+        } finally {
+            heartbeating.set(false);
+            scheduleHeartbeat();
+        }
+    }
+
+    private void updateLeadership(boolean holding, long deadlineNanos) {
+        leaderDeadlineNanos = deadlineNanos;
+        if (holding && !leader) {
+            leasesAcquired.increment();
+            plugin.getLogger().info("本节点已成为维护任务主节点");
+        } else if (!holding && leader) {
+            leasesLost.increment();
+            plugin.getLogger().warning("本节点不再是维护任务主节点" + (lastState != null ? "，当前持有者: " + lastState.getHolder() : ""));
+        }
+        leader = holding;
+    }
+
+    private void runDueJobs() {
+        long now = System.currentTimeMillis();
+        for (MaintenanceJob job : jobs) {
+            if (now < job.nextRunMillis || !job.running.compareAndSet(false, true)) {
+                continue;
+            }
+            job.nextRunMillis = now + job.intervalMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+            jobRuns.increment();
+            CompletableFuture<?> future;
+            try {
+                future = job.task.get();
+            } catch (RuntimeException e) {
+                job.running.set(false);
+                plugin.getLogger().log(Level.WARNING, "维护任务 " + job.name + " 执行出错", e);
+                continue;
+            }
+            future.whenComplete((result, ex) -> {
+                job.running.set(false);
+                if (ex != null) {
+                    plugin.getLogger().log(Level.WARNING, "维护任务 " + job.name + " 执行出错", ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * 本节点当前是否持有租约（租约在本地时钟上已到期时视为不持有）
+     */
+    public boolean isLeader() {
+        return leader && System.nanoTime() - leaderDeadlineNanos < 0;
+    }
+
+    /**
+     * 最近一次心跳读取到的租约状态，尚未成功心跳时为null
+     */
+    public LeaseState getLastState() {
+        return lastState;
+    }
+
+    public String getNodeId() { return nodeId; }
+    public int getLeaseSeconds() { return leaseSeconds; }
+    public int getHeartbeatSeconds() { return heartbeatSeconds; }
+    public long getJitterMillis() { return jitterMillis; }
+    public long getLastJitterMillis() { return lastJitterMillis; }
+
+    /**
+     * 持有者停止心跳后其他节点接管的最长时间（秒）
+     */
+    public long getFailoverBoundSeconds() {
+        return leaseSeconds + heartbeatSeconds + (jitterMillis + 999) / 1000;
+    }
+
+    private static final class MaintenanceJob {
+        private final String name;
+        private final long intervalMillis;
+        private final Supplier<CompletableFuture<?>> task;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile long nextRunMillis;
+
+        MaintenanceJob(String name, long intervalMillis, Supplier<CompletableFuture<?>> task) {
+            this.name = name;
+            this.intervalMillis = intervalMillis;
+            this.task = task;
+            this.nextRunMillis = System.currentTimeMillis() + intervalMillis;
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.database.DatabaseInitializer;
+import com.miaomc.authLinker.database.ExportedRecord;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 认证记录导出
+ * 按主键分页、每页只向前流式读取，逐行写成gzip压缩的CSV或NDJSON，整张表不会进入内存。
+ * 每页写完后结束当前gzip成员并保存检查点（输出文件位置和最后一条记录的UUID），
+ * 导出中断后可以从检查点继续：输出文件截断到检查点位置后追加新的gzip成员，
+ * 多个成员拼接的文件仍是合法的gzip文件。
+ * 导出速度按配置的每秒行数限制，两页之间等待，等待期间不占用数据库连接。
+ * 插件停用时在当前页写完后停止，检查点保留，下次启动后可继续。
+ */
+public class RecordExporter {
+    private static final String CHECKPOINT_FILE = "export.checkpoint";
+    // 限速等待时检查停止标志的间隔
+    private static final long MAX_PACE_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // stop() 等待当前页写完的最长时间
+    private static final long STOP_WAIT_MILLIS = 5000;
+
+    private final AuthLinker plugin;
+    private final DatabaseInitializer databaseInitializer;
+    private final AuthRecordManager authRecordManager;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile Thread driver;
+
+    public RecordExporter(AuthLinker plugin, DatabaseInitializer databaseInitializer, AuthRecordManager authRecordManager) {
+        this.plugin = plugin;
+        this.databaseInitializer = databaseInitializer;
+        this.authRecordManager = authRecordManager;
+    }
+
+    /**
+     * 是否存在未完成的导出
+     */
+    public boolean hasCheckpoint() {
+        return getCheckpointFile().isFile();
+    }
+
+    /**
+     * 是否有导出正在运行
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 开始新的导出
+     *
+     * @param json        true 导出NDJSON，false 导出CSV
+     * @param sinceMillis 只导出该时间之后创建的记录，0表示全部
+     * @param listener    进度回调（在导出线程中调用）
+     * @return 最终进度，如果已有导出在运行则返回null
+     */
+    public CompletableFuture<ExportProgress> start(boolean json, long sinceMillis, Consumer<ExportProgress> listener) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.file = createOutputFile(json).getPath();
+        checkpoint.json = json;
+        checkpoint.sinceMillis = sinceMillis;
+        checkpoint.table = databaseInitializer.getTableNames().get(0);
+        return launch(checkpoint, listener);
+    }
+
+    /**
+     * 从检查点继续未完成的导出
+     *
+     * @param listener 进度回调（在导出线程中调用）
+     * @return 最终进度，如果已有导出在运行或没有检查点则返回null
+     */
+    public CompletableFuture<ExportProgress> resume(Consumer<ExportProgress> listener) {
+        if (!hasCheckpoint() || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        Checkpoint checkpoint;
+        try {
+            checkpoint = loadCheckpoint();
+        } catch (IOException | RuntimeException e) {
+            running.set(false);
+            plugin.getLogger().log(Level.SEVERE, "读取导出检查点失败", e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return launch(checkpoint, listener);
+    }
+
+    /**
+     * 停止正在运行的导出（插件停用时调用）
+     * 导出在当前页写完并保存检查点后结束，最多等待 {@value #STOP_WAIT_MILLIS} 毫秒
+     */
+    public void stop() {
+        cancelled = true;
+        Thread thread = driver;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(STOP_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<ExportProgress> launch(Checkpoint checkpoint, Consumer<ExportProgress> listener) {
+        cancelled = false;
+
+        CompletableFuture<ExportProgress> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(run(checkpoint, listener));
+            } catch (Throwable t) {
+                if (cancelled) {
+                    plugin.getLogger().info("导出已在检查点暂停，可使用 /al export resume 继续");
+                } else {
+                    plugin.getLogger().log(Level.SEVERE, "导出认证记录失败，可使用 /al export resume 从检查点继续", t);
+                }
+                future.completeExceptionally(t);
+            } finally {
+                driver = null;
+                running.set(false);
+            }
+        }, "AuthLinker-Export");
+        thread.setDaemon(true);
+        driver = thread;
+        thread.start();
+        return future;
+    }
+
+    private ExportProgress run(Checkpoint checkpoint, Consumer<ExportProgress> listener) throws Exception {
+        int pageSize = Math.max(1, plugin.getConfig().getInt("export.page_size", 1000));
+        int rowsPerSecond = Math.max(0, plugin.getConfig().getInt("export.rows_per_second", 2000));
+        long progressIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, plugin.getConfig().getInt("export.progress_interval", 5)));
+        Timestamp since = checkpoint.sinceMillis > 0 ? new Timestamp(checkpoint.sinceMillis) : null;
+
+        List<String> tables = databaseInitializer.getTableNames();
+        int tableIndex = tables.indexOf(checkpoint.table);
+        if (tableIndex < 0) {
+            throw new IOException("检查点中的数据表 " + checkpoint.table + " 不存在，分表配置可能已修改");
+        }
+
+        ExportProgress progress = new ExportProgress(new File(checkpoint.file), checkpoint.rows);
+        saveCheckpoint(checkpoint);
+
+        try (FileChannel channel = FileChannel.open(progress.outputFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // 丢弃检查点之后写入的不完整数据
+            channel.truncate(checkpoint.position);
+            channel.position(checkpoint.position);
+            OutputStream channelStream = new NonClosingOutputStream(Channels.newOutputStream(channel));
+
+            long startNanos = System.nanoTime();
+            long lastReport = startNanos;
+            long pacedRows = 0;
+            while (tableIndex < tables.size()) {
+                if (cancelled) {
+                    throw new IOException("插件已停用，导出已暂停");
+                }
+                String table = tables.get(tableIndex);
+                String[] lastUUID = {checkpoint.afterUUID};
+
+                // 每页一个gzip成员，写完即可作为检查点
+                Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(channelStream, 65536), StandardCharsets.UTF_8), 65536);
+                if (!checkpoint.json && checkpoint.position == 0) {
+                    writer.write("uuid,player_uuid,action,status,is_used,create_at,update_at,expires_at\n");
+                }
+                int count;
+                try {
+                    count = authRecordManager.streamExportPageAsync(table, checkpoint.afterUUID, since, pageSize, record -> {
+                        try {
+                            writeRecord(writer, record, checkpoint.json);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        lastUUID[0] = record.getRecordUUID();
+                    }).join();
+                } finally {
+                    writer.close();
+                }
+                if (count < 0) {
+                    throw new IOException("读取数据表 " + table + " 失败");
+                }
+
+                checkpoint.position = channel.position();
+                checkpoint.rows += count;
+                if (count < pageSize) {
+                    // 当前表已读完
+                    tableIndex++;
+                    checkpoint.afterUUID = "";
+                    if (tableIndex < tables.size()) {
+                        checkpoint.table = tables.get(tableIndex);
+                    }
+                } else {
+                    checkpoint.afterUUID = lastUUID[0];
+                }
+                channel.force(false);
+                saveCheckpoint(checkpoint);
+                progress.rows = checkpoint.rows;
+
+                long now = System.nanoTime();
+                if (now - lastReport >= progressIntervalNanos) {
+                    listener.accept(progress);
+                    lastReport = now;
+                }
+
+                // 按每秒行数限速：提前完成时等待到该批行数对应的时间点
+                pacedRows += count;
+                if (rowsPerSecond > 0) {
+                    long dueNanos = startNanos + pacedRows * 1_000_000_000L / rowsPerSecond;
+                    long waitNanos = dueNanos - System.nanoTime();
+                    while (waitNanos > 0 && !cancelled) {
+                        TimeUnit.NANOSECONDS.sleep(Math.min(waitNanos, MAX_PACE_SLEEP_NANOS));
+                        waitNanos = dueNanos - System.nanoTime();
+                    }
+                }
+            }
+            progress.bytes = channel.position();
+        }
+
+        Files.deleteIfExists(getCheckpointFile().toPath());
+        progress.finishNanos = System.nanoTime();
+        return progress;
+    }
+
+    private static void writeRecord(Writer writer, ExportedRecord record, boolean json) throws IOException {
+        if (json) {
+            writer.write("{\"uuid\":");
+            writeJsonString(writer, record.getRecordUUID());
+            writer.write(",\"player_uuid\":");
+            writeJsonString(writer, record.getPlayerUUID());
+            writer.write(",\"action\":");
+            writeJsonString(writer, record.getAction());
+            writer.write(",\"status\":");
+            writeJsonString(writer, record.getStatus());
+            writer.write(",\"is_used\":");
+            writer.write(record.isUsed() ? "true" : "false");
+            writer.write(",\"create_at\":");
+            writer.write(Long.toString(record.getCreatedAtMillis()));
+            writer.write(",\"update_at\":");
+            writer.write(Long.toString(record.getUpdatedAtMillis()));
+            writer.write(",\"expires_at\":");
+            writer.write(Long.toString(record.getExpiresAtMillis()));
+            writer.write("}\n");
+        } else {
+            writeCsvField(writer, record.getRecordUUID());
+            writer.write(',');
+            writeCsvField(writer, record.getPlayerUUID());
+            writer.write(',');
+            writeCsvField(writer, record.getAction());
+            writer.write(',');
+            writeCsvField(writer, record.getStatus());
+            writer.write(',');
+            writer.write(record.isUsed() ? "true" : "false");
+            writer.write(',');
+            writer.write(Long.toString(record.getCreatedAtMillis()));
+            writer.write(',');
+            writer.write(Long.toString(record.getUpdatedAtMillis()));
+            writer.write(',');
+            writer.write(Long.toString(record.getExpiresAtMillis()));
+            writer.write('\n');
+        }
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private File createOutputFile(boolean json) {
+        File dir = new File(plugin.getDataFolder(), "exports");
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        return new File(dir, "records-" + timestamp + (json ? ".ndjson.gz" : ".csv.gz"));
+    }
+
+    private File getCheckpointFile() {
+        return new File(new File(plugin.getDataFolder(), "exports"), CHECKPOINT_FILE);
+    }
+
+    private Checkpoint loadCheckpoint() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(getCheckpointFile().toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.file = properties.getProperty("file");
+        checkpoint.json = Boolean.parseBoolean(properties.getProperty("json"));
+        checkpoint.sinceMillis = Long.parseLong(properties.getProperty("since", "0"));
+        checkpoint.table = properties.getProperty("table");
+        checkpoint.afterUUID = properties.getProperty("after_uuid", "");
+        checkpoint.rows = Long.parseLong(properties.getProperty("rows", "0"));
+        checkpoint.position = Long.parseLong(properties.getProperty("position", "0"));
+        if (checkpoint.file == null || checkpoint.table == null) {
+            throw new IOException("导出检查点不完整");
+        }
+        return checkpoint;
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免进程中断时留下不完整的检查点
+     */
+    private void saveCheckpoint(Checkpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("file", checkpoint.file);
+        properties.setProperty("json", String.valueOf(checkpoint.json));
+        properties.setProperty("since", String.valueOf(checkpoint.sinceMillis));
+        properties.setProperty("table", checkpoint.table);
+        properties.setProperty("after_uuid", checkpoint.afterUUID);
+        properties.setProperty("rows", String.valueOf(checkpoint.rows));
+        properties.setProperty("position", String.valueOf(checkpoint.position));
+
+        File file = getCheckpointFile();
+        File temp = new File(file.getParentFile(), CHECKPOINT_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            properties.store(writer, "AuthLinker export checkpoint");
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 导出检查点：下一页从 table 中 afterUUID 之后开始，输出文件在 position 之后的内容无效
+     */
+    private static class Checkpoint {
+        private String file;
+        private boolean json;
+        private long sinceMillis;
+        private String table;
+        private String afterUUID = "";
+        private long rows;
+        private long position;
+    }
+
+    /**
+     * 关闭gzip成员时不关闭底层文件通道
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * 导出进度
+     */
+    public static class ExportProgress {
+        private final File outputFile;
+        private final long startRows;
+        private final long startNanos = System.nanoTime();
+        private volatile long rows;
+        private volatile long bytes;
+        private volatile long finishNanos;
+
+        ExportProgress(File outputFile, long startRows) {
+            this.outputFile = outputFile;
+            this.startRows = startRows;
+            this.rows = startRows;
+        }
+
+        public File getOutputFile() { return outputFile; }
+        public long getRows() { return rows; }
+        public long getBytes() { return bytes; }
+
+        /**
+         * 本次运行（不含检查点之前的部分）每秒导出的行数
+         */
+        public double getThroughput() {
+            long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+            double seconds = (end - startNanos) / 1_000_000_000.0;
+            return seconds > 0 ? (rows - startRows) / seconds : 0;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+/**
+ * 启动预热
+ * 重启后的第一次链接生成总是和玩家重连高峰同时到来，却要承担类加载、加密提供者初始化、
+ * 驱动首次解析语句和连接池从最小空闲连接数扩容的开销。
+ * 插件启用时并行预热连接池（借出目标数量的连接并预编译全部语句）和链接生成的计算路径，
+ * 启用流程最多等待 max_wait_ms，超时后预热继续在后台完成。
+ */
+public class StartupWarmup {
+    private final AuthLinker plugin;
+    private final AuthRecordManager authRecordManager;
+    private final AuthLinkGenerator linkGenerator;
+
+    public StartupWarmup(AuthLinker plugin, AuthRecordManager authRecordManager, AuthLinkGenerator linkGenerator) {
+        this.plugin = plugin;
+        this.authRecordManager = authRecordManager;
+        this.linkGenerator = linkGenerator;
+    }
+
+    /**
+     * 执行预热，并等待完成或超时
+     */
+    public void run() {
+        FileConfiguration config = plugin.getConfig();
+        if (!config.getBoolean("warmup.enabled", true)) {
+            return;
+        }
+        int connections = config.getInt("warmup.pool_connections", 10);
+        int iterations = config.getInt("warmup.iterations", 12000);
+        long maxWaitMillis = config.getLong("warmup.max_wait_ms", 5000);
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<Void> poolWarmup = authRecordManager.warmUpConnectionsAsync(connections).thenAccept(warmed ->
+                plugin.getLogger().info("连接池预热完成，预热 " + warmed + " 个连接，耗时 " + elapsedMillis(startNanos) + "ms"));
+        CompletableFuture<Void> cryptoWarmup = CompletableFuture.runAsync(() -> {
+            linkGenerator.warmUp(iterations);
+            plugin.getLogger().info("链接生成预热完成，迭代 " + iterations + " 次，耗时 " + elapsedMillis(startNanos) + "ms");
+        });
+        CompletableFuture<Void> all = CompletableFuture.allOf(poolWarmup, cryptoWarmup);
+
+        try {
+            all.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            plugin.getLogger().info("启动预热完成，共耗时 " + elapsedMillis(startNanos) + "ms");
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("启动预热超过 " + maxWaitMillis + "ms，剩余部分在后台继续执行");
+            all.whenComplete((ignored, ex) -> {
+                if (ex == null) {
+                    plugin.getLogger().info("启动预热完成，共耗时 " + elapsedMillis(startNanos) + "ms");
+                }
+            });
+        } catch (ExecutionException e) {
+            plugin.getLogger().log(Level.WARNING, "启动预热失败", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
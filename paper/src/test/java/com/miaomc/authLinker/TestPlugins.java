@@ -0,0 +1,46 @@
+package com.miaomc.authLinker;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 测试用的插件实例
+ */
+public final class TestPlugins {
+    private TestPlugins() {
+    }
+
+    /**
+     * 创建模拟的插件实例，配置为插件自带的 config.yml 加上 overrides 中的覆盖项
+     *
+     * @param dataFolder 插件数据目录
+     * @param overrides  配置覆盖项（路径 -> 值）
+     */
+    public static AuthLinker mockPlugin(File dataFolder, Map<String, Object> overrides) {
+        YamlConfiguration config = loadDefaultConfig();
+        overrides.forEach(config::set);
+
+        AuthLinker plugin = mock(AuthLinker.class);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("AuthLinker"));
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        return plugin;
+    }
+
+    private static YamlConfiguration loadDefaultConfig() {
+        try (Reader reader = new InputStreamReader(TestPlugins.class.getResourceAsStream("/config.yml"), StandardCharsets.UTF_8)) {
+            return YamlConfiguration.loadConfiguration(reader);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("无法读取默认配置", e);
+        }
+    }
+}
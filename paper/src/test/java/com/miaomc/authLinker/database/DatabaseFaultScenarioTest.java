@@ -0,0 +1,172 @@
+package com.miaomc.authLinker.database;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.TestPlugins;
+import com.miaomc.authLinker.api.LinkStatus;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.platform.PaperPlatform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据库故障场景：注入延迟、语句错误、连接重置、死锁和线程池饱和时，
+ * 每个操作都在有限时间内完成并给出正确结果，连接全部归还，故障停止后连接池恢复正常
+ */
+public class DatabaseFaultScenarioTest {
+    private static final int POOL_SIZE = 4;
+    private static final int QUEUE_SIZE = 16;
+
+    @Rule
+    public TemporaryFolder dataFolder = new TemporaryFolder();
+
+    private EmbeddedDatabase database;
+    private FaultInjector faults;
+    private MetricsRegistry metrics;
+    private AuthRecordManager records;
+
+    @Before
+    public void setUp() {
+        AuthLinker plugin = TestPlugins.mockPlugin(dataFolder.getRoot(), Map.of(
+                "database.mysql.pool_size", POOL_SIZE,
+                "database.executor_queue_size", QUEUE_SIZE,
+                "database.timeouts.connection_ms", 1000));
+        database = new EmbeddedDatabase(plugin);
+        faults = database.getFaults();
+        metrics = new MetricsRegistry();
+        records = new AuthRecordManager(new PaperPlatform(plugin), database.getDatabaseManager(), database.getDatabaseInitializer(), metrics);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Test
+    public void latencyIsBoundedByPoolConcurrency() throws Exception {
+        faults.latency(100, "fixed");
+        int writes = QUEUE_SIZE;
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Boolean>> futures = writeRecords(writes);
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(10, TimeUnit.SECONDS));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 每个连接依次执行 writes / POOL_SIZE 条语句，允许调度误差
+        long ideal = (long) writes / POOL_SIZE * 100;
+        assertTrue("耗时 " + elapsedMillis + "ms，预期接近 " + ideal + "ms", elapsedMillis >= ideal && elapsedMillis < ideal * 4);
+        assertTrue(database.awaitIdle(1000));
+        assertEquals(writes, countRows());
+    }
+
+    @Test
+    public void statementErrorsCompleteWithFailure() throws Exception {
+        faults.errorRate(0.5);
+
+        int failures = 0;
+        for (CompletableFuture<Boolean> future : writeRecords(QUEUE_SIZE)) {
+            if (!future.get(5, TimeUnit.SECONDS)) {
+                failures++;
+            }
+        }
+
+        assertEquals(faults.getInjectedFaults(), failures);
+        assertEquals(failures, counter("db_query_errors"));
+        assertEquals(QUEUE_SIZE - failures, countRows());
+        assertTrue(database.awaitIdle(1000));
+    }
+
+    @Test
+    public void connectionResetsAreEvictedAndPoolRecovers() throws Exception {
+        faults.resetRate(0.5);
+        for (CompletableFuture<Boolean> future : writeRecords(QUEUE_SIZE)) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(faults.getInjectedFaults() > 0);
+        assertTrue(database.awaitIdle(1000));
+
+        // 重置的连接已被连接池丢弃，故障停止后所有操作都成功
+        faults.clear();
+        for (CompletableFuture<Boolean> future : writeRecords(QUEUE_SIZE)) {
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(database.awaitIdle(1000));
+        assertTrue(database.getPool().getTotalConnections() <= POOL_SIZE);
+    }
+
+    @Test
+    public void deadlockRollsBackReplace() throws Exception {
+        UUID player = UUID.randomUUID();
+        String oldRecord = UUID.randomUUID().toString();
+        assertTrue(records.writeAuthRecordAsync(player, "login", "token", oldRecord).get(5, TimeUnit.SECONDS));
+
+        faults.deadlockRate(1.0);
+        String newRecord = UUID.randomUUID().toString();
+        boolean replaced = records.replaceAuthRecordAsync(player, "login", "token2", newRecord,
+                System.currentTimeMillis() + 60_000, null).get(5, TimeUnit.SECONDS);
+        faults.clear();
+
+        // 作废旧记录和写入新记录一起回滚
+        assertFalse(replaced);
+        assertEquals(LinkStatus.UNUSED, records.getRecordStatusAsync(oldRecord).get(5, TimeUnit.SECONDS));
+        assertEquals(LinkStatus.NOT_FOUND, records.getRecordStatusAsync(newRecord).get(5, TimeUnit.SECONDS));
+        assertTrue(database.awaitIdle(1000));
+    }
+
+    @Test
+    public void saturatedExecutorRejectsInsteadOfQueueing() throws Exception {
+        faults.latency(200, "fixed");
+        // 线程数加队列长度之外的操作立即按失败返回
+        int writes = POOL_SIZE + QUEUE_SIZE + 20;
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Boolean>> futures = writeRecords(writes);
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long rejected = futures.stream().filter(future -> future.isDone() && !future.join()).count();
+
+        assertTrue("提交耗时 " + submitMillis + "ms", submitMillis < 200);
+        assertEquals(counter("db_executor_rejections"), rejected);
+        assertTrue(rejected >= writes - POOL_SIZE - QUEUE_SIZE);
+
+        int succeeded = 0;
+        for (CompletableFuture<Boolean> future : futures) {
+            if (future.get(10, TimeUnit.SECONDS)) {
+                succeeded++;
+            }
+        }
+        assertEquals(writes - rejected, succeeded);
+        assertEquals(succeeded, countRows());
+        assertTrue(database.awaitIdle(1000));
+    }
+
+    private List<CompletableFuture<Boolean>> writeRecords(int count) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(records.writeAuthRecordAsync(UUID.randomUUID(), "login", "token" + i));
+        }
+        return futures;
+    }
+
+    private long countRows() throws Exception {
+        return database.queryLong("SELECT COUNT(*) FROM `" + database.getDatabaseInitializer().getTableName() + "`");
+    }
+
+    private long counter(String name) {
+        return metrics.getCounterValues().getOrDefault(name, 0L);
+    }
+}
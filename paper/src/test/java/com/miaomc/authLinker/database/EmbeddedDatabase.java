@@ -0,0 +1,100 @@
+package com.miaomc.authLinker.database;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.platform.PaperPlatform;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MySQL兼容模式的H2内存数据库，经故障注入器接在连接池下方
+ * 连接池大小和获取连接的超时取自插件配置（database.mysql.pool_size、database.timeouts.connection_ms）
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+    private static final AtomicInteger DATABASE_INDEX = new AtomicInteger();
+
+    private final FaultInjector faults = new FaultInjector();
+    private final JdbcDataSource h2;
+    private final HikariDataSource pool;
+    private final DatabaseManager databaseManager;
+    private final DatabaseInitializer databaseInitializer;
+
+    public EmbeddedDatabase(AuthLinker plugin) {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:authlinker" + DATABASE_INDEX.incrementAndGet() +
+                ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(faults.wrap(h2));
+        config.setMaximumPoolSize(plugin.getConfig().getInt("database.mysql.pool_size", 10));
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(Math.max(250, plugin.getConfig().getLong("database.timeouts.connection_ms", 5000)));
+        config.setPoolName("AuthLinkerTestPool");
+        pool = new HikariDataSource(config);
+
+        PaperPlatform platform = new PaperPlatform(plugin);
+        databaseManager = new DatabaseManager(platform, pool);
+        databaseInitializer = new DatabaseInitializer(platform, databaseManager);
+        databaseInitializer.initializeDatabase();
+    }
+
+    public FaultInjector getFaults() {
+        return faults;
+    }
+
+    public HikariPoolMXBean getPool() {
+        return pool.getHikariPoolMXBean();
+    }
+
+    public DatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    public DatabaseInitializer getDatabaseInitializer() {
+        return databaseInitializer;
+    }
+
+    /**
+     * 直接在数据库上执行查询（不经过连接池和故障注入），返回第一行第一列
+     */
+    public long queryLong(String sql) throws SQLException {
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * 等待借出的连接全部归还
+     *
+     * @return 超时前是否已全部归还
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (getPool().getActiveConnections() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        faults.clear();
+        databaseManager.closeDataSource();
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.miaomc.authLinker.database;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据库故障注入（测试用）
+ * 包装在连接池下方的数据源，在语句执行和事务提交时注入延迟、语句错误、连接重置和死锁回滚，
+ * 用于验证超时设置、数据库线程池和链接生成在数据库异常时的表现。
+ * 连接重置会关闭物理连接并抛出SQLState为08S01的异常，与驱动在连接断开时的行为一致，连接池据此丢弃该连接。
+ * 各项设置可在测试过程中随时修改，对之后的语句生效
+ */
+public class FaultInjector {
+    private volatile long latencyMillis;
+    private volatile String latencyDistribution = "fixed";
+    private volatile double errorRate;
+    private volatile double resetRate;
+    private volatile double deadlockRate;
+    private final LongAdder injectedFaults = new LongAdder();
+
+    /**
+     * 每条语句执行和每次提交前的延迟
+     *
+     * @param distribution fixed 固定值，uniform 为0到2倍之间均匀分布，exponential 为以该值为均值的指数分布
+     */
+    public FaultInjector latency(long millis, String distribution) {
+        this.latencyMillis = Math.max(0, millis);
+        this.latencyDistribution = distribution;
+        return this;
+    }
+
+    public FaultInjector errorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    public FaultInjector resetRate(double rate) {
+        this.resetRate = rate;
+        return this;
+    }
+
+    public FaultInjector deadlockRate(double rate) {
+        this.deadlockRate = rate;
+        return this;
+    }
+
+    /**
+     * 停止注入（已包装的连接之后按正常连接工作）
+     */
+    public FaultInjector clear() {
+        this.latencyMillis = 0;
+        this.errorRate = 0;
+        this.resetRate = 0;
+        this.deadlockRate = 0;
+        return this;
+    }
+
+    /**
+     * 包装一个数据源，其借出的连接和创建的语句同样会被包装
+     */
+    public DataSource wrap(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(dataSource, method, args);
+                    return result instanceof Connection ? wrap((Connection) result) : result;
+                });
+    }
+
+    /**
+     * 包装一个连接，其创建的语句同样会被包装
+     */
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    /**
+     * 已注入的故障次数（错误、连接重置和死锁，不含延迟）
+     */
+    public long getInjectedFaults() {
+        return injectedFaults.sum();
+    }
+
+    /**
+     * 语句执行前：注入延迟，并按概率重置连接或抛出语句错误
+     */
+    private void beforeExecute(Connection connection) throws SQLException {
+        sleep();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < resetRate) {
+            injectedFaults.increment();
+            connection.close();
+            throw new SQLNonTransientConnectionException("注入的连接重置", "08S01");
+        }
+        if (random.nextDouble() < errorRate) {
+            injectedFaults.increment();
+            throw new SQLTransientException("注入的语句错误");
+        }
+    }
+
+    /**
+     * 事务提交前：注入延迟，并按概率回滚事务并抛出死锁异常（与MySQL的1213错误一致）
+     */
+    private void beforeCommit(Connection connection) throws SQLException {
+        sleep();
+        if (ThreadLocalRandom.current().nextDouble() < deadlockRate) {
+            injectedFaults.increment();
+            connection.rollback();
+            throw new SQLTransactionRollbackException("注入的死锁，事务已回滚", "40001", 1213);
+        }
+    }
+
+    private void sleep() throws SQLException {
+        long delay = nextLatencyMillis();
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientException("注入延迟时线程被中断", e);
+        }
+    }
+
+    private long nextLatencyMillis() {
+        long latency = latencyMillis;
+        if (latency == 0) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (latencyDistribution) {
+            case "uniform":
+                return random.nextLong(latency * 2 + 1);
+            case "exponential":
+                return (long) (-latency * Math.log(1.0 - random.nextDouble()));
+            default:
+                return latency;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("commit")) {
+                beforeCommit(connection);
+            }
+            Object result = FaultInjector.invoke(connection, method, args);
+            // prepareStatement / prepareCall / createStatement 返回的语句同样包装
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{method.getReturnType()},
+                        new StatementHandler(connection, result));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Connection connection;
+        private final Object statement;
+
+        StatementHandler(Connection connection, Object statement) {
+            this.connection = connection;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                beforeExecute(connection);
+            }
+            return FaultInjector.invoke(statement, method, args);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.platform.BukkitPlatformConfig;
+import com.miaomc.authLinker.utils.RSAEncryptor;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ActionRegistryTest {
+    private static final String LONGEST_NAME = "a".repeat(64);
+
+    @Test
+    public void statelessSkipsActionsThatOverflowRsaBlock() {
+        ActionRegistry registry = load(true, 32);
+
+        assertNotNull(registry.get("login"));
+        // 64 + 32 超过 93
+        assertNull(registry.get(LONGEST_NAME));
+    }
+
+    @Test
+    public void statefulKeepsLongActions() {
+        assertNotNull(load(false, 32).get(LONGEST_NAME));
+    }
+
+    @Test
+    public void maxStatelessDataLengthMatchesEncodedData() {
+        LinkAction action = load(false, 29).get(LONGEST_NAME);
+        String token = "t".repeat(29);
+        byte[] data = action.encodeData(UUID.randomUUID().toString(), UUID.randomUUID(), System.currentTimeMillis(), token);
+
+        assertEquals(action.maxStatelessDataLength(29), data.length);
+        // 64 + 29 = 93，恰好放进一个加密块
+        assertEquals(RSAEncryptor.MAX_PLAIN_BYTES, data.length);
+    }
+
+    private static ActionRegistry load(boolean stateless, int tokenLength) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("stateless.enabled", stateless);
+        config.set("settings.token_length", tokenLength);
+        config.set("actions.login.expired_time", 300);
+        config.set("actions." + LONGEST_NAME + ".expired_time", 300);
+        ActionRegistry registry = new ActionRegistry(Logger.getLogger("ActionRegistryTest"));
+        registry.reload(new BukkitPlatformConfig(config));
+        return registry;
+    }
+}
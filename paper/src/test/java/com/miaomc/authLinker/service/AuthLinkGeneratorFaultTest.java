@@ -0,0 +1,153 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.metrics.RequestTrace;
+import com.miaomc.authLinker.metrics.RequestTracer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据库变慢时链接生成在请求超时内返回数据库错误，故障停止后恢复正常
+ */
+public class AuthLinkGeneratorFaultTest {
+    private static final long REQUEST_TIMEOUT_MS = 300;
+    private static final long DB_LATENCY_MS = 1000;
+    private static final int TRACE_RING_SIZE = 32;
+
+    @Rule
+    public TemporaryFolder dataFolder = new TemporaryFolder();
+
+    private LinkTestFixture fixture;
+
+    @Before
+    public void setUp() {
+        fixture = new LinkTestFixture(dataFolder.getRoot(), Map.of(
+                "database.mysql.pool_size", 2,
+                "database.timeouts.request_ms", REQUEST_TIMEOUT_MS,
+                "tracing.enabled", true,
+                "tracing.ring_size", TRACE_RING_SIZE));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Test
+    public void slowWriteFailsWithinRequestTimeout() throws Exception {
+        fixture.getDatabase().getFaults().latency(DB_LATENCY_MS, "fixed");
+        AuthLinkGenerator generator = fixture.getGenerator();
+        UUID player = UUID.randomUUID();
+
+        long start = System.nanoTime();
+        AuthLinkGenerator.AuthLinkResult result = generator.generateAuthLink(player, "login",
+                generator.beginTrace(player, "login")).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(result.isSuccess());
+        assertTrue("耗时 " + elapsedMillis + "ms", elapsedMillis >= REQUEST_TIMEOUT_MS && elapsedMillis < DB_LATENCY_MS);
+        assertEquals(1, fixture.counter("db_request_timeouts"));
+        // 失败的请求不进入冷却
+        assertFalse(fixture.getCooldownManager().isInCooldown(player, "login"));
+        // 超时后才完成的写入被删除，不留下玩家没有拿到的有效链接
+        assertTrue(awaitLateWritesDiscarded(1));
+    }
+
+    @Test
+    public void slowBatchWriteFailsWithinRequestTimeout() throws Exception {
+        fixture.getDatabase().getFaults().latency(DB_LATENCY_MS, "fixed");
+        List<UUID> players = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        long start = System.nanoTime();
+        Map<UUID, AuthLinkGenerator.AuthLinkResult> results = fixture.getGenerator().generateBatch(players, "login")
+                .get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(players.size(), results.size());
+        results.values().forEach(result -> assertFalse(result.isSuccess()));
+        assertTrue("耗时 " + elapsedMillis + "ms", elapsedMillis < DB_LATENCY_MS);
+        assertEquals(1, fixture.counter("db_request_timeouts"));
+        assertTrue(awaitLateWritesDiscarded(players.size()));
+    }
+
+    @Test
+    public void timedOutWriteKeepsTraceSlotUntilItCompletes() throws Exception {
+        fixture.getDatabase().getFaults().latency(DB_LATENCY_MS, "fixed");
+        AuthLinkGenerator generator = fixture.getGenerator();
+        UUID player = UUID.randomUUID();
+        RequestTrace timedOut = generator.beginTrace(player, "login");
+        assertTrue(timedOut.isRecording());
+
+        assertFalse(generator.generateAuthLink(player, "login", timedOut).get(5, TimeUnit.SECONDS).isSuccess());
+
+        // 写入仍在运行并会写入该追踪：绕环形缓冲区一圈也不会再分配到这个槽位
+        assertFalse(beginRound().contains(timedOut));
+
+        // 写入结束后槽位释放，可以分配给新的请求
+        assertTrue(awaitLateWritesDiscarded(1));
+        long deadline = System.currentTimeMillis() + DB_LATENCY_MS;
+        while (!beginRound().contains(timedOut)) {
+            assertTrue("超时的写入结束后追踪槽位没有释放", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void generatorRecoversAfterFaultsStop() throws Exception {
+        fixture.getDatabase().getFaults().errorRate(1.0);
+        AuthLinkGenerator generator = fixture.getGenerator();
+        UUID player = UUID.randomUUID();
+
+        assertFalse(generator.generateAuthLink(player, "login", generator.beginTrace(player, "login"))
+                .get(5, TimeUnit.SECONDS).isSuccess());
+
+        fixture.getDatabase().getFaults().clear();
+        assertTrue(generator.generateAuthLink(player, "login", generator.beginTrace(player, "login"))
+                .get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(fixture.getDatabase().awaitIdle(1000));
+    }
+
+    /**
+     * 依次开始一圈追踪并立即结束，返回分配到的追踪
+     */
+    private List<RequestTrace> beginRound() {
+        RequestTracer tracer = fixture.getTracer();
+        List<RequestTrace> traces = new ArrayList<>(TRACE_RING_SIZE);
+        for (int i = 0; i < TRACE_RING_SIZE; i++) {
+            traces.add(tracer.begin(UUID.randomUUID(), "login"));
+        }
+        traces.forEach(trace -> tracer.finish(trace, true));
+        return traces;
+    }
+
+    /**
+     * 等待超时的写入完成并被删除（删除语句同样受注入的延迟影响）
+     */
+    private boolean awaitLateWritesDiscarded(long expected) throws Exception {
+        long deadline = System.currentTimeMillis() + DB_LATENCY_MS * 4;
+        while (fixture.counter("db_late_writes_discarded") < expected || countRows() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    private long countRows() throws Exception {
+        return fixture.getDatabase().queryLong("SELECT COUNT(*) FROM `" +
+                fixture.getDatabase().getDatabaseInitializer().getTableName() + "`");
+    }
+}
@@ -0,0 +1,80 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.AuthLinker;
+import com.miaomc.authLinker.TestPlugins;
+import com.miaomc.authLinker.audit.AuditJournal;
+import com.miaomc.authLinker.database.AuthRecordManager;
+import com.miaomc.authLinker.database.EmbeddedDatabase;
+import com.miaomc.authLinker.metrics.MetricsRegistry;
+import com.miaomc.authLinker.metrics.RequestTracer;
+import com.miaomc.authLinker.platform.PaperPlatform;
+import com.miaomc.authLinker.utils.CooldownManager;
+import com.miaomc.authLinker.utils.RSAEncryptor;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * 连接嵌入式数据库的完整链接生成流程（模拟的插件实例，新生成的RSA密钥，审计日志不启用，
+ * 请求追踪按 tracing.* 配置启用但不写日志文件）
+ */
+public class LinkTestFixture implements AutoCloseable {
+    private final AuthLinker plugin;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final EmbeddedDatabase database;
+    private final AuthRecordManager authRecordManager;
+    private final CooldownManager cooldownManager;
+    private final RSAEncryptor rsaEncryptor;
+    private final AuditJournal auditJournal;
+    private final RequestTracer tracer;
+    private final AuthLinkGenerator generator;
+
+    public LinkTestFixture(File dataFolder, Map<String, Object> overrides) {
+        plugin = TestPlugins.mockPlugin(dataFolder, overrides);
+        PaperPlatform platform = new PaperPlatform(plugin);
+        database = new EmbeddedDatabase(plugin);
+        authRecordManager = new AuthRecordManager(platform, database.getDatabaseManager(), database.getDatabaseInitializer(), metrics);
+
+        rsaEncryptor = new RSAEncryptor(platform);
+        rsaEncryptor.generateKeyPair();
+        ActionRegistry actionRegistry = new ActionRegistry(plugin.getLogger());
+        actionRegistry.reload(platform.getConfig());
+        cooldownManager = new CooldownManager(plugin.getConfig().getInt("settings.cooldown", 120));
+        tracer = new RequestTracer(plugin.getLogger(), metrics,
+                plugin.getConfig().getBoolean("tracing.enabled", false),
+                plugin.getConfig().getLong("tracing.slow_threshold_ms", 500),
+                plugin.getConfig().getInt("tracing.ring_size", 16));
+        auditJournal = new AuditJournal(plugin.getLogger(), metrics, 1024);
+        generator = new AuthLinkGenerator(platform, authRecordManager, rsaEncryptor, cooldownManager, metrics, tracer,
+                actionRegistry, auditJournal);
+    }
+
+    public AuthLinker getPlugin() { return plugin; }
+    public MetricsRegistry getMetrics() { return metrics; }
+    public EmbeddedDatabase getDatabase() { return database; }
+    public AuthRecordManager getAuthRecordManager() { return authRecordManager; }
+    public CooldownManager getCooldownManager() { return cooldownManager; }
+    public AuthLinkGenerator getGenerator() { return generator; }
+    public RequestTracer getTracer() { return tracer; }
+
+    /**
+     * 创建一个新的无状态链接校验器（重放缓存为空，相当于服务器重启后或另一台服务器上的校验器）
+     */
+    public StatelessLinkVerifier newStatelessLinkVerifier() {
+        return new StatelessLinkVerifier(rsaEncryptor, generator.getLinkSigner(), authRecordManager,
+                generator.getActiveLinkIndex(), generator.getDataEncoder(), metrics, auditJournal);
+    }
+
+    /**
+     * 读取计数器的当前值
+     */
+    public long counter(String name) {
+        return metrics.getCounterValues().getOrDefault(name, 0L);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        database.close();
+    }
+}
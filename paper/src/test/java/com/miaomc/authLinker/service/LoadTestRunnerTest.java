@@ -0,0 +1,93 @@
+package com.miaomc.authLinker.service;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 压测工具在模拟的插件和嵌入式数据库上运行：驱动真实的链接生成流程，结束或停止后删除模拟玩家的记录
+ */
+public class LoadTestRunnerTest {
+    @Rule
+    public TemporaryFolder dataFolder = new TemporaryFolder();
+
+    private LinkTestFixture fixture;
+
+    @After
+    public void tearDown() throws Exception {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    private LoadTestRunner createRunner(boolean enabled) {
+        fixture = new LinkTestFixture(dataFolder.getRoot(), Map.of(
+                "loadtest.enabled", enabled,
+                "loadtest.max_in_flight", 200));
+        return new LoadTestRunner(fixture.getPlugin(), fixture.getGenerator(), fixture.getCooldownManager(),
+                fixture.getAuthRecordManager(), fixture.getMetrics());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void refusesToRunUnlessEnabled() {
+        LoadTestRunner runner = createRunner(false);
+        assertFalse(runner.isEnabled());
+        runner.start(10, 10, 1, 0);
+    }
+
+    @Test
+    public void generatesLinksAndDeletesSyntheticRecords() throws Exception {
+        LoadTestRunner runner = createRunner(true);
+        // 真实玩家的记录不受清理影响
+        UUID realPlayer = UUID.randomUUID();
+        assertTrue(fixture.getAuthRecordManager().writeAuthRecordAsync(realPlayer, "login", "token").get(5, TimeUnit.SECONDS));
+
+        LoadTestRunner.LoadTestReport report = runner.start(50, 200, 1, 5).get(30, TimeUnit.SECONDS);
+
+        assertTrue(report.getSucceeded() > 0);
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getRoundTripsPerLink() >= 1);
+        assertEquals(0, countSyntheticRows());
+        assertEquals(1, countRows());
+        assertFalse(runner.isRunning());
+    }
+
+    @Test
+    public void stopEndsRunAndCleansUp() throws Exception {
+        LoadTestRunner runner = createRunner(true);
+        CompletableFuture<LoadTestRunner.LoadTestReport> future = runner.start(50, 100, 60, 0);
+        assertNotNull(future);
+        Thread.sleep(500);
+
+        long start = System.nanoTime();
+        runner.stop();
+        long stopMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("停止耗时 " + stopMillis + "ms", stopMillis < 5000);
+        assertTrue(future.isDone());
+        assertTrue(future.get().getSucceeded() > 0);
+        assertEquals(0, countSyntheticRows());
+    }
+
+    private long countSyntheticRows() throws Exception {
+        return fixture.getDatabase().queryLong("SELECT COUNT(*) FROM `" +
+                fixture.getDatabase().getDatabaseInitializer().getTableName() +
+                "` WHERE player_uuid LIKE '" + LoadTestRunner.SYNTHETIC_PREFIX + "%'");
+    }
+
+    private long countRows() throws Exception {
+        return fixture.getDatabase().queryLong("SELECT COUNT(*) FROM `" +
+                fixture.getDatabase().getDatabaseInitializer().getTableName() + "`");
+    }
+}
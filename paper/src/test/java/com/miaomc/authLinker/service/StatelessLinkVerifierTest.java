@@ -0,0 +1,87 @@
+package com.miaomc.authLinker.service;
+
+import com.miaomc.authLinker.api.ConsumeStatus;
+import com.miaomc.authLinker.api.ConsumedLink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 无状态链接的核销：返回链接中的记录，同一链接只能核销一次（包括重启后），签名不符时拒绝
+ */
+public class StatelessLinkVerifierTest {
+    @Rule
+    public TemporaryFolder dataFolder = new TemporaryFolder();
+
+    private LinkTestFixture fixture;
+
+    @Before
+    public void setUp() {
+        // hash_mode 配置为旧版sha256，无状态模式下应被强制为 hmac-sha256
+        fixture = new LinkTestFixture(dataFolder.getRoot(), Map.of(
+                "stateless.enabled", true,
+                "settings.hash_mode", "sha256"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Test
+    public void statelessModeForcesHmac() {
+        assertTrue(fixture.getGenerator().getLinkSigner().isHmacMode());
+    }
+
+    @Test
+    public void consumeReturnsDecodedRecordOnce() throws Exception {
+        UUID player = UUID.randomUUID();
+        String[] params = generate(player);
+        StatelessLinkVerifier verifier = fixture.newStatelessLinkVerifier();
+
+        ConsumedLink first = verifier.consume(params[0], params[1]).get(5, TimeUnit.SECONDS);
+        assertEquals(ConsumeStatus.CONSUMED, first.getStatus());
+        assertEquals(player, first.getPlayerUUID());
+        assertEquals("login", first.getAction());
+
+        // 本实例的重放缓存拦截
+        ConsumedLink replay = verifier.consume(params[0], params[1]).get(5, TimeUnit.SECONDS);
+        assertEquals(ConsumeStatus.ALREADY_CONSUMED, replay.getStatus());
+        assertEquals(first.getRecordUUID(), replay.getRecordUUID());
+
+        // 重放缓存为空的新实例由数据库主键拦截
+        ConsumedLink restarted = fixture.newStatelessLinkVerifier().consume(params[0], params[1]).get(5, TimeUnit.SECONDS);
+        assertEquals(ConsumeStatus.ALREADY_CONSUMED, restarted.getStatus());
+    }
+
+    @Test
+    public void tamperedHashIsInvalid() throws Exception {
+        String[] params = generate(UUID.randomUUID());
+        String tampered = (params[1].charAt(0) == '0' ? "1" : "0") + params[1].substring(1);
+
+        ConsumedLink result = fixture.newStatelessLinkVerifier().consume(params[0], tampered).get(5, TimeUnit.SECONDS);
+        assertEquals(ConsumeStatus.INVALID, result.getStatus());
+        assertNull(result.getPlayerUUID());
+    }
+
+    /**
+     * 生成一条链接并取出 data 和 hash 参数
+     */
+    private String[] generate(UUID player) throws Exception {
+        AuthLinkGenerator generator = fixture.getGenerator();
+        AuthLinkGenerator.AuthLinkResult result = generator.generateAuthLink(player, "login",
+                generator.beginTrace(player, "login")).get(5, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        return new String[]{result.getData(), result.getHash()};
+    }
+}